@@ -2,17 +2,29 @@ package org.bptree;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents a B+ Tree with configurable order and generic data type.
  * @param <T> the type of keys stored in the tree nodes
  */
-public class BPlusTree<T extends Comparable<T>> implements Serializable {
+public class BPlusTree<T extends Comparable<T>> implements Iterable<T>, Serializable {
+    private static final int MIN_KEYS_PER_TASK = 1024;  // Smallest batch of lookups worth a task of its own
+
     private Node<T> root;  // Root node of the B+ Tree
     private final int order;  // Order (degree) of the B+ Tree
+    private int size;  // Number of keys stored in the tree
 
     /**
      * Constructs a BPlusTree with the specified order.
@@ -35,112 +47,472 @@ public class BPlusTree<T extends Comparable<T>> implements Serializable {
         return root;
     }
 
+    /**
+     * Returns the number of keys stored in the tree.
+     * @return the key count
+     */
+    public int size() {
+        return size;
+    }
+
     /**
      * Constructs the B+ Tree from a bottom-up approach using the given list of data.
-     * @param listData a list of keys to insert into the tree
+     * Leaves and internal levels are built in parallel on the common fork-join pool;
+     * use {@link BPlusTreeBuilder} to pick the pool, the leaf fill factor or a streaming input.
+     * @param listData a list of keys in ascending order
+     * @throws IllegalArgumentException if the list is empty or not sorted
      * @throws InterruptedException if the thread is interrupted while waiting
      * @throws ExecutionException if an exception occurs during task execution
      */
     public void bottom_up_method(List<T> listData) throws InterruptedException, ExecutionException {
-        if (listData.isEmpty()) {
-            throw new IllegalArgumentException("Input data list should not be empty.");
+        BPlusTree<T> built = new BPlusTreeBuilder<T>(order)
+                .executor(ForkJoinPool.commonPool())
+                .build(listData);
+        load(built.root, built.size);
+    }
+
+    /**
+     * Replaces the contents of the tree with nodes that were already built.
+     * @param root the root node
+     * @param size the number of keys below the root
+     */
+    void load(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Inserts a single key into the tree.
+     * Overfull leaves and internal nodes are split on the way back up, and the root grows
+     * by one level when it splits. The tree is treated as a set: a key that is already present
+     * is not inserted again.
+     * @param key the key to insert
+     * @return true if the key was inserted, false if it was already present
+     */
+    public boolean insert(T key) {
+        if (root == null) {
+            root = new Node<>(true);
+            root.addKey(key);
+            size = 1;
+            return true;
         }
 
-        int availableThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
-        ExecutorService executor = Executors.newFixedThreadPool(availableThreads);
-        List<Future<Node<T>>> futures = new ArrayList<>();
+        List<Node<T>> path = new ArrayList<>();
+        List<Integer> childIndexes = new ArrayList<>();
+        Node<T> leaf = descend(key, path, childIndexes);
 
-        try {
-            // Build leaf nodes concurrently in chunks
-            for (int i = 0; i < listData.size(); i += (this.order - 1)) {
-                int end = Math.min(i + (this.order - 1), listData.size());
-                List<T> chunk = listData.subList(i, end);
-                futures.add(executor.submit(construct_leaf_level(chunk)));
-            }
+        int pos = Collections.binarySearch(leaf.getKeys(), key);
+        if (pos >= 0) {
+            return false;
+        }
+        leaf.getKeys().add(-pos - 1, key);
+        size++;
+
+        if (leaf.getKeys().size() < order) {
+            return true;
+        }
+
+        // Split the leaf and push the separator up while parents overflow
+        Node<T> right = splitLeaf(leaf);
+        T separator = right.getKeys().get(0);
+        Node<T> left = leaf;
 
-            List<Node<T>> leafNodes = new ArrayList<>();
-            for (Future<Node<T>> future : futures) {
-                leafNodes.add(future.get());
+        for (int level = path.size() - 1; level >= 0; level--) {
+            Node<T> parent = path.get(level);
+            int index = childIndexes.get(level);
+            parent.getKeys().add(index, separator);
+            parent.getChildren().add(index + 1, right);
+
+            if (parent.getChildren().size() <= order) {
+                return true;
             }
 
-            // Link leaf nodes in sequence
-            link_leaf_nodes(leafNodes);
+            right = splitInternal(parent);
+            separator = parent.getKeys().remove(parent.getKeys().size() - 1);
+            left = parent;
+        }
+
+        // The root itself was split: grow the tree by one level
+        Node<T> newRoot = new Node<>(false);
+        newRoot.addChild(left);
+        newRoot.addChild(right);
+        newRoot.addKey(separator);
+        root = newRoot;
+        return true;
+    }
 
-            // Recursively build internal levels
-            this.root = build_internal_levels(leafNodes);
-        } finally {
-            executor.shutdown();
-            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-                System.err.println("Executor did not terminate in time.");
+    /**
+     * Moves the upper half of an overfull leaf into a new right sibling and links it into the leaf chain.
+     * @param leaf the leaf to split
+     * @return the new right sibling
+     */
+    private Node<T> splitLeaf(Node<T> leaf) {
+        List<T> keys = leaf.getKeys();
+        List<T> upper = keys.subList((keys.size() + 1) / 2, keys.size());
+
+        Node<T> right = new Node<>(true);
+        right.getKeys().addAll(upper);
+        upper.clear();
+
+        right.setNext(leaf.getNext());
+        leaf.setNext(right);
+        return right;
+    }
+
+    /**
+     * Moves the upper half of an overfull internal node into a new right sibling.
+     * The middle key stays behind as the last key of the node, for the caller to push up to the parent.
+     * @param node the internal node to split
+     * @return the new right sibling
+     */
+    private Node<T> splitInternal(Node<T> node) {
+        int leftChildren = (node.getChildren().size() + 1) / 2;
+        List<T> upperKeys = node.getKeys().subList(leftChildren, node.getKeys().size());
+        List<Node<T>> upperChildren = node.getChildren().subList(leftChildren, node.getChildren().size());
+
+        Node<T> right = new Node<>(false);
+        right.getKeys().addAll(upperKeys);
+        right.getChildren().addAll(upperChildren);
+        upperKeys.clear();
+        upperChildren.clear();
+        return right;
+    }
+
+    /**
+     * Deletes a single key from the tree.
+     * Underfull nodes borrow a key from a sibling when it can spare one and are merged with it otherwise;
+     * the root shrinks by one level when it is left with a single child.
+     * @param key the key to delete
+     * @return true if the key was deleted, false if it was not present
+     */
+    public boolean delete(T key) {
+        if (root == null) {
+            return false;
+        }
+
+        List<Node<T>> path = new ArrayList<>();
+        List<Integer> childIndexes = new ArrayList<>();
+        Node<T> leaf = descend(key, path, childIndexes);
+
+        int pos = Collections.binarySearch(leaf.getKeys(), key);
+        if (pos < 0) {
+            return false;
+        }
+        leaf.getKeys().remove(pos);
+        size--;
+
+        Node<T> node = leaf;
+        for (int level = path.size() - 1; level >= 0; level--) {
+            boolean underflow = node.isLeaf()
+                    ? node.getKeys().size() < order / 2
+                    : node.getChildren().size() < (order + 1) / 2;
+            if (!underflow) {
+                return true;
             }
+
+            Node<T> parent = path.get(level);
+            int index = childIndexes.get(level);
+            if (node.isLeaf()) {
+                rebalanceLeaf(parent, index);
+            } else {
+                rebalanceInternal(parent, index);
+            }
+            node = parent;
         }
+
+        // Shrink the root when it became empty or is left with a single child
+        if (root.isLeaf() && root.getKeys().isEmpty()) {
+            root = null;
+        } else if (!root.isLeaf() && root.getChildren().size() == 1) {
+            root = root.getChildren().get(0);
+        }
+        return true;
     }
 
     /**
-     * Creates a Callable task that constructs a leaf node from the given data.
-     * @param data a chunk of keys to be stored in the leaf node
-     * @return a Callable task that returns the constructed leaf node
+     * Fixes an underfull leaf by borrowing a key from a sibling or merging with it.
+     * @param parent the parent of the underfull leaf
+     * @param index  the index of the underfull leaf among the parent's children
      */
-    private Callable<Node<T>> construct_leaf_level(List<T> data) {
-        return () -> {
-            Node<T> node = new Node<>(true);
-            node.getKeys().addAll(data);
-            return node;
-        };
+    private void rebalanceLeaf(Node<T> parent, int index) {
+        List<Node<T>> children = parent.getChildren();
+        Node<T> leaf = children.get(index);
+        Node<T> left = index > 0 ? children.get(index - 1) : null;
+        Node<T> right = index < children.size() - 1 ? children.get(index + 1) : null;
+
+        if (left != null && left.getKeys().size() > order / 2) {
+            leaf.getKeys().add(0, left.getKeys().remove(left.getKeys().size() - 1));
+            parent.getKeys().set(index - 1, leaf.getKeys().get(0));
+        } else if (right != null && right.getKeys().size() > order / 2) {
+            leaf.getKeys().add(right.getKeys().remove(0));
+            parent.getKeys().set(index, right.getKeys().get(0));
+        } else if (left != null) {
+            mergeLeaves(parent, index - 1);
+        } else if (right != null) {
+            mergeLeaves(parent, index);
+        }
     }
 
     /**
-     * Links the given leaf nodes in sequence using the next pointer.
-     * @param leafNodes the list of leaf nodes to link
+     * Merges the leaf at {@code index + 1} into the leaf at {@code index} and unlinks it from the leaf chain.
+     * @param parent the parent of both leaves
+     * @param index  the index of the left leaf among the parent's children
      */
-    private void link_leaf_nodes(List<Node<T>> leafNodes) {
-        for (int i = 0; i < leafNodes.size() - 1; i++) {
-            leafNodes.get(i).setNext(leafNodes.get(i + 1));
+    private void mergeLeaves(Node<T> parent, int index) {
+        Node<T> left = parent.getChildren().get(index);
+        Node<T> right = parent.getChildren().remove(index + 1);
+        parent.getKeys().remove(index);
+
+        left.getKeys().addAll(right.getKeys());
+        left.setNext(right.getNext());
+    }
+
+    /**
+     * Fixes an underfull internal node by rotating a child through the parent or merging with a sibling.
+     * @param parent the parent of the underfull node
+     * @param index  the index of the underfull node among the parent's children
+     */
+    private void rebalanceInternal(Node<T> parent, int index) {
+        List<Node<T>> children = parent.getChildren();
+        Node<T> node = children.get(index);
+        Node<T> left = index > 0 ? children.get(index - 1) : null;
+        Node<T> right = index < children.size() - 1 ? children.get(index + 1) : null;
+        int minChildren = (order + 1) / 2;
+
+        if (left != null && left.getChildren().size() > minChildren) {
+            node.getKeys().add(0, parent.getKeys().get(index - 1));
+            node.getChildren().add(0, left.getChildren().remove(left.getChildren().size() - 1));
+            parent.getKeys().set(index - 1, left.getKeys().remove(left.getKeys().size() - 1));
+        } else if (right != null && right.getChildren().size() > minChildren) {
+            node.getKeys().add(parent.getKeys().get(index));
+            node.getChildren().add(right.getChildren().remove(0));
+            parent.getKeys().set(index, right.getKeys().remove(0));
+        } else if (left != null) {
+            mergeInternal(parent, index - 1);
+        } else if (right != null) {
+            mergeInternal(parent, index);
         }
     }
 
     /**
-     * Recursively builds internal levels from the given child nodes.
-     * @param childNodes the list of child nodes
-     * @return the root node of the constructed level
-     * @throws IllegalStateException if the child nodes list is empty
+     * Merges the internal node at {@code index + 1} into the one at {@code index},
+     * pulling their separator down from the parent.
+     * @param parent the parent of both nodes
+     * @param index  the index of the left node among the parent's children
      */
-    private Node<T> build_internal_levels(List<Node<T>> childNodes) {
-        if (childNodes.isEmpty()) {
-            throw new IllegalStateException("Child nodes list should not be empty.");
+    private void mergeInternal(Node<T> parent, int index) {
+        Node<T> left = parent.getChildren().get(index);
+        Node<T> right = parent.getChildren().remove(index + 1);
+
+        left.getKeys().add(parent.getKeys().remove(index));
+        left.getKeys().addAll(right.getKeys());
+        left.getChildren().addAll(right.getChildren());
+    }
+
+    /**
+     * Applies a batch of inserts and deletes in one pass down the tree instead of one descent per key.
+     * At each internal node the sorted messages are split among the children by the separators, each leaf
+     * takes all of its messages in one forward sweep, and nodes left overfull or underfull are split, merged
+     * or rebalanced once per level on the way back up.
+     * @param keys    the keys of the messages, in strictly ascending order
+     * @param inserts for each key, true to insert it and false to delete it
+     */
+    void applyBatch(List<T> keys, boolean[] inserts) {
+        if (keys.isEmpty()) {
+            return;
         }
+        if (root == null) {
+            root = new Node<>(true);
+        }
+        applyBatch(root, keys, inserts, 0, keys.size());
+
+        // Grow the root while it is overfull, and shrink it while it has a single child
+        while (isOverfull(root)) {
+            Node<T> newRoot = new Node<>(false);
+            newRoot.addChild(root);
+            splitChild(newRoot, 0);
+            root = newRoot;
+        }
+        while (!root.isLeaf() && root.getChildren().size() == 1) {
+            root = root.getChildren().get(0);
+        }
+        if (root.isLeaf() && root.getKeys().isEmpty()) {
+            root = null;
+        }
+    }
 
-        if (childNodes.size() == 1) {
-            return childNodes.get(0);
+    /**
+     * Applies the messages in {@code [from, to)} to the subtree below a node. Afterwards every node below
+     * it is within bounds, but the node itself may be overfull or underfull, for its parent to fix.
+     */
+    private void applyBatch(Node<T> node, List<T> keys, boolean[] inserts, int from, int to) {
+        if (node.isLeaf()) {
+            mergeIntoLeaf(node, keys, inserts, from, to);
+            return;
         }
 
-        List<Node<T>> internalNodes = new ArrayList<>();
-        Node<T> currentNode = new Node<>(false);
+        List<T> separators = node.getKeys();
+        List<Node<T>> children = node.getChildren();
+        int start = from;
+        for (int i = 0; i < children.size() && start < to; i++) {
+            int end = i < separators.size() ? lowerBound(keys, separators.get(i), start, to) : to;
+            if (end > start) {
+                applyBatch(children.get(i), keys, inserts, start, end);
+            }
+            start = end;
+        }
+        fixChildren(node);
+    }
 
-        for (int i = 0; i < childNodes.size(); i++) {
-            currentNode.getChildren().add(childNodes.get(i));
+    /**
+     * Merges the sorted messages in {@code [from, to)} into the keys of a leaf in one forward sweep, finding
+     * each key by a binary search that starts where the previous one ended. The leaf may be left overfull.
+     */
+    private void mergeIntoLeaf(Node<T> leaf, List<T> keys, boolean[] inserts, int from, int to) {
+        List<T> leafKeys = leaf.getKeys();
+        int position = 0;
+        for (int m = from; m < to; m++) {
+            T key = keys.get(m);
+            position = lowerBound(leafKeys, key, position);
+            boolean present = position < leafKeys.size() && leafKeys.get(position).compareTo(key) == 0;
+            if (inserts[m]) {
+                if (!present) {
+                    leafKeys.add(position, key);
+                    size++;
+                }
+                position++;
+            } else if (present) {
+                leafKeys.remove(position);
+                size--;
+            }
+        }
+    }
 
-            // Add separator key from the next child node, if applicable
-            if (currentNode.getChildren().size() > 1 && i < childNodes.size() - 1) {
-                if (!childNodes.get(i + 1).getKeys().isEmpty()) {
-                    T key = childNodes.get(i + 1).getKeys().get(0);
-                    currentNode.getKeys().add(key);
+    /**
+     * Brings every child of a node back within bounds: overfull children are split into as many balanced
+     * nodes as needed, and underfull children are merged with a sibling, which is split again if the
+     * merged node turns out overfull.
+     */
+    private void fixChildren(Node<T> node) {
+        List<Node<T>> children = node.getChildren();
+        int i = 0;
+        while (i < children.size()) {
+            Node<T> child = children.get(i);
+            if (isOverfull(child)) {
+                i += splitChild(node, i);
+            } else if (isUnderfull(child) && children.size() > 1) {
+                int left = i < children.size() - 1 ? i : i - 1;
+                if (child.isLeaf()) {
+                    mergeLeaves(node, left);
+                } else {
+                    mergeInternal(node, left);
+                    // A child that was left with a single child may now sit next to underfull grandchildren
+                    fixChildren(children.get(left));
                 }
+                i = left;
+            } else {
+                i++;
             }
+        }
+    }
 
-            // Add the current node to the list when full or at the last child node
-            if (currentNode.getChildren().size() == order || i == childNodes.size() - 1) {
-                internalNodes.add(currentNode);
-                currentNode = new Node<>(false);
+    /**
+     * Splits an overfull child into the fewest nodes that fit, sharing its keys or children out evenly.
+     * @param parent the parent of the overfull child
+     * @param index  the index of the overfull child among the parent's children
+     * @return the number of nodes the child was split into
+     */
+    private int splitChild(Node<T> parent, int index) {
+        Node<T> child = parent.getChildren().get(index);
+        List<T> separators = new ArrayList<>();
+        List<Node<T>> siblings = new ArrayList<>();
+
+        if (child.isLeaf()) {
+            List<T> keys = child.getKeys();
+            int total = keys.size();
+            int pieces = (total + order - 2) / (order - 1);
+            Node<T> previous = child;
+            for (int p = 1; p < pieces; p++) {
+                Node<T> leaf = new Node<>(true);
+                leaf.getKeys().addAll(keys.subList((int) ((long) total * p / pieces), (int) ((long) total * (p + 1) / pieces)));
+                leaf.setNext(previous.getNext());
+                previous.setNext(leaf);
+                separators.add(leaf.getKeys().get(0));
+                siblings.add(leaf);
+                previous = leaf;
+            }
+            keys.subList(total / pieces, total).clear();
+        } else {
+            List<T> keys = child.getKeys();
+            List<Node<T>> grandchildren = child.getChildren();
+            int total = grandchildren.size();
+            int pieces = (total + order - 1) / order;
+            for (int p = 1; p < pieces; p++) {
+                int first = (int) ((long) total * p / pieces);
+                int last = (int) ((long) total * (p + 1) / pieces);
+                Node<T> node = new Node<>(false);
+                node.getKeys().addAll(keys.subList(first, last - 1));
+                node.getChildren().addAll(grandchildren.subList(first, last));
+                separators.add(keys.get(first - 1));
+                siblings.add(node);
             }
+            int keep = total / pieces;
+            keys.subList(keep - 1, keys.size()).clear();
+            grandchildren.subList(keep, total).clear();
+        }
+
+        parent.getKeys().addAll(index, separators);
+        parent.getChildren().addAll(index + 1, siblings);
+        return siblings.size() + 1;
+    }
+
+    private boolean isOverfull(Node<T> node) {
+        return node.isLeaf() ? node.getKeys().size() >= order : node.getChildren().size() > order;
+    }
+
+    private boolean isUnderfull(Node<T> node) {
+        return node.isLeaf() ? node.getKeys().size() < order / 2 : node.getChildren().size() < (order + 1) / 2;
+    }
+
+    /**
+     * Descends from the root to the leaf that covers the given key, recording the path.
+     * @param key          the key to locate
+     * @param path         receives the internal nodes visited, from the root down
+     * @param childIndexes receives the child index followed in each visited internal node
+     * @return the leaf node covering the key
+     */
+    private Node<T> descend(T key, List<Node<T>> path, List<Integer> childIndexes) {
+        Node<T> currentNode = root;
+        while (!currentNode.isLeaf()) {
+            int index = findChildIndex(currentNode, key);
+            path.add(currentNode);
+            childIndexes.add(index);
+            currentNode = currentNode.getChildren().get(index);
         }
+        return currentNode;
+    }
 
-        System.out.println("Built Internal Level with " + internalNodes.size() + " nodes.");
-        return build_internal_levels(internalNodes);
+    /**
+     * Searches for a specific key with a single root-to-leaf descent and a binary search in the leaf.
+     * Runs in O(log n) on the calling thread.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(T key) {
+        if (root == null) {
+            return false;
+        }
+        Node<T> currentNode = root;
+        while (!currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren().get(findChildIndex(currentNode, key));
+        }
+        return Collections.binarySearch(currentNode.getKeys(), key) >= 0;
     }
 
     /**
-     * Searches for a specific key in the B+ Tree using multithreading for faster access.
+     * Searches for a specific key in the B+ Tree.
+     * A single lookup does not benefit from extra threads, so this is the O(log n) {@link #search(Comparable)}
+     * on the calling thread; use {@link #parallelSearch(List, ExecutorService)} to spread many keys over a pool.
      *
      * @param key the key to search for
      * @return true if the key is found, false otherwise
@@ -148,43 +520,139 @@ public class BPlusTree<T extends Comparable<T>> implements Serializable {
      * @throws ExecutionException if an error occurs during task execution
      */
     public boolean parallelSearch(T key) throws InterruptedException, ExecutionException {
-        if (root == null) {
-            return false;
-        }
+        return search(key);
+    }
 
-        ExecutorService executor = Executors.newCachedThreadPool();
-        try {
-            List<Callable<Boolean>> tasks = new ArrayList<>();
-            Node<T> currentNode = root;
+    /**
+     * Searches for many independent keys, fanning them out in chunks over the shared common pool.
+     * @param keys the keys to search for
+     * @return for each key, in the same order, whether it is found
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws ExecutionException if an error occurs during task execution
+     */
+    public boolean[] parallelSearch(List<T> keys) throws InterruptedException, ExecutionException {
+        return parallelSearch(keys, ForkJoinPool.commonPool());
+    }
 
-            // Traverse the tree from root to leaf
-            while (!currentNode.isLeaf()) {
-                int i = 0;
-                while (i < currentNode.getKeys().size() && key.compareTo(currentNode.getKeys().get(i)) >= 0) {
-                    i++;
-                }
-                currentNode = currentNode.getChildren().get(i);
+    /**
+     * Searches for many independent keys, fanning them out in chunks over the given executor.
+     * Each chunk runs plain {@link #search(Comparable)} lookups; small batches are answered on the
+     * calling thread, since task overhead would outweigh the lookups. The executor is not shut down.
+     * @param keys the keys to search for
+     * @param executor the executor to run the chunks on
+     * @return for each key, in the same order, whether it is found
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws ExecutionException if an error occurs during task execution
+     */
+    public boolean[] parallelSearch(List<T> keys, ExecutorService executor) throws InterruptedException, ExecutionException {
+        boolean[] found = new boolean[keys.size()];
+        int chunks = Math.min(Runtime.getRuntime().availableProcessors(), keys.size() / MIN_KEYS_PER_TASK);
+        if (chunks <= 1) {
+            for (int i = 0; i < found.length; i++) {
+                found[i] = search(keys.get(i));
             }
+            return found;
+        }
 
-            // Create search tasks for each leaf node concurrently
-            Node<T> leafNode = currentNode;
-            while (leafNode != null) {
-                Node<T> finalLeafNode = leafNode;
-                tasks.add(() -> finalLeafNode.getKeys().contains(key));
-                leafNode = leafNode.getNext();
-            }
+        List<Future<?>> futures = new ArrayList<>();
+        int chunkSize = (keys.size() + chunks - 1) / chunks;
+        for (int start = 0; start < keys.size(); start += chunkSize) {
+            int from = start;
+            int to = Math.min(start + chunkSize, keys.size());
+            futures.add(executor.submit(() -> {
+                for (int i = from; i < to; i++) {
+                    found[i] = search(keys.get(i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return found;
+    }
 
-            List<Future<Boolean>> results = executor.invokeAll(tasks);
-            for (Future<Boolean> result : results) {
-                if (result.get()) {
-                    return true;
+    /**
+     * Checks whether every given key is present, using one sorted pass over the tree.
+     * @param keys the keys to check
+     * @return true if all keys are found, false otherwise
+     */
+    public boolean containsAll(Collection<T> keys) {
+        List<T> probes = new ArrayList<>(keys);
+        return lookupBatch(probes).cardinality() == probes.size();
+    }
+
+    /**
+     * Looks up many keys in one nearly sequential pass instead of one root-to-leaf descent per key.
+     * The probes are visited in sorted order: a probe that falls into the current leaf is searched from the
+     * position of the previous probe, and a probe beyond it climbs only to the lowest ancestor whose key range
+     * still covers it before descending again, so internal nodes shared by neighbouring probes are not revisited
+     * and the walk moves forward across the leaves.
+     * @param probes the keys to look up, in any order
+     * @return a bitmap in which bit {@code i} is set if {@code probes.get(i)} is found
+     */
+    public BitSet lookupBatch(List<T> probes) {
+        BitSet found = new BitSet(probes.size());
+        if (root == null || probes.isEmpty()) {
+            return found;
+        }
+
+        Integer[] sortedIndexes = new Integer[probes.size()];
+        for (int i = 0; i < sortedIndexes.length; i++) {
+            sortedIndexes[i] = i;
+        }
+        Arrays.sort(sortedIndexes, (a, b) -> probes.get(a).compareTo(probes.get(b)));
+
+        // path.get(d) is the node at depth d of the current descent, childIndexes[d] the child taken there
+        int leafDepth = getHeight() - 1;
+        List<Node<T>> path = new ArrayList<>(Collections.nCopies(leafDepth + 1, (Node<T>) null));
+        int[] childIndexes = new int[leafDepth + 1];
+        path.set(0, root);
+        descendPath(path, childIndexes, 0, probes.get(sortedIndexes[0]));
+        int position = 0;
+
+        for (Integer index : sortedIndexes) {
+            T probe = probes.get(index);
+            List<T> leafKeys = path.get(leafDepth).getKeys();
+
+            if (leafKeys.isEmpty() || probe.compareTo(leafKeys.get(leafKeys.size() - 1)) > 0) {
+                // Climb to the lowest ancestor whose child on the path still covers the probe
+                int depth = leafDepth - 1;
+                while (depth >= 0) {
+                    List<T> separators = path.get(depth).getKeys();
+                    int child = childIndexes[depth];
+                    if (child < separators.size() && probe.compareTo(separators.get(child)) < 0) {
+                        break;
+                    }
+                    depth--;
                 }
+                descendPath(path, childIndexes, depth + 1, probe);
+                leafKeys = path.get(leafDepth).getKeys();
+                position = 0;
+            }
+
+            position = lowerBound(leafKeys, probe, position);
+            if (position < leafKeys.size() && leafKeys.get(position).compareTo(probe) == 0) {
+                found.set(index);
             }
-        } finally {
-            executor.shutdown();
         }
+        return found;
+    }
 
-        return false;
+    /**
+     * Descends from the node stored at the given depth of the path down to a leaf, recording the nodes and child indexes taken.
+     * @param path the nodes of the current descent, indexed by depth
+     * @param childIndexes the child index taken at each depth
+     * @param depth the depth to start descending from
+     * @param key the key to locate
+     */
+    private void descendPath(List<Node<T>> path, int[] childIndexes, int depth, T key) {
+        Node<T> currentNode = path.get(depth);
+        while (!currentNode.isLeaf()) {
+            int index = findChildIndex(currentNode, key);
+            childIndexes[depth] = index;
+            currentNode = currentNode.getChildren().get(index);
+            path.set(++depth, currentNode);
+        }
     }
 
     /**
@@ -209,7 +677,7 @@ public class BPlusTree<T extends Comparable<T>> implements Serializable {
     private boolean recursiveSearch(Node<T> currentNode, T key) {
         if (currentNode.isLeaf()) {
             System.out.println("Checking leaf node: " + currentNode.getKeys());
-            return currentNode.getKeys().contains(key);
+            return Collections.binarySearch(currentNode.getKeys(), key) >= 0;
         }
 
         System.out.println("Current internal node keys: " + currentNode.getKeys());
@@ -226,6 +694,7 @@ public class BPlusTree<T extends Comparable<T>> implements Serializable {
 
     /**
      * Finds the child index for a given key within an internal node.
+     * A key equal to a separator belongs to the child on the separator's right.
      * @param node the internal node
      * @param key the key to locate
      * @return the index of the child node to follow
@@ -235,7 +704,7 @@ public class BPlusTree<T extends Comparable<T>> implements Serializable {
         int pos = Collections.binarySearch(keys, key);
 
         if (pos >= 0) {
-            return pos;
+            return pos + 1;
         } else {
             return -pos - 1;
         }
@@ -321,4 +790,180 @@ public class BPlusTree<T extends Comparable<T>> implements Serializable {
         }
         System.out.println();
     }
+
+    /**
+     * Copies the tree into an immutable {@link FrozenBPlusTree} of the same order.
+     * The frozen tree keeps its keys and separators in flat arrays and finds children by index arithmetic,
+     * which suits trees that are only searched after their bulk load. Later changes to this tree are not reflected.
+     * @return the frozen copy
+     */
+    public FrozenBPlusTree<T> freeze() {
+        Object[] keys = new Object[size];
+        int index = 0;
+        for (T key : this) {
+            keys[index++] = key;
+        }
+        return new FrozenBPlusTree<>(order, keys);
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order.
+     * Keys are read lazily from the leaf chain; the tree must not be modified while iterating.
+     * @return an iterator over all keys
+     */
+    @Override
+    public Iterator<T> iterator() {
+        Node<T> firstLeaf = root;
+        while (firstLeaf != null && !firstLeaf.isLeaf()) {
+            firstLeaf = firstLeaf.getChildren().get(0);
+        }
+        return new LeafIterator<>(firstLeaf, 0, null);
+    }
+
+    /**
+     * Returns an iterator over the keys between {@code lo} and {@code hi}, both inclusive, in ascending order.
+     * The first qualifying leaf is found in O(log n); keys are then read lazily from the leaf chain.
+     * @param lo the smallest key to return
+     * @param hi the largest key to return
+     * @return an iterator over the keys in the range
+     * @throws IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public Iterator<T> range(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            throw new IllegalArgumentException("Range lower bound must not be greater than upper bound.");
+        }
+        return seek(lo, hi);
+    }
+
+    /**
+     * Returns an iterator over the keys greater than or equal to {@code key} in ascending order.
+     * @param key the smallest key to return
+     * @return an iterator over the tail of the key set
+     */
+    public Iterator<T> tailFrom(T key) {
+        return seek(key, null);
+    }
+
+    /**
+     * Returns a sequential, ordered stream of all keys.
+     * @return a stream over all keys
+     */
+    public Stream<T> stream() {
+        return toStream(iterator());
+    }
+
+    /**
+     * Returns a sequential, ordered stream of the keys between {@code lo} and {@code hi}, both inclusive.
+     * @param lo the smallest key to return
+     * @param hi the largest key to return
+     * @return a stream over the keys in the range
+     */
+    public Stream<T> rangeStream(T lo, T hi) {
+        return toStream(range(lo, hi));
+    }
+
+    /**
+     * Wraps a leaf iterator into a sequential stream without copying the keys.
+     * @param iterator the iterator to wrap
+     * @return a stream over the iterator's keys
+     */
+    private Stream<T> toStream(Iterator<T> iterator) {
+        int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+    }
+
+    /**
+     * Positions an iterator on the first key greater than or equal to {@code lo}.
+     * The descent goes left on keys equal to a separator, so no copy of {@code lo} can be skipped.
+     * @param lo the smallest key to return
+     * @param hi the largest key to return, or null for no upper bound
+     * @return an iterator starting at the first qualifying key
+     */
+    private Iterator<T> seek(T lo, T hi) {
+        Node<T> currentNode = root;
+        while (currentNode != null && !currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren().get(lowerBound(currentNode.getKeys(), lo, 0));
+        }
+        int index = currentNode == null ? 0 : lowerBound(currentNode.getKeys(), lo, 0);
+        return new LeafIterator<>(currentNode, index, hi);
+    }
+
+    /**
+     * Returns the index of the first key in a sorted list that is greater than or equal to the given key.
+     * @param keys the sorted keys
+     * @param key the key to locate
+     * @param from the index to start searching from
+     * @return the insertion point of the key before any equal keys, at least {@code from}
+     */
+    private static <T extends Comparable<T>> int lowerBound(List<T> keys, T key, int from) {
+        return lowerBound(keys, key, from, keys.size());
+    }
+
+    /**
+     * Returns the index of the first key in {@code [from, to)} of a sorted list that is greater than or equal to the given key.
+     * @param keys the sorted keys
+     * @param key the key to locate
+     * @param from the index to start searching from
+     * @param to the index to stop searching at, exclusive
+     * @return the insertion point of the key before any equal keys, between {@code from} and {@code to}
+     */
+    private static <T extends Comparable<T>> int lowerBound(List<T> keys, T key, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys.get(mid).compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Iterator that walks the leaf chain from a start position up to an optional inclusive upper bound.
+     *
+     * @param <T> the type of keys stored in the tree
+     */
+    private static class LeafIterator<T extends Comparable<T>> implements Iterator<T> {
+        private Node<T> leaf;  // Leaf holding the next key, or null when exhausted
+        private int index;  // Position of the next key within the leaf
+        private final T hi;  // Inclusive upper bound, or null for no bound
+
+        LeafIterator(Node<T> leaf, int index, T hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            advanceLeaf();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public T next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            T key = leaf.getKeys().get(index++);
+            advanceLeaf();
+            return key;
+        }
+
+        /**
+         * Moves to the next leaf when the current one is exhausted, and stops once the upper bound is passed.
+         */
+        private void advanceLeaf() {
+            while (leaf != null && index >= leaf.getKeys().size()) {
+                leaf = leaf.getNext();
+                index = 0;
+            }
+            if (leaf != null && hi != null && leaf.getKeys().get(index).compareTo(hi) > 0) {
+                leaf = null;
+            }
+        }
+    }
 }
@@ -0,0 +1,327 @@
+package org.bptree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk loads a {@link BPlusTree} from keys in ascending order.
+ * <p>
+ * Each level is built in a single pass, without recursion. Given a random-access list, leaves are built
+ * by parallel tasks that each cover a contiguous run of many leaves; given an {@link Iterator} or
+ * {@link Spliterator}, keys are consumed as a stream and packed into leaves as they arrive, so they never
+ * have to be materialized in a list. Internal levels are built in parallel in the same way. Tasks run on the
+ * executor supplied by the caller, or on the calling thread if none is set; the builder never creates threads.
+ * <p>
+ * The leaf fill factor leaves room in every leaf so that inserts after the load do not split right away.
+ * Keys are spread evenly over the nodes of each level, so no node ends up less than half full.
+ *
+ * @param <T> the type of keys stored in the tree
+ */
+public class BPlusTreeBuilder<T extends Comparable<T>> {
+    static final int MIN_NODES_PER_TASK = 1024;  // Smallest run of nodes worth a task of its own
+    private static final int TASKS_PER_THREAD = 4;  // Tasks per available processor, to even out uneven runs
+
+    private final int order;  // Order (degree) of the trees to build
+    private double fillFactor = 1.0;  // Fraction of each leaf's capacity filled by the load
+    private ExecutorService executor;  // Pool running the build tasks, or null to build on the calling thread
+    private boolean validateSorted = true;  // Whether to check that the keys are in ascending order
+
+    /**
+     * Constructs a BPlusTreeBuilder for trees of the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public BPlusTreeBuilder(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+    }
+
+    /**
+     * Sets the fraction of each leaf's capacity to fill. Leaves are never filled below half,
+     * so factors under 0.5 behave like 0.5.
+     * @param fillFactor the leaf fill factor, in {@code (0, 1]}
+     * @return this builder
+     * @throws IllegalArgumentException if the fill factor is out of range
+     */
+    public BPlusTreeBuilder<T> fillFactor(double fillFactor) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("Fill factor must be in (0, 1].");
+        }
+        this.fillFactor = fillFactor;
+        return this;
+    }
+
+    /**
+     * Sets the pool that runs the build tasks. The pool is not shut down by the builder.
+     * @param executor the executor, or null to build on the calling thread
+     * @return this builder
+     */
+    public BPlusTreeBuilder<T> executor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets whether the keys are checked to be in ascending order. Duplicate keys are accepted.
+     * @param validateSorted true to validate the order of the keys
+     * @return this builder
+     */
+    public BPlusTreeBuilder<T> validateSorted(boolean validateSorted) {
+        this.validateSorted = validateSorted;
+        return this;
+    }
+
+    /**
+     * Returns the number of keys placed in each leaf, before spreading them evenly.
+     * @return the keys per leaf
+     */
+    int keysPerLeaf() {
+        int capacity = order - 1;
+        return Math.max(Math.max(1, order / 2), Math.min(capacity, (int) (capacity * fillFactor)));
+    }
+
+    /**
+     * Builds a tree from a random-access list of keys in ascending order, building leaves in parallel.
+     * @param sortedKeys the keys in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the list is empty or, when validation is on, not sorted
+     * @throws InterruptedException if the thread is interrupted while waiting for a build task
+     */
+    public BPlusTree<T> build(List<T> sortedKeys) throws InterruptedException {
+        int keyCount = sortedKeys.size();
+        if (keyCount == 0) {
+            throw new IllegalArgumentException("Input data list should not be empty.");
+        }
+
+        // Rounding the leaf count up can leave leaves below the minimum when the fill factor is low,
+        // so cap it at the number of leaves that can each hold at least the minimum
+        int perLeaf = keysPerLeaf();
+        int minLeafKeys = Math.max(1, order / 2);
+        int leafCount = Math.min((keyCount + perLeaf - 1) / perLeaf, Math.max(1, keyCount / minLeafKeys));
+        Node<T>[] leaves = newNodeArray(leafCount);
+        Object[] mins = new Object[leafCount];  // Smallest key of each subtree, used as separators
+
+        List<int[]> runs = forEachRun(leafCount, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int start = spread(i, keyCount, leafCount);
+                int end = spread(i + 1, keyCount, leafCount);
+                if (validateSorted) {
+                    for (int k = Math.max(start, 1); k < end; k++) {
+                        checkOrder(sortedKeys.get(k - 1), sortedKeys.get(k), k);
+                    }
+                }
+                Node<T> leaf = new Node<>(true);
+                leaf.getKeys().addAll(sortedKeys.subList(start, end));
+                leaves[i] = leaf;
+                mins[i] = leaf.getKeys().get(0);
+                if (i > from) {
+                    leaves[i - 1].setNext(leaf);
+                }
+            }
+        });
+        // Link the leaves across run boundaries once every run is done
+        for (int[] run : runs) {
+            if (run[0] > 0) {
+                leaves[run[0] - 1].setNext(leaves[run[0]]);
+            }
+        }
+
+        return finish(leaves, mins, keyCount);
+    }
+
+    /**
+     * Builds a tree from an iterator over keys in ascending order, consuming it in a single pass.
+     * Only the internal levels are built in parallel, since the keys arrive one at a time.
+     * @param sortedKeys the keys in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if there are no keys or, when validation is on, they are not sorted
+     * @throws InterruptedException if the thread is interrupted while waiting for a build task
+     */
+    public BPlusTree<T> build(Iterator<T> sortedKeys) throws InterruptedException {
+        int perLeaf = keysPerLeaf();
+        int minLeafKeys = Math.max(1, order / 2);
+        List<Node<T>> leaves = new ArrayList<>();
+        Node<T> leaf = null;
+        T previous = null;
+        int keyCount = 0;
+
+        while (sortedKeys.hasNext()) {
+            T key = sortedKeys.next();
+            if (validateSorted && previous != null) {
+                checkOrder(previous, key, keyCount);
+            }
+            if (leaf == null || leaf.getKeys().size() == perLeaf) {
+                leaf = new Node<>(true);
+                if (!leaves.isEmpty()) {
+                    leaves.get(leaves.size() - 1).setNext(leaf);
+                }
+                leaves.add(leaf);
+            }
+            leaf.getKeys().add(key);
+            previous = key;
+            keyCount++;
+        }
+        if (keyCount == 0) {
+            throw new IllegalArgumentException("Input data should not be empty.");
+        }
+
+        // The stream length is only known now: fold an underfull last leaf into its left neighbour,
+        // or split the keys of both evenly if they do not fit into one leaf
+        if (leaves.size() > 1 && leaf.getKeys().size() < minLeafKeys) {
+            Node<T> left = leaves.get(leaves.size() - 2);
+            int total = left.getKeys().size() + leaf.getKeys().size();
+            if (total <= order - 1) {
+                left.getKeys().addAll(leaf.getKeys());
+                left.setNext(null);
+                leaves.remove(leaves.size() - 1);
+            } else {
+                List<T> moved = left.getKeys().subList(total / 2, left.getKeys().size());
+                leaf.getKeys().addAll(0, moved);
+                moved.clear();
+            }
+        }
+
+        Node<T>[] leafArray = leaves.toArray(newNodeArray(leaves.size()));
+        Object[] mins = new Object[leafArray.length];
+        for (int i = 0; i < leafArray.length; i++) {
+            mins[i] = leafArray[i].getKeys().get(0);
+        }
+        return finish(leafArray, mins, keyCount);
+    }
+
+    /**
+     * Builds a tree from a spliterator over keys in ascending order, consuming it in a single pass.
+     * @param sortedKeys the keys in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if there are no keys or, when validation is on, they are not sorted
+     * @throws InterruptedException if the thread is interrupted while waiting for a build task
+     */
+    public BPlusTree<T> build(Spliterator<T> sortedKeys) throws InterruptedException {
+        return build(Spliterators.iterator(sortedKeys));
+    }
+
+    /**
+     * Builds the internal levels above the given leaves and wraps the root in a tree.
+     * @param level the leaves in key order
+     * @param mins the smallest key of each leaf
+     * @param keyCount the number of keys in the leaves
+     * @return the new tree
+     * @throws InterruptedException if the thread is interrupted while waiting for a build task
+     */
+    private BPlusTree<T> finish(Node<T>[] level, Object[] mins, int keyCount) throws InterruptedException {
+        while (level.length > 1) {
+            Node<T>[] children = level;
+            Object[] childMins = mins;
+            int parentCount = (children.length + order - 1) / order;
+            Node<T>[] parents = newNodeArray(parentCount);
+            Object[] parentMins = new Object[parentCount];
+
+            forEachRun(parentCount, (from, to) -> {
+                for (int p = from; p < to; p++) {
+                    int start = spread(p, children.length, parentCount);
+                    int end = spread(p + 1, children.length, parentCount);
+                    Node<T> parent = new Node<>(false);
+                    for (int c = start; c < end; c++) {
+                        if (c > start) {
+                            parent.getKeys().add(key(childMins[c]));
+                        }
+                        parent.getChildren().add(children[c]);
+                    }
+                    parents[p] = parent;
+                    parentMins[p] = childMins[start];
+                }
+            });
+
+            level = parents;
+            mins = parentMins;
+        }
+
+        BPlusTree<T> tree = new BPlusTree<>(order);
+        tree.load(level[0], keyCount);
+        return tree;
+    }
+
+    /**
+     * Runs a task over {@code [0, count)} split into contiguous runs, in parallel when an executor is set
+     * and the work is large enough.
+     * @param count the number of nodes to build
+     * @param task the task building the nodes of one run
+     * @return the runs as {@code {from, to}} pairs, in order
+     * @throws InterruptedException if the thread is interrupted while waiting for a run
+     */
+    private List<int[]> forEachRun(int count, RunTask task) throws InterruptedException {
+        List<int[]> runs = new ArrayList<>();
+        if (executor == null || count <= MIN_NODES_PER_TASK) {
+            task.run(0, count);
+            runs.add(new int[]{0, count});
+            return runs;
+        }
+
+        int tasks = Runtime.getRuntime().availableProcessors() * TASKS_PER_THREAD;
+        int runLength = Math.max(MIN_NODES_PER_TASK, (count + tasks - 1) / tasks);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int from = 0; from < count; from += runLength) {
+                int start = from;
+                int end = Math.min(from + runLength, count);
+                runs.add(new int[]{start, end});
+                futures.add(executor.submit(() -> task.run(start, end)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Bulk load task failed.", cause);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the first index of part {@code i} when {@code total} items are spread evenly over {@code parts}.
+     */
+    private static int spread(int i, int total, int parts) {
+        return (int) ((long) i * total / parts);
+    }
+
+    private static <T extends Comparable<T>> void checkOrder(T previous, T key, int index) {
+        if (previous.compareTo(key) > 0) {
+            throw new IllegalArgumentException("Input keys are not sorted at index " + index + ".");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T key(Object key) {
+        return (T) key;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newNodeArray(int length) {
+        return (Node<T>[]) new Node[length];
+    }
+
+    /**
+     * Builds the nodes in one contiguous run of a level.
+     */
+    private interface RunTask {
+        void run(int from, int to);
+    }
+}
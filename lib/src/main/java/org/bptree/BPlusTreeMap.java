@@ -0,0 +1,449 @@
+package org.bptree;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a B+ Tree that maps keys to values.
+ * Leaves store values in an array parallel to their keys, so a lookup returns the payload
+ * (for example a record location) in the same O(log n) descent that finds the key,
+ * and range scans yield key-value entries straight from the leaf chain.
+ *
+ * @param <K> the type of keys stored in the tree
+ * @param <V> the type of values stored in the leaves
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V> implements Serializable {
+    private MapNode<K, V> root;  // Root node of the B+ Tree
+    private final int order;  // Order (degree) of the B+ Tree
+    private int size;  // Number of entries stored in the tree
+
+    /**
+     * Constructs a BPlusTreeMap with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public BPlusTreeMap(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.root = null;
+    }
+
+    /**
+     * Returns the number of entries stored in the tree.
+     * @return the entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Constructs the tree from a bottom-up approach using sorted keys and their values.
+     * @param sortedKeys distinct keys in ascending order
+     * @param values the value of each key, at the same index
+     * @throws IllegalArgumentException if the lists are empty or differ in size
+     */
+    public void bottom_up_method(List<K> sortedKeys, List<V> values) {
+        if (sortedKeys.isEmpty()) {
+            throw new IllegalArgumentException("Input data list should not be empty.");
+        }
+        if (sortedKeys.size() != values.size()) {
+            throw new IllegalArgumentException("Every key needs exactly one value.");
+        }
+
+        // Build leaves of order - 1 entries, linked in sequence
+        List<MapNode<K, V>> level = new ArrayList<>();
+        for (int start = 0; start < sortedKeys.size(); start += order - 1) {
+            int end = Math.min(start + order - 1, sortedKeys.size());
+            MapNode<K, V> leaf = new MapNode<>(true, order);
+            for (int i = start; i < end; i++) {
+                leaf.keys[leaf.count] = sortedKeys.get(i);
+                leaf.values[leaf.count++] = values.get(i);
+            }
+            if (!level.isEmpty()) {
+                level.get(level.size() - 1).next = leaf;
+            }
+            level.add(leaf);
+        }
+
+        // Build internal levels until a single root remains
+        while (level.size() > 1) {
+            List<MapNode<K, V>> parents = new ArrayList<>();
+            for (int start = 0; start < level.size(); ) {
+                int end = Math.min(start + order, level.size());
+                // Never leave a single child for the last node: hand it one child of this node
+                if (level.size() - end == 1) {
+                    end--;
+                }
+                MapNode<K, V> parent = new MapNode<>(false, order);
+                for (int i = start; i < end; i++) {
+                    if (i > start) {
+                        parent.keys[parent.count++] = firstKey(level.get(i));
+                    }
+                    parent.children[i - start] = level.get(i);
+                }
+                parents.add(parent);
+                start = end;
+            }
+            level = parents;
+        }
+
+        this.root = level.get(0);
+        this.size = sortedKeys.size();
+    }
+
+    /**
+     * Returns the value mapped to the given key.
+     * @param key the key to look up
+     * @return the value, or null if the key is not present
+     */
+    public V get(K key) {
+        if (root == null) {
+            return null;
+        }
+        MapNode<K, V> leaf = root;
+        while (!leaf.isLeaf) {
+            leaf = leaf.children[childIndex(leaf, key)];
+        }
+        int pos = leaf.search(key);
+        return pos >= 0 ? leaf.value(pos) : null;
+    }
+
+    /**
+     * Checks whether the given key is present.
+     * @param key the key to look up
+     * @return true if the key is found, false otherwise
+     */
+    public boolean containsKey(K key) {
+        if (root == null) {
+            return false;
+        }
+        MapNode<K, V> leaf = root;
+        while (!leaf.isLeaf) {
+            leaf = leaf.children[childIndex(leaf, key)];
+        }
+        return leaf.search(key) >= 0;
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any previous value.
+     * Overfull nodes are split on the way back up and the root grows when it splits.
+     * @param key the key to insert
+     * @param value the value to store
+     * @return the previous value, or null if the key was not present
+     */
+    public V put(K key, V value) {
+        if (root == null) {
+            root = new MapNode<>(true, order);
+        }
+
+        List<MapNode<K, V>> path = new ArrayList<>();
+        List<Integer> childIndexes = new ArrayList<>();
+        MapNode<K, V> leaf = root;
+        while (!leaf.isLeaf) {
+            int index = childIndex(leaf, key);
+            path.add(leaf);
+            childIndexes.add(index);
+            leaf = leaf.children[index];
+        }
+
+        int pos = leaf.search(key);
+        if (pos >= 0) {
+            V previous = leaf.value(pos);
+            leaf.values[pos] = value;
+            return previous;
+        }
+        leaf.insertEntry(-pos - 1, key, value);
+        size++;
+
+        if (leaf.count < order) {
+            return null;
+        }
+
+        // Split the leaf and push the separator up while parents overflow
+        MapNode<K, V> right = leaf.splitLeaf(order);
+        K separator = right.key(0);
+        MapNode<K, V> left = leaf;
+
+        for (int level = path.size() - 1; level >= 0; level--) {
+            MapNode<K, V> parent = path.get(level);
+            parent.insertChild(childIndexes.get(level), separator, right);
+            if (parent.count < order) {
+                return null;
+            }
+            separator = parent.key(parent.count / 2);
+            right = parent.splitInternal(order);
+            left = parent;
+        }
+
+        MapNode<K, V> newRoot = new MapNode<>(false, order);
+        newRoot.keys[0] = separator;
+        newRoot.count = 1;
+        newRoot.children[0] = left;
+        newRoot.children[1] = right;
+        root = newRoot;
+        return null;
+    }
+
+    /**
+     * Returns an iterator over the entries whose keys lie between {@code lo} and {@code hi}, both inclusive.
+     * The first qualifying leaf is found in O(log n); entries are then read lazily from the leaf chain.
+     * @param lo the smallest key to return
+     * @param hi the largest key to return
+     * @return an iterator over the entries in the range, in ascending key order
+     * @throws IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    public Iterator<Map.Entry<K, V>> range(K lo, K hi) {
+        if (lo.compareTo(hi) > 0) {
+            throw new IllegalArgumentException("Range lower bound must not be greater than upper bound.");
+        }
+        if (root == null) {
+            return new EntryIterator<>(null, 0, hi);
+        }
+        MapNode<K, V> leaf = root;
+        while (!leaf.isLeaf) {
+            leaf = leaf.children[childIndex(leaf, lo)];
+        }
+        int pos = leaf.search(lo);
+        return new EntryIterator<>(leaf, pos >= 0 ? pos : -pos - 1, hi);
+    }
+
+    /**
+     * Returns an iterator over all entries in ascending key order.
+     * @return an iterator over all entries
+     */
+    public Iterator<Map.Entry<K, V>> entryIterator() {
+        MapNode<K, V> leaf = root;
+        while (leaf != null && !leaf.isLeaf) {
+            leaf = leaf.children[0];
+        }
+        return new EntryIterator<>(leaf, 0, null);
+    }
+
+    /**
+     * Calculates the height of the B+ Tree.
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        int height = 0;
+        MapNode<K, V> currentNode = root;
+
+        while (currentNode != null) {
+            height++;
+            currentNode = currentNode.isLeaf ? null : currentNode.children[0];
+        }
+
+        return height;
+    }
+
+    /**
+     * Finds the child index for a given key within an internal node.
+     * A key equal to a separator belongs to the child on the separator's right.
+     * @param node the internal node
+     * @param key the key to locate
+     * @return the index of the child node to follow
+     */
+    private int childIndex(MapNode<K, V> node, K key) {
+        int pos = node.search(key);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    /**
+     * Returns the smallest key of the subtree rooted at the given node.
+     * @param node the subtree root
+     * @return the first key of the leftmost leaf below the node
+     */
+    private K firstKey(MapNode<K, V> node) {
+        while (!node.isLeaf) {
+            node = node.children[0];
+        }
+        return node.key(0);
+    }
+
+    /**
+     * Restores the leaf chain after deserialization.
+     * The next links are transient so that serialization does not recurse along the whole chain.
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (root == null) {
+            return;
+        }
+        List<MapNode<K, V>> level = new ArrayList<>();
+        level.add(root);
+        while (!level.get(0).isLeaf) {
+            List<MapNode<K, V>> below = new ArrayList<>();
+            for (MapNode<K, V> parent : level) {
+                for (int i = 0; i <= parent.count; i++) {
+                    below.add(parent.children[i]);
+                }
+            }
+            level = below;
+        }
+        for (int i = 0; i < level.size() - 1; i++) {
+            level.get(i).next = level.get(i + 1);
+        }
+    }
+
+    /**
+     * A node of the map. Keys, values and children live in fixed-capacity arrays
+     * with one spare slot, so a node can overflow by one entry before it is split.
+     *
+     * @param <K> the type of keys stored in the node
+     * @param <V> the type of values stored in the node
+     */
+    private static final class MapNode<K extends Comparable<K>, V> implements Serializable {
+        private final boolean isLeaf;  // True for leaf nodes, False for internal nodes
+        private final Object[] keys;  // Sorted keys, the first count slots are in use
+        private final Object[] values;  // Values parallel to keys (only for leaf nodes)
+        private final MapNode<K, V>[] children;  // count + 1 child nodes (only for internal nodes)
+        private int count;  // Number of keys in use
+        private transient MapNode<K, V> next;  // Link to the next leaf node
+
+        @SuppressWarnings("unchecked")
+        MapNode(boolean isLeaf, int order) {
+            this.isLeaf = isLeaf;
+            this.keys = new Object[order];
+            this.values = isLeaf ? new Object[order] : null;
+            this.children = isLeaf ? null : (MapNode<K, V>[]) new MapNode[order + 1];
+        }
+
+        @SuppressWarnings("unchecked")
+        K key(int index) {
+            return (K) keys[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        V value(int index) {
+            return (V) values[index];
+        }
+
+        /**
+         * Binary searches the keys of this node.
+         * @param key the key to locate
+         * @return the index of the key, or {@code -(insertion point) - 1} if it is absent
+         */
+        int search(K key) {
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = key(mid).compareTo(key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertEntry(int index, K key, V value) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(values, index, values, index + 1, count - index);
+            keys[index] = key;
+            values[index] = value;
+            count++;
+        }
+
+        void insertChild(int index, K separator, MapNode<K, V> right) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(children, index + 1, children, index + 2, count - index);
+            keys[index] = separator;
+            children[index + 1] = right;
+            count++;
+        }
+
+        /**
+         * Moves the upper half of this overfull leaf into a new right sibling linked after it.
+         */
+        MapNode<K, V> splitLeaf(int order) {
+            MapNode<K, V> right = new MapNode<>(true, order);
+            int keep = (count + 1) / 2;
+            right.count = count - keep;
+            System.arraycopy(keys, keep, right.keys, 0, right.count);
+            System.arraycopy(values, keep, right.values, 0, right.count);
+            Arrays.fill(keys, keep, count, null);
+            Arrays.fill(values, keep, count, null);
+            count = keep;
+            right.next = next;
+            next = right;
+            return right;
+        }
+
+        /**
+         * Moves the keys and children above the middle key of this overfull internal node into a new right sibling.
+         * The middle key is dropped here, since the caller pushes it up to the parent.
+         */
+        MapNode<K, V> splitInternal(int order) {
+            MapNode<K, V> right = new MapNode<>(false, order);
+            int middle = count / 2;
+            right.count = count - middle - 1;
+            System.arraycopy(keys, middle + 1, right.keys, 0, right.count);
+            System.arraycopy(children, middle + 1, right.children, 0, right.count + 1);
+            Arrays.fill(keys, middle, count, null);
+            Arrays.fill(children, middle + 1, count + 1, null);
+            count = middle;
+            return right;
+        }
+    }
+
+    /**
+     * Iterator that walks the leaf chain from a start position up to an optional inclusive upper bound.
+     *
+     * @param <K> the type of keys stored in the tree
+     * @param <V> the type of values stored in the tree
+     */
+    private static final class EntryIterator<K extends Comparable<K>, V> implements Iterator<Map.Entry<K, V>> {
+        private MapNode<K, V> leaf;  // Leaf holding the next entry, or null when exhausted
+        private int index;  // Position of the next entry within the leaf
+        private final K hi;  // Inclusive upper bound, or null for no bound
+
+        EntryIterator(MapNode<K, V> leaf, int index, K hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            advanceLeaf();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(leaf.key(index), leaf.value(index));
+            index++;
+            advanceLeaf();
+            return entry;
+        }
+
+        private void advanceLeaf() {
+            while (leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf != null && hi != null && leaf.key(index).compareTo(hi) > 0) {
+                leaf = null;
+            }
+        }
+    }
+}
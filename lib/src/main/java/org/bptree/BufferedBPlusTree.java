@@ -0,0 +1,253 @@
+package org.bptree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A write-optimized front end for a {@link BPlusTree}, in the style of a B-epsilon tree.
+ * <p>
+ * Inserts and deletes are not applied right away. They are recorded as messages in the buffer of the root
+ * child whose key range covers them, and only the latest message per key is kept. Buffers are hash maps,
+ * so recording a message costs no comparisons; a buffer is sorted only when it reaches its capacity and its
+ * messages are applied to that subtree in a single pass: at each level the sorted messages are
+ * split among the children, each leaf merges all of its messages at once, and splits and merges are settled
+ * once per node instead of once per key. Lookups check the one buffer on their path before searching the
+ * tree, so they always see the latest state.
+ * <p>
+ * Inserts and deletes are blind: they do not look the key up, so they cannot report whether they changed
+ * anything. Operations that need the full key set, such as {@link #size()} and iteration, flush all buffers
+ * first. Keys must have an {@code equals} consistent with {@code compareTo}.
+ *
+ * @param <T> the type of keys stored in the tree
+ */
+public class BufferedBPlusTree<T extends Comparable<T>> implements Iterable<T> {
+    private static final int MAX_INITIAL_BUFFER_SIZE = 1 << 16;  // Largest table a buffer is created with
+
+    private final BPlusTree<T> tree;  // Tree holding every flushed key
+    private final int bufferCapacity;  // Messages per buffer before it is flushed
+    private final List<HashMap<T, Boolean>> buffers = new ArrayList<>();  // Pending messages per root child: true inserts, false deletes
+    private List<T> separators = Collections.emptyList();  // Root separators the buffers are partitioned by
+    private int pending;  // Number of buffered messages
+
+    /**
+     * Constructs an empty BufferedBPlusTree.
+     *
+     * @param order          the order of the underlying B+ tree, must be at least 3
+     * @param bufferCapacity the number of messages a buffer holds before it is flushed, at least 1
+     * @throws IllegalArgumentException if the order or the buffer capacity is out of range
+     */
+    public BufferedBPlusTree(int order, int bufferCapacity) {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("Buffer capacity must be at least 1.");
+        }
+        this.tree = new BPlusTree<>(order);
+        this.bufferCapacity = bufferCapacity;
+        buffers.add(newBuffer());
+    }
+
+    /**
+     * Loads the tree from sorted keys, discarding the current contents and any buffered messages.
+     *
+     * @param sortedKeys keys in ascending order
+     * @throws InterruptedException if the thread is interrupted while waiting for the parallel build
+     * @throws ExecutionException if an exception occurs during the parallel build
+     */
+    public void bottom_up_method(List<T> sortedKeys) throws InterruptedException, ExecutionException {
+        tree.bottom_up_method(sortedKeys);
+        buffers.clear();
+        buffers.add(newBuffer());
+        separators = Collections.emptyList();
+        pending = 0;
+        partition();
+    }
+
+    /**
+     * Records the insertion of a key. The key is visible to {@link #search(Comparable)} immediately.
+     *
+     * @param key the key to insert
+     */
+    public void insert(T key) {
+        record(key, Boolean.TRUE);
+    }
+
+    /**
+     * Records the deletion of a key. The key is hidden from {@link #search(Comparable)} immediately.
+     *
+     * @param key the key to delete
+     */
+    public void delete(T key) {
+        record(key, Boolean.FALSE);
+    }
+
+    private void record(T key, Boolean message) {
+        int slot = findSlot(key);
+        HashMap<T, Boolean> buffer = buffers.get(slot);
+        if (buffer.put(key, message) == null) {
+            pending++;
+        }
+        if (buffer.size() >= bufferCapacity) {
+            flushSlot(slot);
+        }
+    }
+
+    /**
+     * Searches for a key, checking the buffer on its path before the tree.
+     *
+     * @param key the key to search for
+     * @return true if the key is present, false otherwise
+     */
+    public boolean search(T key) {
+        Boolean message = buffers.get(findSlot(key)).get(key);
+        return message != null ? message : tree.search(key);
+    }
+
+    /**
+     * Applies all buffered messages to the tree.
+     */
+    public void flush() {
+        apply(buffers);
+        partition();
+    }
+
+    /**
+     * Returns the number of buffered messages that have not reached the tree yet.
+     *
+     * @return the pending message count
+     */
+    public int getPendingCount() {
+        return pending;
+    }
+
+    /**
+     * Returns the number of keys, flushing all buffers first.
+     *
+     * @return the key count
+     */
+    public int size() {
+        flush();
+        return tree.size();
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order, flushing all buffers first.
+     *
+     * @return an iterator over all keys
+     */
+    @Override
+    public Iterator<T> iterator() {
+        flush();
+        return tree.iterator();
+    }
+
+    /**
+     * Returns an iterator over the keys between {@code lo} and {@code hi}, both inclusive, flushing all buffers first.
+     *
+     * @param lo the smallest key to return
+     * @param hi the largest key to return
+     * @return an iterator over the keys in the range
+     */
+    public Iterator<T> range(T lo, T hi) {
+        flush();
+        return tree.range(lo, hi);
+    }
+
+    /**
+     * Returns the underlying tree with all buffered messages applied.
+     *
+     * @return the flushed tree
+     */
+    public BPlusTree<T> getTree() {
+        flush();
+        return tree;
+    }
+
+    /**
+     * Flushes one buffer. The subtree may split or merge on the way, which can change the root, so the
+     * remaining messages are partitioned again when it does.
+     *
+     * @param slot the index of the buffer to flush
+     */
+    private void flushSlot(int slot) {
+        apply(buffers.subList(slot, slot + 1));
+        if (!separators.equals(rootSeparators())) {
+            partition();
+        }
+    }
+
+    /**
+     * Applies the messages of consecutive buffers to the tree in one batch and empties them.
+     * Each buffer is sorted on its own, since the key ranges of the buffers do not overlap.
+     *
+     * @param batch buffers in the order of their key ranges
+     */
+    private void apply(List<HashMap<T, Boolean>> batch) {
+        int count = 0;
+        for (HashMap<T, Boolean> buffer : batch) {
+            count += buffer.size();
+        }
+        List<T> keys = new ArrayList<>(count);
+        boolean[] inserts = new boolean[count];
+        for (HashMap<T, Boolean> buffer : batch) {
+            @SuppressWarnings("unchecked")
+            T[] sorted = (T[]) buffer.keySet().toArray(new Comparable[0]);
+            Arrays.sort(sorted);
+            for (T key : sorted) {
+                inserts[keys.size()] = buffer.get(key);
+                keys.add(key);
+            }
+            buffer.clear();
+        }
+        tree.applyBatch(keys, inserts);
+        pending -= count;
+    }
+
+    /**
+     * Redistributes the buffered messages over one buffer per child of the current root.
+     */
+    private void partition() {
+        List<T> current = rootSeparators();
+        if (current.equals(separators) && buffers.size() == current.size() + 1) {
+            return;
+        }
+        List<HashMap<T, Boolean>> old = new ArrayList<>(buffers);
+        separators = current;
+        buffers.clear();
+        for (int i = 0; i <= separators.size(); i++) {
+            buffers.add(newBuffer());
+        }
+        for (HashMap<T, Boolean> buffer : old) {
+            for (Map.Entry<T, Boolean> message : buffer.entrySet()) {
+                buffers.get(findSlot(message.getKey())).put(message.getKey(), message.getValue());
+            }
+        }
+    }
+
+    /**
+     * Creates an empty buffer sized to reach its capacity without rehashing, capped for very large capacities.
+     */
+    private HashMap<T, Boolean> newBuffer() {
+        return new HashMap<>((int) Math.min(bufferCapacity * 4L / 3 + 1, MAX_INITIAL_BUFFER_SIZE));
+    }
+
+    /**
+     * Returns a copy of the separator keys of the root, or an empty list while the root is a leaf.
+     */
+    private List<T> rootSeparators() {
+        Node<T> root = tree.getRoot();
+        return root == null || root.isLeaf() ? Collections.<T>emptyList() : new ArrayList<>(root.getKeys());
+    }
+
+    /**
+     * Finds the buffer covering a key, that is the number of root separators less than or equal to it.
+     */
+    private int findSlot(T key) {
+        int pos = Collections.binarySearch(separators, key);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+}
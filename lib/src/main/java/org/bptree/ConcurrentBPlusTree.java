@@ -0,0 +1,404 @@
+package org.bptree;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Represents a thread-safe B+ Tree based on optimistic lock coupling.
+ * <p>
+ * Every node carries a {@link StampedLock} used as a version latch. Lookups descend with optimistic
+ * stamps only: they read a node, read the child's stamp and then validate the parent, restarting from
+ * the root if a writer got in between, so they never block. Inserts descend the same way and upgrade
+ * the stamps of only the nodes they modify to write locks: the leaf for a plain insert, or a full node
+ * and its parent when the node has to be split first. Full nodes are split eagerly on the way down,
+ * so a split never has to propagate upwards.
+ * <p>
+ * Deletes remove keys from their leaf without merging underfull nodes, which keeps them to a single
+ * write-locked leaf as well.
+ *
+ * @param <T> the type of keys stored in the tree
+ */
+public class ConcurrentBPlusTree<T extends Comparable<T>> {
+    private static final Restart RESTART = new Restart();  // Signals a failed validation
+    private static final int RESTARTS_BEFORE_YIELD = 64;  // Restarts before backing off for a writer
+
+    private volatile OlcNode<T> root;  // Root node of the B+ Tree
+    private final int order;  // Order (degree) of the B+ Tree
+    private final LongAdder size = new LongAdder();  // Number of keys stored in the tree
+
+    /**
+     * Constructs a ConcurrentBPlusTree with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public ConcurrentBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.root = new OlcNode<>(true, order);
+    }
+
+    /**
+     * Returns the number of keys stored in the tree.
+     * The value is exact when no update is in progress.
+     * @return the key count
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Searches for a specific key without taking any lock.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(T key) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                OlcNode<T> leaf = root;
+                long stamp = readLockOrRestart(leaf);
+                if (leaf != root) {
+                    throw RESTART;
+                }
+                while (!leaf.isLeaf) {
+                    OlcNode<T> child = leaf.childFor(key);
+                    long childStamp = readLockOrRestart(child);
+                    validateOrRestart(leaf, stamp);
+                    leaf = child;
+                    stamp = childStamp;
+                }
+                boolean found = leaf.indexOf(key) >= 0;
+                validateOrRestart(leaf, stamp);
+                return found;
+            } catch (Restart e) {
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Inserts a single key, write-locking only the nodes it modifies.
+     * The tree is treated as a set: a key that is already present is not inserted again.
+     * @param key the key to insert
+     * @return true if the key was inserted, false if it was already present
+     */
+    public boolean insert(T key) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tryInsert(key);
+            } catch (Restart e) {
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Performs one optimistic insert attempt.
+     * @param key the key to insert
+     * @return true if the key was inserted, false if it was already present
+     * @throws Restart if a validation failed and the attempt must be repeated
+     */
+    private boolean tryInsert(T key) {
+        OlcNode<T> parent = null;
+        long parentStamp = 0;
+        OlcNode<T> node = root;
+        long stamp = readLockOrRestart(node);
+        if (node != root) {
+            throw RESTART;
+        }
+
+        while (true) {
+            if (node.count >= order - 1) {
+                splitAndRestart(parent, parentStamp, node, stamp);
+            }
+            if (node.isLeaf) {
+                break;
+            }
+            OlcNode<T> child = node.childFor(key);
+            long childStamp = readLockOrRestart(child);
+            validateOrRestart(node, stamp);
+            parent = node;
+            parentStamp = stamp;
+            node = child;
+            stamp = childStamp;
+        }
+
+        long writeStamp = upgradeOrRestart(node, stamp);
+        try {
+            int pos = node.indexOf(key);
+            if (pos >= 0) {
+                return false;
+            }
+            node.insertKey(-pos - 1, key);
+        } finally {
+            node.lock.unlockWrite(writeStamp);
+        }
+        size.increment();
+        return true;
+    }
+
+    /**
+     * Splits a full node under write locks on the node and its parent, then restarts the insert.
+     * @param parent the parent of the node, or null if the node was read as the root
+     * @param parentStamp the optimistic stamp of the parent
+     * @param node the full node
+     * @param stamp the optimistic stamp of the node
+     * @throws Restart always, once the split is done or could not be started
+     */
+    private void splitAndRestart(OlcNode<T> parent, long parentStamp, OlcNode<T> node, long stamp) {
+        long parentWriteStamp = parent == null ? 0 : upgradeOrRestart(parent, parentStamp);
+        long writeStamp;
+        try {
+            writeStamp = upgradeOrRestart(node, stamp);
+        } catch (Restart e) {
+            if (parent != null) {
+                parent.lock.unlockWrite(parentWriteStamp);
+            }
+            throw e;
+        }
+
+        try {
+            if (parent != null || node == root) {
+                Object separator = node.isLeaf ? null : node.keys[node.count / 2];
+                OlcNode<T> right = node.isLeaf ? node.splitLeaf(order) : node.splitInternal(order);
+                if (node.isLeaf) {
+                    separator = right.keys[0];
+                }
+                if (parent == null) {
+                    OlcNode<T> newRoot = new OlcNode<>(false, order);
+                    newRoot.keys[0] = separator;
+                    newRoot.children[0] = node;
+                    newRoot.children[1] = right;
+                    newRoot.count = 1;
+                    root = newRoot;
+                } else {
+                    parent.insertChild(separator, right);
+                }
+            }
+        } finally {
+            node.lock.unlockWrite(writeStamp);
+            if (parent != null) {
+                parent.lock.unlockWrite(parentWriteStamp);
+            }
+        }
+        throw RESTART;
+    }
+
+    /**
+     * Deletes a single key, write-locking only its leaf.
+     * Underfull leaves are not merged.
+     * @param key the key to delete
+     * @return true if the key was deleted, false if it was not present
+     */
+    public boolean delete(T key) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                OlcNode<T> leaf = root;
+                long stamp = readLockOrRestart(leaf);
+                if (leaf != root) {
+                    throw RESTART;
+                }
+                while (!leaf.isLeaf) {
+                    OlcNode<T> child = leaf.childFor(key);
+                    long childStamp = readLockOrRestart(child);
+                    validateOrRestart(leaf, stamp);
+                    leaf = child;
+                    stamp = childStamp;
+                }
+
+                long writeStamp = upgradeOrRestart(leaf, stamp);
+                try {
+                    int pos = leaf.indexOf(key);
+                    if (pos < 0) {
+                        return false;
+                    }
+                    leaf.removeKey(pos);
+                } finally {
+                    leaf.lock.unlockWrite(writeStamp);
+                }
+                size.decrement();
+                return true;
+            } catch (Restart e) {
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Calculates the height of the B+ Tree.
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        int height = 0;
+        OlcNode<T> currentNode = root;
+
+        while (currentNode != null) {
+            height++;
+            currentNode = currentNode.isLeaf ? null : currentNode.children[0];
+        }
+
+        return height;
+    }
+
+    private static long readLockOrRestart(OlcNode<?> node) {
+        long stamp = node.lock.tryOptimisticRead();
+        if (stamp == 0) {
+            throw RESTART;
+        }
+        return stamp;
+    }
+
+    private static void validateOrRestart(OlcNode<?> node, long stamp) {
+        if (!node.lock.validate(stamp)) {
+            throw RESTART;
+        }
+    }
+
+    private static long upgradeOrRestart(OlcNode<?> node, long stamp) {
+        long writeStamp = node.lock.tryConvertToWriteLock(stamp);
+        if (writeStamp == 0) {
+            throw RESTART;
+        }
+        return writeStamp;
+    }
+
+    /**
+     * Gives a writer holding a contended latch the chance to finish after repeated restarts.
+     * @param attempt the number of attempts made so far
+     */
+    private static void backOff(int attempt) {
+        if (attempt % RESTARTS_BEFORE_YIELD == 0) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Thrown when an optimistic read turns out to be stale. It is preallocated and carries no stack trace.
+     */
+    private static final class Restart extends RuntimeException {
+        Restart() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A node guarded by a version latch. Keys and children live in fixed-capacity arrays;
+     * optimistic readers may see them mid-update, so every read is checked for torn values
+     * and validated against the stamp before it is trusted.
+     *
+     * @param <T> the type of keys stored in the node
+     */
+    private static final class OlcNode<T extends Comparable<T>> {
+        final StampedLock lock = new StampedLock();  // Version latch of this node
+        final boolean isLeaf;  // True for leaf nodes, False for internal nodes
+        final Object[] keys;  // Sorted keys, the first count slots are in use
+        final OlcNode<T>[] children;  // count + 1 child nodes (only for internal nodes)
+        int count;  // Number of keys in use
+
+        @SuppressWarnings("unchecked")
+        OlcNode(boolean isLeaf, int order) {
+            this.isLeaf = isLeaf;
+            this.keys = new Object[order - 1];
+            this.children = isLeaf ? null : (OlcNode<T>[]) new OlcNode[order];
+        }
+
+        @SuppressWarnings("unchecked")
+        private T keyAt(int index) {
+            Object key = keys[index];
+            if (key == null) {
+                throw RESTART;
+            }
+            return (T) key;
+        }
+
+        /**
+         * Binary searches the keys of this node.
+         * @param key the key to locate
+         * @return the index of the key, or {@code -(insertion point) - 1} if it is absent
+         */
+        int indexOf(T key) {
+            int low = 0;
+            int high = Math.min(count, keys.length) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = keyAt(mid).compareTo(key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * Returns the child to follow for a key. A key equal to a separator belongs to the right child.
+         * @param key the key to locate
+         * @return the child node
+         */
+        OlcNode<T> childFor(T key) {
+            int pos = indexOf(key);
+            OlcNode<T> child = children[pos >= 0 ? pos + 1 : -pos - 1];
+            if (child == null) {
+                throw RESTART;
+            }
+            return child;
+        }
+
+        void insertKey(int index, T key) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            keys[index] = key;
+            count++;
+        }
+
+        void removeKey(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            keys[--count] = null;
+        }
+
+        void insertChild(Object separator, OlcNode<T> right) {
+            @SuppressWarnings("unchecked")
+            int pos = indexOf((T) separator);
+            int index = pos >= 0 ? pos + 1 : -pos - 1;
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(children, index + 1, children, index + 2, count - index);
+            keys[index] = separator;
+            children[index + 1] = right;
+            count++;
+        }
+
+        /**
+         * Moves the upper half of this full leaf into a new right sibling.
+         * The vacated slots are cleared, so this node does not keep the moved keys reachable.
+         */
+        OlcNode<T> splitLeaf(int order) {
+            OlcNode<T> right = new OlcNode<>(true, order);
+            int keep = (count + 1) / 2;
+            right.count = count - keep;
+            System.arraycopy(keys, keep, right.keys, 0, right.count);
+            Arrays.fill(keys, keep, count, null);
+            count = keep;
+            return right;
+        }
+
+        /**
+         * Moves the keys and children above the middle key of this full internal node into a new right sibling.
+         * The middle key is dropped here, since the caller pushes it up to the parent, and the vacated slots are cleared.
+         */
+        OlcNode<T> splitInternal(int order) {
+            OlcNode<T> right = new OlcNode<>(false, order);
+            int middle = count / 2;
+            right.count = count - middle - 1;
+            System.arraycopy(keys, middle + 1, right.keys, 0, right.count);
+            System.arraycopy(children, middle + 1, right.children, 0, right.count + 1);
+            Arrays.fill(keys, middle, count, null);
+            Arrays.fill(children, middle + 1, count + 1, null);
+            count = middle;
+            return right;
+        }
+    }
+}
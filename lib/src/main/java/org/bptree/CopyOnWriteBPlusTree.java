@@ -0,0 +1,489 @@
+package org.bptree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Represents a B+ Tree whose updates copy the root-to-leaf path instead of modifying nodes in place.
+ * <p>
+ * Every insert or delete builds new copies of the nodes it touches (and of the siblings involved in a
+ * split, borrow or merge) and publishes them with a new root, while all other {@link Node}s are shared
+ * with the previous version. Published nodes are never modified again, so {@link #snapshot()} is O(1):
+ * it captures the current root, and readers of a snapshot run without locks against a stable version
+ * while writers keep going. Versions that are no longer referenced are reclaimed by the garbage collector.
+ * <p>
+ * Leaf {@code next} links cannot be kept under path copying, since relinking a copied leaf would
+ * force a copy of its predecessor as well; snapshots iterate with a root-to-leaf stack instead.
+ * Writers are serialized with each other.
+ *
+ * @param <T> the type of keys stored in the tree
+ */
+public class CopyOnWriteBPlusTree<T extends Comparable<T>> {
+    private volatile Snapshot<T> current;  // Latest published version
+    private final int order;  // Order (degree) of the B+ Tree
+
+    /**
+     * Constructs a CopyOnWriteBPlusTree with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public CopyOnWriteBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.current = new Snapshot<>(null, 0);
+    }
+
+    /**
+     * Returns the latest version as an immutable, read-only tree.
+     * @return the current snapshot
+     */
+    public Snapshot<T> snapshot() {
+        return current;
+    }
+
+    /**
+     * Searches for a specific key in the latest version.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(T key) {
+        return current.search(key);
+    }
+
+    /**
+     * Returns the number of keys in the latest version.
+     * @return the key count
+     */
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Inserts a single key by copying the path to its leaf and publishing a new version.
+     * The tree is treated as a set: a key that is already present is not inserted again.
+     * @param key the key to insert
+     * @return true if the key was inserted, false if it was already present
+     */
+    public synchronized boolean insert(T key) {
+        Snapshot<T> version = current;
+        if (version.root == null) {
+            Node<T> leaf = new Node<>(true);
+            leaf.addKey(key);
+            current = new Snapshot<>(leaf, 1);
+            return true;
+        }
+
+        Change<T> change = insert(version.root, key);
+        if (change == null) {
+            return false;
+        }
+        Node<T> newRoot = change.node;
+        if (change.right != null) {
+            newRoot = new Node<>(false);
+            newRoot.addChild(change.node);
+            newRoot.addChild(change.right);
+            newRoot.addKey(change.separator);
+        }
+        current = new Snapshot<>(newRoot, version.size + 1);
+        return true;
+    }
+
+    /**
+     * Deletes a single key by copying the nodes it affects and publishing a new version.
+     * @param key the key to delete
+     * @return true if the key was deleted, false if it was not present
+     */
+    public synchronized boolean delete(T key) {
+        Snapshot<T> version = current;
+        if (version.root == null) {
+            return false;
+        }
+
+        Node<T> newRoot = delete(version.root, key);
+        if (newRoot == null) {
+            return false;
+        }
+        if (newRoot.isLeaf() && newRoot.getKeys().isEmpty()) {
+            newRoot = null;
+        } else if (!newRoot.isLeaf() && newRoot.getChildren().size() == 1) {
+            newRoot = newRoot.getChildren().get(0);
+        }
+        current = new Snapshot<>(newRoot, version.size - 1);
+        return true;
+    }
+
+    /**
+     * Inserts a key below the given node without modifying it.
+     * @param node the published node to insert below
+     * @param key the key to insert
+     * @return the copied node and, if it split, its new right sibling; or null if the key was present
+     */
+    private Change<T> insert(Node<T> node, T key) {
+        if (node.isLeaf()) {
+            int pos = Collections.binarySearch(node.getKeys(), key);
+            if (pos >= 0) {
+                return null;
+            }
+            Node<T> copy = copyOf(node);
+            copy.getKeys().add(-pos - 1, key);
+            if (copy.getKeys().size() < order) {
+                return new Change<>(copy, null, null);
+            }
+            List<T> upper = copy.getKeys().subList((copy.getKeys().size() + 1) / 2, copy.getKeys().size());
+            Node<T> right = new Node<>(true);
+            right.getKeys().addAll(upper);
+            upper.clear();
+            return new Change<>(copy, right.getKeys().get(0), right);
+        }
+
+        int index = childIndex(node, key);
+        Change<T> change = insert(node.getChildren().get(index), key);
+        if (change == null) {
+            return null;
+        }
+        Node<T> copy = copyOf(node);
+        copy.getChildren().set(index, change.node);
+        if (change.right == null) {
+            return new Change<>(copy, null, null);
+        }
+        copy.getKeys().add(index, change.separator);
+        copy.getChildren().add(index + 1, change.right);
+        if (copy.getChildren().size() <= order) {
+            return new Change<>(copy, null, null);
+        }
+
+        int leftChildren = (copy.getChildren().size() + 1) / 2;
+        List<T> upperKeys = copy.getKeys().subList(leftChildren - 1, copy.getKeys().size());
+        List<Node<T>> upperChildren = copy.getChildren().subList(leftChildren, copy.getChildren().size());
+        Node<T> right = new Node<>(false);
+        T separator = upperKeys.get(0);
+        right.getKeys().addAll(upperKeys.subList(1, upperKeys.size()));
+        right.getChildren().addAll(upperChildren);
+        upperKeys.clear();
+        upperChildren.clear();
+        return new Change<>(copy, separator, right);
+    }
+
+    /**
+     * Deletes a key below the given node without modifying it.
+     * The returned copy may be underfull; its parent rebalances it against a (copied) sibling.
+     * @param node the published node to delete below
+     * @param key the key to delete
+     * @return the copied node, or null if the key was not present
+     */
+    private Node<T> delete(Node<T> node, T key) {
+        if (node.isLeaf()) {
+            int pos = Collections.binarySearch(node.getKeys(), key);
+            if (pos < 0) {
+                return null;
+            }
+            Node<T> copy = copyOf(node);
+            copy.getKeys().remove(pos);
+            return copy;
+        }
+
+        int index = childIndex(node, key);
+        Node<T> child = delete(node.getChildren().get(index), key);
+        if (child == null) {
+            return null;
+        }
+        Node<T> copy = copyOf(node);
+        copy.getChildren().set(index, child);
+
+        boolean underflow = child.isLeaf()
+                ? child.getKeys().size() < order / 2
+                : child.getChildren().size() < (order + 1) / 2;
+        if (underflow && copy.getChildren().size() > 1) {
+            rebalance(copy, index);
+        }
+        return copy;
+    }
+
+    /**
+     * Fixes an underfull child of a freshly copied parent by borrowing from or merging with a sibling.
+     * Siblings are copied before they are changed, since they may be shared with older versions.
+     * @param parent the copied parent
+     * @param index the index of the underfull child, which is itself a fresh copy
+     */
+    private void rebalance(Node<T> parent, int index) {
+        List<Node<T>> children = parent.getChildren();
+        Node<T> node = children.get(index);
+        Node<T> left = index > 0 ? children.get(index - 1) : null;
+        Node<T> right = index < children.size() - 1 ? children.get(index + 1) : null;
+        boolean leaf = node.isLeaf();
+
+        if (left != null && canLend(left)) {
+            left = copyOf(left);
+            children.set(index - 1, left);
+            if (leaf) {
+                node.getKeys().add(0, left.getKeys().remove(left.getKeys().size() - 1));
+                parent.getKeys().set(index - 1, node.getKeys().get(0));
+            } else {
+                node.getKeys().add(0, parent.getKeys().get(index - 1));
+                node.getChildren().add(0, left.getChildren().remove(left.getChildren().size() - 1));
+                parent.getKeys().set(index - 1, left.getKeys().remove(left.getKeys().size() - 1));
+            }
+        } else if (right != null && canLend(right)) {
+            right = copyOf(right);
+            children.set(index + 1, right);
+            if (leaf) {
+                node.getKeys().add(right.getKeys().remove(0));
+                parent.getKeys().set(index, right.getKeys().get(0));
+            } else {
+                node.getKeys().add(parent.getKeys().get(index));
+                node.getChildren().add(right.getChildren().remove(0));
+                parent.getKeys().set(index, right.getKeys().remove(0));
+            }
+        } else {
+            // Merge the pair into one new node that replaces both
+            int first = left != null ? index - 1 : index;
+            Node<T> a = children.get(first);
+            Node<T> b = children.get(first + 1);
+            Node<T> merged = copyOf(a);
+            if (!leaf) {
+                merged.getKeys().add(parent.getKeys().get(first));
+                merged.getChildren().addAll(b.getChildren());
+            }
+            merged.getKeys().addAll(b.getKeys());
+            parent.getKeys().remove(first);
+            children.remove(first + 1);
+            children.set(first, merged);
+        }
+    }
+
+    /**
+     * Checks whether a sibling can give away one key or child and stay at least half full.
+     * @param sibling the sibling to check
+     * @return true if the sibling can lend
+     */
+    private boolean canLend(Node<T> sibling) {
+        return sibling.isLeaf()
+                ? sibling.getKeys().size() > order / 2
+                : sibling.getChildren().size() > (order + 1) / 2;
+    }
+
+    /**
+     * Returns an unpublished copy of a node with its own key and child lists.
+     * @param node the node to copy
+     * @return the copy
+     */
+    private static <T> Node<T> copyOf(Node<T> node) {
+        Node<T> copy = new Node<>(node.isLeaf());
+        copy.getKeys().addAll(node.getKeys());
+        if (!node.isLeaf()) {
+            copy.getChildren().addAll(node.getChildren());
+        }
+        return copy;
+    }
+
+    /**
+     * Finds the child index for a given key within an internal node.
+     * A key equal to a separator belongs to the child on the separator's right.
+     * @param node the internal node
+     * @param key the key to locate
+     * @return the index of the child node to follow
+     */
+    private static <T extends Comparable<T>> int childIndex(Node<T> node, T key) {
+        int pos = Collections.binarySearch(node.getKeys(), key);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    /**
+     * The result of inserting below a node: its copy and, after a split, the separator and new right sibling.
+     *
+     * @param <T> the type of keys stored in the tree
+     */
+    private static final class Change<T> {
+        final Node<T> node;
+        final T separator;
+        final Node<T> right;
+
+        Change(Node<T> node, T separator, Node<T> right) {
+            this.node = node;
+            this.separator = separator;
+            this.right = right;
+        }
+    }
+
+    /**
+     * An immutable version of the tree. All reads are lock-free and see exactly the keys
+     * that were present when the version was published.
+     *
+     * @param <T> the type of keys stored in the tree
+     */
+    public static final class Snapshot<T extends Comparable<T>> implements Iterable<T> {
+        private final Node<T> root;  // Root node of this version, or null if it is empty
+        private final int size;  // Number of keys in this version
+
+        Snapshot(Node<T> root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        /**
+         * Returns the root node of this version. Its nodes must not be modified.
+         * @return the root node, or null if the version is empty
+         */
+        public Node<T> getRoot() {
+            return root;
+        }
+
+        /**
+         * Returns the number of keys in this version.
+         * @return the key count
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Calculates the height of this version.
+         * @return the height of the tree
+         */
+        public int getHeight() {
+            int height = 0;
+            Node<T> currentNode = root;
+
+            while (currentNode != null) {
+                height++;
+                currentNode = currentNode.isLeaf() ? null : currentNode.getChildren().get(0);
+            }
+
+            return height;
+        }
+
+        /**
+         * Searches for a specific key in this version.
+         * @param key the key to search for
+         * @return true if the key is found, false otherwise
+         */
+        public boolean search(T key) {
+            if (root == null) {
+                return false;
+            }
+            Node<T> currentNode = root;
+            while (!currentNode.isLeaf()) {
+                currentNode = currentNode.getChildren().get(childIndex(currentNode, key));
+            }
+            return Collections.binarySearch(currentNode.getKeys(), key) >= 0;
+        }
+
+        /**
+         * Returns an iterator over all keys of this version in ascending order.
+         * @return an iterator over all keys
+         */
+        @Override
+        public Iterator<T> iterator() {
+            return new PathIterator<>(root, null, null);
+        }
+
+        /**
+         * Returns an iterator over the keys between {@code lo} and {@code hi}, both inclusive, in ascending order.
+         * @param lo the smallest key to return
+         * @param hi the largest key to return
+         * @return an iterator over the keys in the range
+         * @throws IllegalArgumentException if {@code lo} is greater than {@code hi}
+         */
+        public Iterator<T> range(T lo, T hi) {
+            if (lo.compareTo(hi) > 0) {
+                throw new IllegalArgumentException("Range lower bound must not be greater than upper bound.");
+            }
+            return new PathIterator<>(root, lo, hi);
+        }
+    }
+
+    /**
+     * Iterator that walks the leaves in order with an explicit root-to-leaf stack,
+     * since copied leaves are not linked to each other.
+     *
+     * @param <T> the type of keys stored in the tree
+     */
+    private static final class PathIterator<T extends Comparable<T>> implements Iterator<T> {
+        private final Deque<Node<T>> parents = new ArrayDeque<>();  // Internal nodes above the current leaf
+        private final Deque<Integer> childIndexes = new ArrayDeque<>();  // Child index taken in each parent
+        private final T hi;  // Inclusive upper bound, or null for no bound
+        private Node<T> leaf;  // Leaf holding the next key, or null when exhausted
+        private int index;  // Position of the next key within the leaf
+
+        PathIterator(Node<T> root, T lo, T hi) {
+            this.hi = hi;
+            Node<T> currentNode = root;
+            while (currentNode != null && !currentNode.isLeaf()) {
+                int child = lo == null ? 0 : lowerBound(currentNode.getKeys(), lo);
+                parents.push(currentNode);
+                childIndexes.push(child);
+                currentNode = currentNode.getChildren().get(child);
+            }
+            this.leaf = currentNode;
+            this.index = currentNode == null || lo == null ? 0 : lowerBound(currentNode.getKeys(), lo);
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public T next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            T key = leaf.getKeys().get(index++);
+            advance();
+            return key;
+        }
+
+        /**
+         * Moves to the next leaf in key order when the current one is exhausted,
+         * and stops once the upper bound is passed.
+         */
+        private void advance() {
+            while (leaf != null && index >= leaf.getKeys().size()) {
+                // Climb until a parent has a child to the right, then take the leftmost path below it
+                while (!parents.isEmpty() && childIndexes.peek() + 1 >= parents.peek().getChildren().size()) {
+                    parents.pop();
+                    childIndexes.pop();
+                }
+                if (parents.isEmpty()) {
+                    leaf = null;
+                    return;
+                }
+                int child = childIndexes.pop() + 1;
+                childIndexes.push(child);
+                Node<T> currentNode = parents.peek().getChildren().get(child);
+                while (!currentNode.isLeaf()) {
+                    parents.push(currentNode);
+                    childIndexes.push(0);
+                    currentNode = currentNode.getChildren().get(0);
+                }
+                leaf = currentNode;
+                index = 0;
+            }
+            if (leaf != null && hi != null && leaf.getKeys().get(index).compareTo(hi) > 0) {
+                leaf = null;
+            }
+        }
+
+        private static <T extends Comparable<T>> int lowerBound(List<T> keys, T key) {
+            int low = 0;
+            int high = keys.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys.get(mid).compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package org.bptree;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A B+ Tree of {@code long} keys that survives restarts and crashes.
+ * <p>
+ * The keys live in an in-memory {@link BPlusTree}; durability comes from two files in the tree's directory:
+ * <ul>
+ *   <li>a write-ahead log, to which every insert or delete appends a small checksummed record before it is
+ *       acknowledged, so an update costs one sequential append instead of rewriting the tree, and</li>
+ *   <li>a snapshot of all keys in ascending order, written by {@link #checkpoint()} to a temporary file and
+ *       atomically renamed into place, after which the log starts over.</li>
+ * </ul>
+ * Records carry increasing log sequence numbers (LSNs) and the snapshot records the last LSN it contains, so
+ * reopening the tree bulk loads the snapshot and replays only the log tail written after it. A record torn by
+ * a crash fails its checksum and is cut off together with everything after it.
+ * <p>
+ * Updates use group commit: a thread that needs its record on disk becomes the leader if no sync is running,
+ * writes every record appended so far and forces the log once for all of them, while threads arriving during
+ * that sync wait and are usually covered by the next one. Concurrent writers therefore share fsyncs.
+ * <p>
+ * A failed log write or sync is sticky: the batch may be partly on disk, so nothing is appended after it, and
+ * every later update, checkpoint and close fails. Updates whose records were not synced are never reported
+ * durable, even though the in-memory tree already holds them; reopening the tree recovers the durable state.
+ */
+public class DurableBPlusTree implements Closeable {
+    static final String SNAPSHOT_FILE = "tree.snapshot";  // Checkpointed keys
+    static final String LOG_FILE = "tree.wal";  // Write-ahead log
+    private static final int SNAPSHOT_MAGIC = 0x42505453;  // "BPTS"
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte OP_INSERT = 1;
+    private static final byte OP_DELETE = 2;
+    static final int RECORD_SIZE = Long.BYTES + 1 + Long.BYTES + Integer.BYTES;  // LSN, operation, key, CRC
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final File directory;  // Directory holding the snapshot and the log
+    private final int order;  // Order of the in-memory tree
+    private final long checkpointLogBytes;  // Log size that triggers a checkpoint, or 0 for manual checkpoints only
+    private final FileChannel log;  // Write-ahead log, positioned at its end
+    private final Object syncLock = new Object();  // Guards durableLsn and syncing
+    private final BPlusTree<Long> tree;  // Current keys, guarded by this
+
+    private ByteBuffer pending = ByteBuffer.allocate(IO_BUFFER_SIZE);  // Records not yet written, guarded by this
+    private long lastLsn;  // LSN of the latest record, guarded by this
+    private long logBytes;  // Bytes written to the log since the last checkpoint, guarded by this
+    private int checkpoints;  // Checkpoints since the tree was opened, guarded by this
+    private boolean closed;  // Guarded by this
+    private long durableLsn;  // Every record up to this LSN is on disk, guarded by syncLock
+    private boolean syncing;  // Whether a thread is writing the log or checkpointing, guarded by syncLock
+    private volatile IOException failure;  // First log write or sync failure, after which the log is not used
+
+    /**
+     * Opens the tree stored in a directory, creating the directory if needed, and recovers its keys from the
+     * latest snapshot and the log records written after it.
+     *
+     * @param directory          the directory of the tree
+     * @param order              the order of the in-memory tree, must be at least 3
+     * @param checkpointLogBytes the log size after which an update triggers a checkpoint, or 0 to checkpoint
+     *                           only when {@link #checkpoint()} is called
+     * @throws IOException if the files cannot be read or the snapshot is corrupt
+     */
+    public DurableBPlusTree(File directory, int order, long checkpointLogBytes) throws IOException {
+        this(directory, order, checkpointLogBytes, UnaryOperator.identity());
+    }
+
+    /**
+     * Opens the tree with a wrapper around the log channel, so tests can inject write failures.
+     */
+    DurableBPlusTree(File directory, int order, long checkpointLogBytes, UnaryOperator<FileChannel> logWrapper)
+            throws IOException {
+        if (checkpointLogBytes < 0) {
+            throw new IllegalArgumentException("Checkpoint log size must not be negative.");
+        }
+        this.directory = directory;
+        this.order = order;
+        this.checkpointLogBytes = checkpointLogBytes;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory);
+        }
+
+        List<Long> keys = new ArrayList<>();
+        long snapshotLsn = readSnapshot(new File(directory, SNAPSHOT_FILE), keys);
+        this.tree = load(keys);
+        this.lastLsn = snapshotLsn;
+
+        File logFile = new File(directory, LOG_FILE);
+        long validBytes = replay(logFile, snapshotLsn);
+        this.log = logWrapper.apply(FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+        if (log.size() > validBytes) {
+            log.truncate(validBytes);  // Drop a torn tail so new records follow the last valid one
+            log.force(true);
+        }
+        log.position(validBytes);
+        this.logBytes = validBytes;
+        this.durableLsn = lastLsn;
+    }
+
+    /**
+     * Inserts a key and returns once the insert is durable.
+     *
+     * @param key the key to insert
+     * @return true if the key was inserted, false if it was already present
+     * @throws IOException if the log cannot be written
+     */
+    public boolean insert(long key) throws IOException {
+        return update(OP_INSERT, key);
+    }
+
+    /**
+     * Deletes a key and returns once the delete is durable.
+     *
+     * @param key the key to delete
+     * @return true if the key was deleted, false if it was not present
+     * @throws IOException if the log cannot be written
+     */
+    public boolean delete(long key) throws IOException {
+        return update(OP_DELETE, key);
+    }
+
+    private boolean update(byte operation, long key) throws IOException {
+        long lsn;
+        boolean changed;
+        synchronized (this) {
+            ensureOpen();
+            ensureNotFailed();
+            changed = operation == OP_INSERT ? tree.insert(key) : tree.delete(key);
+            // Without a change there is nothing to log, but the update that caused the current state must be durable
+            lsn = changed ? append(operation, key) : lastLsn;
+        }
+        awaitDurable(lsn);
+        if (changed && checkpointLogBytes > 0 && getLogBytes() >= checkpointLogBytes) {
+            maybeCheckpoint();
+        }
+        return changed;
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public synchronized boolean search(long key) {
+        ensureOpen();
+        return tree.search(key);
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the key count
+     */
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    /**
+     * Returns the LSN of the latest update.
+     *
+     * @return the last log sequence number
+     */
+    public synchronized long getLastLsn() {
+        return lastLsn;
+    }
+
+    /**
+     * Returns the number of log bytes written since the last checkpoint.
+     *
+     * @return the log size
+     */
+    public synchronized long getLogBytes() {
+        return logBytes;
+    }
+
+    synchronized int getCheckpointCount() {
+        return checkpoints;
+    }
+
+    /**
+     * Writes all keys to a new snapshot and starts an empty log. Updates wait until the checkpoint is done.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void checkpoint() throws IOException {
+        checkpoint(0);
+    }
+
+    /**
+     * Checkpoints if the log is still at the automatic checkpoint size. Writers that cross the size together
+     * all get here, but only the first one rewrites the snapshot.
+     */
+    private void maybeCheckpoint() throws IOException {
+        checkpoint(checkpointLogBytes);
+    }
+
+    /**
+     * Checkpoints if at least {@code minLogBytes} were logged since the last checkpoint.
+     */
+    private void checkpoint(long minLogBytes) throws IOException {
+        acquireSync();
+        try {
+            ensureNotFailed();
+            long checkpointLsn;
+            synchronized (this) {
+                ensureOpen();
+                if (logBytes < minLogBytes) {
+                    return;  // Another thread checkpointed while this one waited
+                }
+                checkpointLsn = lastLsn;
+                writeSnapshot(checkpointLsn);
+                // Every record is covered by the snapshot now, including those never written to the log
+                pending.clear();
+                try {
+                    log.truncate(0);
+                    log.position(0);
+                    log.force(true);
+                } catch (IOException e) {
+                    failure = e;
+                    throw e;
+                }
+                logBytes = 0;
+                checkpoints++;
+            }
+            synchronized (syncLock) {
+                durableLsn = Math.max(durableLsn, checkpointLsn);
+            }
+        } finally {
+            releaseSync();
+        }
+    }
+
+    /**
+     * Makes all updates durable and closes the log. The tree cannot be used afterwards.
+     *
+     * @throws IOException if the log cannot be written, or an earlier write or sync failed; the log is closed anyway
+     */
+    @Override
+    public void close() throws IOException {
+        acquireSync();
+        try {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                if (failure == null) {
+                    writePending();
+                }
+                ensureNotFailed();
+            } finally {
+                synchronized (this) {
+                    closed = true;
+                    log.close();
+                }
+            }
+        } finally {
+            releaseSync();
+        }
+    }
+
+    /**
+     * Appends a record to the pending buffer. The caller holds the lock of this tree.
+     *
+     * @return the LSN of the record
+     */
+    private long append(byte operation, long key) {
+        if (pending.remaining() < RECORD_SIZE) {
+            ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        long lsn = ++lastLsn;
+        int start = pending.position();
+        pending.putLong(lsn).put(operation).putLong(key);
+        CRC32 crc = new CRC32();
+        crc.update(pending.array(), start, RECORD_SIZE - Integer.BYTES);
+        pending.putInt((int) crc.getValue());
+        return lsn;
+    }
+
+    /**
+     * Waits until the record with the given LSN is on disk, syncing the log itself if no other thread is.
+     */
+    private void awaitDurable(long lsn) throws IOException {
+        synchronized (syncLock) {
+            while (durableLsn < lsn && syncing) {
+                waitForSync();
+            }
+            if (durableLsn >= lsn) {
+                return;
+            }
+            ensureNotFailed();
+            syncing = true;
+        }
+        try {
+            writePending();
+        } finally {
+            releaseSync();
+        }
+    }
+
+    /**
+     * Writes and forces every pending record. The caller owns the sync flag, so batches reach the log in order.
+     */
+    private void writePending() throws IOException {
+        ByteBuffer batch;
+        long batchLsn;
+        synchronized (this) {
+            ensureOpen();
+            pending.flip();
+            batch = ByteBuffer.allocate(pending.remaining());
+            batch.put(pending).flip();
+            pending.clear();
+            batchLsn = lastLsn;
+            logBytes += batch.remaining();
+        }
+        try {
+            while (batch.hasRemaining()) {
+                log.write(batch);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            // Part of the batch may be on disk, so appending more could leave acknowledged records behind a torn one
+            failure = e;
+            throw e;
+        }
+        synchronized (syncLock) {
+            durableLsn = Math.max(durableLsn, batchLsn);
+        }
+    }
+
+    private void acquireSync() throws InterruptedIOException {
+        synchronized (syncLock) {
+            while (syncing) {
+                waitForSync();
+            }
+            syncing = true;
+        }
+    }
+
+    private void releaseSync() {
+        synchronized (syncLock) {
+            syncing = false;
+            syncLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits for the current sync to finish. The caller holds the sync lock.
+     */
+    private void waitForSync() throws InterruptedIOException {
+        try {
+            syncLock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the log to be synced.");
+        }
+    }
+
+    private void ensureNotFailed() throws IOException {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException("The write-ahead log failed earlier; reopen the tree to recover.", cause);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The tree has been closed.");
+        }
+    }
+
+    /**
+     * Writes all keys with the given LSN to a temporary file, forces it, renames it over the snapshot and
+     * forces the directory. The caller holds the lock of this tree.
+     */
+    private void writeSnapshot(long checkpointLsn) throws IOException {
+        File temporary = new File(directory, SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, IO_BUFFER_SIZE), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(checkpointLsn);
+            out.writeInt(tree.size());
+            for (long key : tree) {
+                out.writeLong(key);
+            }
+            out.flush();
+            long checksum = checked.getChecksum().getValue();
+            out.writeInt((int) checksum);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary.toPath(), new File(directory, SNAPSHOT_FILE).toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be durable before the log is truncated, or a crash could keep the empty log
+        // next to the previous snapshot
+        try (FileChannel directoryChannel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+    }
+
+    /**
+     * Reads the keys of a snapshot.
+     *
+     * @param snapshot the snapshot file
+     * @param keys     receives the keys in ascending order
+     * @return the LSN of the snapshot, or 0 if there is none
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    private static long readSnapshot(File snapshot, List<Long> keys) throws IOException {
+        if (!snapshot.exists()) {
+            return 0;
+        }
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(snapshot), IO_BUFFER_SIZE), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not a tree snapshot: " + snapshot);
+            }
+            long lsn = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                keys.add(in.readLong());
+            }
+            long expected = checked.getChecksum().getValue();
+            if (in.readInt() != (int) expected) {
+                throw new IOException("Snapshot checksum mismatch: " + snapshot);
+            }
+            return lsn;
+        } catch (EOFException e) {
+            throw new IOException("Truncated snapshot: " + snapshot, e);
+        }
+    }
+
+    /**
+     * Applies the log records written after the snapshot, stopping at the first incomplete or corrupt record.
+     *
+     * @param logFile     the log file
+     * @param snapshotLsn the LSN of the snapshot; older records are already part of it
+     * @return the length of the valid prefix of the log
+     * @throws IOException if the log cannot be read
+     */
+    private long replay(File logFile, long snapshotLsn) throws IOException {
+        if (!logFile.exists()) {
+            return 0;
+        }
+        long validBytes = 0;
+        long previousLsn = 0;
+        byte[] record = new byte[RECORD_SIZE];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), IO_BUFFER_SIZE))) {
+            while (true) {
+                try {
+                    in.readFully(record);
+                } catch (EOFException e) {
+                    break;  // No more records, or a record torn by a crash
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                long lsn = buffer.getLong();
+                byte operation = buffer.get();
+                long key = buffer.getLong();
+                CRC32 crc = new CRC32();
+                crc.update(record, 0, RECORD_SIZE - Integer.BYTES);
+                boolean valid = buffer.getInt() == (int) crc.getValue()
+                        && (operation == OP_INSERT || operation == OP_DELETE)
+                        && lsn > previousLsn;
+                if (!valid) {
+                    break;
+                }
+                if (lsn > snapshotLsn) {
+                    if (operation == OP_INSERT) {
+                        tree.insert(key);
+                    } else {
+                        tree.delete(key);
+                    }
+                }
+                previousLsn = lsn;
+                lastLsn = Math.max(lastLsn, lsn);
+                validBytes += RECORD_SIZE;
+            }
+        }
+        return validBytes;
+    }
+
+    /**
+     * Bulk loads the snapshot keys into a new in-memory tree.
+     */
+    private BPlusTree<Long> load(List<Long> keys) throws IOException {
+        BPlusTree<Long> loaded = new BPlusTree<>(order);
+        if (keys.isEmpty()) {
+            return loaded;
+        }
+        try {
+            loaded.bottom_up_method(keys);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading the snapshot.");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to load the snapshot.", e.getCause());
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,202 @@
+package org.bptree;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An immutable B+ Tree laid out in flat arrays, created with {@link BPlusTree#freeze()}.
+ * <p>
+ * All keys are kept in one sorted array, cut into leaves of {@code order - 1} keys. The separators of the
+ * internal levels are stored in a second array, level by level from the root down, where every node takes a
+ * fixed block of {@code order - 1} slots. Because every node is full except the last one of each level, the
+ * tree needs no child pointers: child {@code i} of node {@code n} is node {@code n * order + i} of the
+ * level below, as in a cache-sensitive search tree. A lookup reads one contiguous block per level, there are
+ * no node objects or lists at all, and serializing the tree writes a few arrays.
+ *
+ * @param <T> the type of keys stored in the tree
+ */
+public final class FrozenBPlusTree<T extends Comparable<T>> implements Iterable<T>, Serializable {
+    private final int order;  // Children per internal node
+    private final int nodeKeys;  // Key slots per node, order - 1
+    private final Object[] keys;  // All keys in ascending order, leaf after leaf
+    private final Object[] separators;  // Internal node blocks, level by level from the root, null padded
+    private final int[] levelOffsets;  // First slot of each internal level in separators, root level first
+    private final int[] levelSizes;  // Number of nodes per level from the root, the leaf level last
+
+    /**
+     * Builds the flat layout from keys in ascending order.
+     *
+     * @param order the order of the tree, at least 3
+     * @param sortedKeys the keys in ascending order
+     */
+    FrozenBPlusTree(int order, Object[] sortedKeys) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.nodeKeys = order - 1;
+        this.keys = sortedKeys;
+
+        // Count the nodes of every level, from the leaves up to a single root
+        int[] sizes = new int[32];
+        int levels = 0;
+        int count = Math.max(1, (keys.length + nodeKeys - 1) / nodeKeys);
+        sizes[levels++] = count;
+        while (count > 1) {
+            count = (count + order - 1) / order;
+            sizes[levels++] = count;
+        }
+        this.levelSizes = new int[levels];
+        this.levelOffsets = new int[levels - 1];
+        int slots = 0;
+        for (int level = 0; level < levels; level++) {
+            levelSizes[level] = sizes[levels - 1 - level];
+            if (level < levels - 1) {
+                levelOffsets[level] = slots;
+                slots += levelSizes[level] * nodeKeys;
+            }
+        }
+        this.separators = new Object[slots];
+
+        // Fill the internal levels bottom-up; mins holds the smallest key of each node of the level below
+        Object[] mins = new Object[levelSizes[levels - 1]];
+        for (int i = 0; i < mins.length && keys.length > 0; i++) {
+            mins[i] = keys[i * nodeKeys];
+        }
+        for (int level = levels - 2; level >= 0; level--) {
+            Object[] parentMins = new Object[levelSizes[level]];
+            for (int node = 0; node < parentMins.length; node++) {
+                int firstChild = node * order;
+                parentMins[node] = mins[firstChild];
+                int base = levelOffsets[level] + node * nodeKeys;
+                for (int i = 1; i < order && firstChild + i < mins.length; i++) {
+                    separators[base + i - 1] = mins[firstChild + i];
+                }
+            }
+            mins = parentMins;
+        }
+    }
+
+    /**
+     * Returns the number of keys stored in the tree.
+     *
+     * @return the key count
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the order of the tree.
+     *
+     * @return the order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of levels, the leaf level included.
+     *
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        return levelSizes.length;
+    }
+
+    /**
+     * Searches for a specific key with one block lookup per level.
+     *
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    @SuppressWarnings("unchecked")
+    public boolean search(T key) {
+        int leaf = descend(key, false);
+        int from = leaf * nodeKeys;
+        int to = Math.min(from + nodeKeys, keys.length);
+        int pos = bound(keys, from, to, key, false);
+        return pos > from && ((T) keys[pos - 1]).compareTo(key) == 0;
+    }
+
+    /**
+     * Returns the keys between {@code lo} and {@code hi}, both inclusive, as a view of the key array.
+     *
+     * @param lo the smallest key to return
+     * @param hi the largest key to return
+     * @return the keys in the range, in ascending order
+     * @throws IllegalArgumentException if {@code lo} is greater than {@code hi}
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> range(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            throw new IllegalArgumentException("Range lower bound must not be greater than upper bound.");
+        }
+        int from = lowerBound(lo);
+        int to = bound(keys, from, keys.length, hi, false);
+        return (List<T>) (List<?>) Collections.unmodifiableList(Arrays.asList(keys).subList(from, to));
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order.
+     *
+     * @return an iterator over all keys
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<T> iterator() {
+        return (Iterator<T>) (Iterator<?>) Collections.unmodifiableList(Arrays.asList(keys)).iterator();
+    }
+
+    /**
+     * Returns the index of the first key greater than or equal to the given key.
+     */
+    private int lowerBound(T key) {
+        int leaf = descend(key, true);
+        int from = leaf * nodeKeys;
+        return bound(keys, from, Math.min(from + nodeKeys, keys.length), key, true);
+    }
+
+    /**
+     * Walks from the root to a leaf using index arithmetic only.
+     *
+     * @param key the key to locate
+     * @param lower true to follow the child left of a separator equal to the key, so no copy is skipped
+     * @return the index of the leaf
+     */
+    private int descend(T key, boolean lower) {
+        int node = 0;
+        for (int level = 0; level < levelOffsets.length; level++) {
+            int firstChild = node * order;
+            int childCount = Math.min(order, levelSizes[level + 1] - firstChild);
+            int base = levelOffsets[level] + node * nodeKeys;
+            node = firstChild + bound(separators, base, base + childCount - 1, key, lower) - base;
+        }
+        return node;
+    }
+
+    /**
+     * Binary search over a block of a key array.
+     *
+     * @return the index of the first key greater than the given key, or greater than or equal to it if
+     *         {@code lower} is set
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> int bound(Object[] array, int from, int to, T key, boolean lower) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ((T) array[mid]).compareTo(key);
+            if (cmp < 0 || (cmp == 0 && !lower)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,226 @@
+package org.bptree;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Represents a B+ Tree specialized for primitive {@code int} keys.
+ * Each node keeps its keys in an {@code int[]}, so the tree avoids boxing, per-key object
+ * headers and {@link Comparable#compareTo} dispatch while offering the same bulk-load,
+ * search and height API as {@link BPlusTree}.
+ */
+public class IntBPlusTree implements Serializable {
+    private IntNode root;  // Root node of the B+ Tree
+    private final int order;  // Order (degree) of the B+ Tree
+    private int size;  // Number of keys stored in the tree
+
+    /**
+     * Constructs an IntBPlusTree with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public IntBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.root = null;
+    }
+
+    /**
+     * Constructs an IntBPlusTree around nodes that were already built, for example by {@link IntBPlusTreeCodec}.
+     * @param order the order of the B+ tree, must be at least 3
+     * @param root the root node, or null for an empty tree
+     * @param size the number of keys below the root
+     */
+    IntBPlusTree(int order, IntNode root, int size) {
+        this(order);
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the root node of the B+ Tree.
+     * @return the root node
+     */
+    public IntNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the order of the B+ Tree.
+     * @return the order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of keys stored in the tree.
+     * @return the key count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using the given sorted keys.
+     * @param sortedKeys keys in ascending order
+     * @throws IllegalArgumentException if the array is empty
+     */
+    public void bottom_up_method(int[] sortedKeys) {
+        bottom_up_method(sortedKeys, 0, sortedKeys.length);
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using a sorted range of the given array.
+     * Only the range is read, so callers can pass a partially filled buffer without trimming it.
+     * @param sortedKeys an array whose range {@code [fromIndex, toIndex)} is in ascending order
+     * @param fromIndex  the first index of the range, inclusive
+     * @param toIndex    the last index of the range, exclusive
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public void bottom_up_method(int[] sortedKeys, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > sortedKeys.length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + ", " + toIndex + ").");
+        }
+        if (fromIndex == toIndex) {
+            throw new IllegalArgumentException("Input data should not be empty.");
+        }
+
+        int leafCapacity = order - 1;
+        int leafCount = (toIndex - fromIndex + leafCapacity - 1) / leafCapacity;
+        IntNode[] level = new IntNode[leafCount];
+        int[] mins = new int[leafCount];  // Smallest key of each subtree, used as separators
+
+        for (int i = 0, start = fromIndex; i < leafCount; i++, start += leafCapacity) {
+            int end = Math.min(start + leafCapacity, toIndex);
+            level[i] = new IntNode(true, Arrays.copyOfRange(sortedKeys, start, end), null);
+            mins[i] = sortedKeys[start];
+            if (i > 0) {
+                level[i - 1].setNext(level[i]);
+            }
+        }
+
+        while (level.length > 1) {
+            int parentCount = (level.length + order - 1) / order;
+            IntNode[] parents = new IntNode[parentCount];
+            int[] parentMins = new int[parentCount];
+
+            for (int p = 0, start = 0; p < parentCount; p++) {
+                int end = Math.min(start + order, level.length);
+                // Never leave a single child for the last node: hand it one child of this node
+                if (level.length - end == 1) {
+                    end--;
+                }
+                parents[p] = new IntNode(false, Arrays.copyOfRange(mins, start + 1, end),
+                        Arrays.copyOfRange(level, start, end));
+                parentMins[p] = mins[start];
+                start = end;
+            }
+
+            level = parents;
+            mins = parentMins;
+        }
+
+        this.root = level[0];
+        this.size = toIndex - fromIndex;
+    }
+
+    /**
+     * Searches for a specific key by descending from the root, locating the key in every node with its {@link KeySearch}.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(int key) {
+        IntNode leaf = findLeaf(key);
+        if (leaf == null) {
+            return false;
+        }
+        int pos = leaf.upperBound(key);
+        return pos > 0 && leaf.getKeys()[pos - 1] == key;
+    }
+
+    /**
+     * Finds the leaf node whose key range covers the given key.
+     * @param key the key to locate
+     * @return the leaf node, or null if the tree is empty
+     */
+    IntNode findLeaf(int key) {
+        IntNode currentNode = root;
+        while (currentNode != null && !currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren()[currentNode.upperBound(key)];
+        }
+        return currentNode;
+    }
+
+    /**
+     * Calculates the height of the B+ Tree.
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        int height = 0;
+        IntNode currentNode = root;
+
+        while (currentNode != null) {
+            height++;
+            currentNode = currentNode.isLeaf() ? null : currentNode.getChildren()[0];
+        }
+
+        return height;
+    }
+
+    /**
+     * Returns the leftmost leaf node of the tree.
+     * @return the first leaf node, or null if the tree is empty
+     */
+    public IntNode firstLeaf() {
+        IntNode currentNode = root;
+        while (currentNode != null && !currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren()[0];
+        }
+        return currentNode;
+    }
+
+    /**
+     * Restores the leaf chain after deserialization.
+     * The next links are transient so that serialization does not recurse along the whole chain.
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        relinkLeaves(root);
+    }
+
+    /**
+     * Links the leaves below the given node in key order, one level at a time.
+     * @param node the root of the subtree to relink
+     */
+    private static void relinkLeaves(IntNode node) {
+        if (node == null) {
+            return;
+        }
+        IntNode[] level = {node};
+        while (!level[0].isLeaf()) {
+            int count = 0;
+            for (IntNode parent : level) {
+                count += parent.getChildren().length;
+            }
+            IntNode[] below = new IntNode[count];
+            int index = 0;
+            for (IntNode parent : level) {
+                for (IntNode child : parent.getChildren()) {
+                    below[index++] = child;
+                }
+            }
+            level = below;
+        }
+        for (int i = 0; i < level.length - 1; i++) {
+            level[i].setNext(level[i + 1]);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package org.bptree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes an {@link IntBPlusTree} in a compact, versioned binary format.
+ * <p>
+ * The format is written level by level, from the leaves up to the root:
+ * <pre>
+ *   header: int magic, byte version, int order, int size, int height
+ *   level:  int nodeCount, then nodeCount node blocks
+ *   node:   int blockLength, varint keyCount, zigzag varint firstKey, varint deltas to the following keys
+ * </pre>
+ * Child pointers are not stored: the nodes of a level are the children of the level above, taken in order,
+ * and the single node of the last level is the root. Neither side recurses, so tree depth and leaf chain
+ * length never touch the thread stack, and there are no class descriptors or object handles in the stream.
+ * The leaf chain is rebuilt while reading.
+ * <p>
+ * A {@link StreamWriter} builds a tree from sorted keys while writing it, without holding the tree. It cannot
+ * know the size and the node counts up front, so it writes version 2, where each node block is tagged with its
+ * level and the counts follow the last node:
+ * <pre>
+ *   header: int magic, byte version, int order
+ *   node:   byte level (1 for leaves), then a node block as above
+ *   end:    byte 0, int size, int height
+ * </pre>
+ * {@link #read(InputStream)} accepts both versions.
+ */
+public final class IntBPlusTreeCodec {
+    private static final int MAGIC = 0x42505431;  // "BPT1"
+    private static final byte VERSION = 1;  // Format written by write()
+    private static final byte STREAMED_VERSION = 2;  // Format written by StreamWriter
+    private static final int MAX_VARLONG_BYTES = 10;  // Longest varint encoding of a 64-bit value
+
+    private IntBPlusTreeCodec() {
+    }
+
+    /**
+     * Writes a tree to a stream. The stream is flushed but not closed.
+     * @param tree the tree to write
+     * @param out the stream to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(IntBPlusTree tree, OutputStream out) throws IOException {
+        IntNode[][] levels = levels(tree.getRoot());
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(tree.getOrder());
+        data.writeInt(tree.size());
+        data.writeInt(levels.length);
+
+        BlockBuffer block = new BlockBuffer();
+        for (int l = levels.length - 1; l >= 0; l--) {
+            data.writeInt(levels[l].length);
+            for (IntNode node : levels[l]) {
+                int[] keys = node.getKeys();
+                writeBlock(data, block, keys, 0, keys.length);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Creates a writer that builds a tree from keys added in ascending order and streams its nodes to a stream.
+     * @param order the order of the tree, must be at least 3
+     * @param out the stream to write to
+     * @return the writer
+     * @throws IOException if the header cannot be written
+     */
+    public static StreamWriter streamWriter(int order, OutputStream out) throws IOException {
+        return new StreamWriter(order, out);
+    }
+
+    /**
+     * Reads a tree written by {@link #write(IntBPlusTree, OutputStream)} or by a {@link StreamWriter}.
+     * @param in the stream to read from
+     * @return the tree, with its leaf chain linked
+     * @throws IOException if an I/O error occurs or the stream is not in a supported format
+     */
+    public static IntBPlusTree read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Stream does not contain a serialized B+ Tree.");
+        }
+        byte version = data.readByte();
+        if (version != VERSION && version != STREAMED_VERSION) {
+            throw new IOException("Unsupported B+ Tree format version: " + version);
+        }
+        int order = data.readInt();
+        if (order < 3) {
+            throw new IOException("Corrupt B+ Tree: invalid order " + order + ".");
+        }
+        byte[][] block = {new byte[64]};
+
+        // Keys of every node, grouped by level from the leaves up
+        List<List<int[]>> levels = new ArrayList<>();
+        int size;
+        if (version == VERSION) {
+            size = data.readInt();
+            int height = data.readInt();
+            if (height < 0) {
+                throw new IOException("Corrupt B+ Tree: negative height " + height + ".");
+            }
+            for (int l = 0; l < height; l++) {
+                int nodeCount = data.readInt();
+                if (nodeCount < 0) {
+                    throw new IOException("Corrupt B+ Tree: level " + l + " has a negative node count.");
+                }
+                List<int[]> level = new ArrayList<>();
+                for (int n = 0; n < nodeCount; n++) {
+                    level.add(readBlock(data, block, order));
+                }
+                levels.add(level);
+            }
+        } else {
+            int tag;
+            while ((tag = data.readUnsignedByte()) != 0) {
+                while (levels.size() < tag) {
+                    levels.add(new ArrayList<>());
+                }
+                levels.get(tag - 1).add(readBlock(data, block, order));
+            }
+            size = data.readInt();
+            int height = data.readInt();
+            if (height != levels.size()) {
+                throw new IOException("Corrupt B+ Tree: height " + height + " but " + levels.size() + " levels.");
+            }
+        }
+
+        IntNode[] below = null;
+        for (int l = 0; l < levels.size(); l++) {
+            boolean leaf = l == 0;
+            List<int[]> keysOfLevel = levels.get(l);
+            IntNode[] level = new IntNode[keysOfLevel.size()];
+            int child = 0;
+            for (int n = 0; n < level.length; n++) {
+                int[] keys = keysOfLevel.get(n);
+                IntNode[] children = null;
+                if (!leaf) {
+                    if (child + keys.length + 1 > below.length) {
+                        throw new IOException("Corrupt B+ Tree: level " + l + " references missing children.");
+                    }
+                    children = Arrays.copyOfRange(below, child, child + keys.length + 1);
+                    child += children.length;
+                }
+                level[n] = new IntNode(leaf, keys, children);
+                if (leaf && n > 0) {
+                    level[n - 1].setNext(level[n]);
+                }
+            }
+            if (!leaf && child != below.length) {
+                throw new IOException("Corrupt B+ Tree: level " + l + " leaves children without a parent.");
+            }
+            levels.set(l, null);  // The keys now belong to the nodes
+            below = level;
+        }
+
+        if (below != null && below.length != 1) {
+            throw new IOException("Corrupt B+ Tree: top level has " + below.length + " nodes.");
+        }
+        return new IntBPlusTree(order, below == null ? null : below[0], size);
+    }
+
+    /**
+     * Writes the keys {@code [from, to)} of an array as one length-prefixed node block.
+     */
+    private static void writeBlock(DataOutputStream data, BlockBuffer block, int[] keys, int from, int to) throws IOException {
+        block.reset();
+        block.writeVarLong(to - from);
+        long previous = 0;
+        for (int i = from; i < to; i++) {
+            if (i == from) {
+                block.writeVarLong(((keys[i] << 1) ^ (keys[i] >> 31)) & 0xFFFFFFFFL);
+            } else {
+                block.writeVarLong((long) keys[i] - previous);
+            }
+            previous = keys[i];
+        }
+        data.writeInt(block.size());
+        block.writeTo(data);
+    }
+
+    /**
+     * Reads the keys of one node block.
+     * The length and the key count are checked before anything is allocated, and decoding never reads past the
+     * block, so a corrupt stream fails with an {@link IOException} instead of picking up stale bytes of the
+     * reused buffer or allocating an array of arbitrary size. A node never holds more than {@code order - 1}
+     * keys, and its keys never decrease.
+     * @param block a one-element holder for the read buffer, replaced by a larger one when needed
+     * @param order the order of the tree, which bounds the size of a block
+     */
+    private static int[] readBlock(DataInputStream data, byte[][] block, int order) throws IOException {
+        int length = data.readInt();
+        if (length < 0 || length > MAX_VARLONG_BYTES * (order + 1L)) {
+            throw new IOException("Corrupt B+ Tree: invalid node block length " + length + ".");
+        }
+        if (length > block[0].length) {
+            block[0] = new byte[Math.max(length, block[0].length * 2)];
+        }
+        data.readFully(block[0], 0, length);
+        BlockReader reader = new BlockReader(block[0], length);
+
+        long count = reader.readVarLong();
+        if (count < 0 || count > reader.remaining()) {
+            // Every key takes at least one byte
+            throw new IOException("Corrupt B+ Tree: node block of " + length + " bytes claims " + count + " keys.");
+        }
+        if (count > order - 1) {
+            throw new IOException("Corrupt B+ Tree: node block holds " + count + " keys, more than order " + order + " allows.");
+        }
+        int[] keys = new int[(int) count];
+        long previous = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0) {
+                long zigzag = reader.readVarLong();
+                if (zigzag >>> Integer.SIZE != 0) {
+                    throw new IOException("Corrupt B+ Tree: first key of a node block is not an int.");
+                }
+                previous = (int) (zigzag >>> 1) ^ -(int) (zigzag & 1);
+            } else {
+                long delta = reader.readVarLong();
+                if (delta < 0 || delta > Integer.MAX_VALUE - previous) {
+                    throw new IOException("Corrupt B+ Tree: keys of a node block are not in ascending order.");
+                }
+                previous += delta;
+            }
+            keys[i] = (int) previous;
+        }
+        if (reader.remaining() != 0) {
+            throw new IOException("Corrupt B+ Tree: node block has " + reader.remaining() + " trailing bytes.");
+        }
+        return keys;
+    }
+
+    /**
+     * Collects the nodes of each level, root level first, without recursion.
+     * @param root the root node, or null
+     * @return the levels of the tree
+     */
+    private static IntNode[][] levels(IntNode root) {
+        if (root == null) {
+            return new IntNode[0][];
+        }
+        IntNode[][] levels = new IntNode[1][];
+        levels[0] = new IntNode[]{root};
+        while (!levels[levels.length - 1][0].isLeaf()) {
+            IntNode[] level = levels[levels.length - 1];
+            int count = 0;
+            for (IntNode parent : level) {
+                count += parent.getChildren().length;
+            }
+            IntNode[] below = new IntNode[count];
+            int index = 0;
+            for (IntNode parent : level) {
+                for (IntNode child : parent.getChildren()) {
+                    below[index++] = child;
+                }
+            }
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = below;
+        }
+        return levels;
+    }
+
+    /**
+     * Builds a tree from keys in ascending order and writes each node as soon as it is complete, so memory use
+     * depends on the order and the height of the tree but not on the number of keys.
+     * <p>
+     * The tree has the shape {@link IntBPlusTree#bottom_up_method(int[])} gives it: full leaves with a possibly
+     * smaller last one, and internal nodes of {@code order} children where the last node of a level never keeps a
+     * single child. To allow that last adjustment, each level holds back one full node until the next node of the
+     * level has two children, so at most two nodes per level are in memory.
+     */
+    public static final class StreamWriter {
+        private final int order;  // Maximum number of children of an internal node
+        private final DataOutputStream data;  // Destination of the node blocks
+        private final BlockBuffer block = new BlockBuffer();  // Reused for every node
+        private final int[] leaf;  // Keys of the leaf being filled
+        private final List<Level> levels = new ArrayList<>();  // Internal levels, parents of the leaves first
+        private int leafCount;  // Keys in the leaf being filled
+        private int leavesWritten;  // Leaves written so far
+        private int size;  // Keys added so far
+        private int lastKey;  // Latest key added
+        private int height;  // Number of levels, known once finished
+        private boolean finished;
+
+        private StreamWriter(int order, OutputStream out) throws IOException {
+            if (order < 3) {
+                throw new IllegalArgumentException("Order must be at least 3.");
+            }
+            this.order = order;
+            this.data = new DataOutputStream(out);
+            this.leaf = new int[order - 1];
+            data.writeInt(MAGIC);
+            data.writeByte(STREAMED_VERSION);
+            data.writeInt(order);
+        }
+
+        /**
+         * Adds the next key. Keys must arrive in ascending order; equal keys are kept, as in a bulk load.
+         * @param key the key to add
+         * @throws IOException if a completed node cannot be written
+         * @throws IllegalArgumentException if the key is smaller than the previous one
+         * @throws IllegalStateException if the writer has been finished
+         */
+        public void add(int key) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("The writer has been finished.");
+            }
+            if (size > 0 && key < lastKey) {
+                throw new IllegalArgumentException("Keys must be added in ascending order.");
+            }
+            if (size == Integer.MAX_VALUE) {
+                throw new IllegalStateException("A tree cannot hold more than " + Integer.MAX_VALUE + " keys.");
+            }
+            leaf[leafCount++] = key;
+            lastKey = key;
+            size++;
+            if (leafCount == leaf.length) {
+                writeLeaf();
+            }
+        }
+
+        /**
+         * Writes the remaining nodes and the trailer, then flushes the stream without closing it.
+         * Calling it again has no effect.
+         * @throws IOException if an I/O error occurs
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (leafCount > 0) {
+                writeLeaf();
+            }
+            height = size == 0 ? 0 : 1;
+            // A level is only needed while the level below it has more than one node
+            for (int l = 0, below = leavesWritten; l < levels.size() && below > 1; l++) {
+                below = levels.get(l).finish();
+                height++;
+            }
+            data.writeByte(0);
+            data.writeInt(size);
+            data.writeInt(height);
+            data.flush();
+        }
+
+        /**
+         * Returns the number of keys added so far.
+         * @return the key count
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the height of the written tree.
+         * @return the number of levels, or 0 before {@link #finish()} and for an empty tree
+         */
+        public int getHeight() {
+            return height;
+        }
+
+        private void writeLeaf() throws IOException {
+            data.writeByte(1);
+            writeBlock(data, block, leaf, 0, leafCount);
+            leavesWritten++;
+            addChild(0, leaf[0]);
+            leafCount = 0;
+        }
+
+        /**
+         * Passes the smallest key of a completed node to the level above it.
+         */
+        private void addChild(int level, int min) throws IOException {
+            if (level == levels.size()) {
+                levels.add(new Level(level));
+            }
+            levels.get(level).add(min);
+        }
+
+        /**
+         * The open nodes of one internal level, described by the smallest key of each child.
+         */
+        private final class Level {
+            private final int index;  // 0 for the parents of the leaves
+            private int[] current = new int[order];  // Child minimums of the node being filled
+            private int currentCount;
+            private int[] held = new int[order];  // Child minimums of a full node not written yet
+            private boolean hasHeld;
+            private int written;  // Nodes written at this level
+
+            Level(int index) {
+                this.index = index;
+            }
+
+            void add(int min) throws IOException {
+                if (currentCount == order) {
+                    int[] full = current;
+                    current = held;
+                    held = full;
+                    hasHeld = true;
+                    currentCount = 0;
+                }
+                current[currentCount++] = min;
+                if (currentCount == 2 && hasHeld) {
+                    // The next node can no longer end with a single child, so the held node is final
+                    write(held, order);
+                    hasHeld = false;
+                }
+            }
+
+            /**
+             * Writes the open nodes of this level.
+             * @return the number of nodes written at this level in total
+             */
+            int finish() throws IOException {
+                if (hasHeld) {
+                    // The last node would have a single child: hand it the last child of the held node
+                    current[1] = current[0];
+                    current[0] = held[order - 1];
+                    currentCount = 2;
+                    write(held, order - 1);
+                    hasHeld = false;
+                }
+                write(current, currentCount);
+                return written;
+            }
+
+            private void write(int[] mins, int count) throws IOException {
+                data.writeByte(index + 2);
+                writeBlock(data, block, mins, 1, count);
+                written++;
+                addChild(index + 1, mins[0]);
+            }
+        }
+    }
+
+    /**
+     * A reusable byte buffer for one node block.
+     */
+    private static final class BlockBuffer extends ByteArrayOutputStream {
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    /**
+     * Reads varints from a node block, never past its end.
+     */
+    private static final class BlockReader {
+        private final byte[] bytes;
+        private final int limit;  // End of the block within the buffer
+        private int position;
+
+        BlockReader(byte[] bytes, int limit) {
+            this.bytes = bytes;
+            this.limit = limit;
+        }
+
+        int remaining() {
+            return limit - position;
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                if (position == limit || shift >= Long.SIZE) {
+                    throw new IOException("Corrupt B+ Tree: truncated or overlong varint in node block.");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
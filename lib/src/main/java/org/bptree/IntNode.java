@@ -0,0 +1,123 @@
+package org.bptree;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Represents a node in an {@link IntBPlusTree}.
+ * Keys are stored in a primitive {@code int[]} sized exactly to the node, so no boxing
+ * or per-key object header is involved. Internal nodes store child pointers in an array,
+ * while leaf nodes store a link to the next leaf.
+ */
+public class IntNode implements Serializable {
+    private static final IntNode[] NO_CHILDREN = new IntNode[0];
+
+    private final boolean isLeaf;  // True for leaf nodes, False for internal nodes
+    private final int[] keys;  // Sorted keys stored in this node
+    private final KeySearch search;  // Strategy for locating keys, chosen from their distribution
+    private final IntNode[] children;  // Child nodes (only for internal nodes)
+    private transient IntNode next;  // Link to the next leaf node, rebuilt by the tree on deserialization
+
+    /**
+     * Constructs a new IntNode.
+     *
+     * @param isLeaf   whether the node is a leaf node
+     * @param keys     the sorted keys of this node; the array is used as is, not copied
+     * @param children the child nodes, or {@code null} for a leaf node
+     * @throws IllegalArgumentException if an internal node does not have exactly one more child than keys
+     */
+    public IntNode(boolean isLeaf, int[] keys, IntNode[] children) {
+        if (!isLeaf && (children == null || children.length != keys.length + 1)) {
+            throw new IllegalArgumentException("Internal node must have exactly one more child than keys.");
+        }
+        this.isLeaf = isLeaf;
+        this.keys = keys;
+        this.search = KeySearch.forKeys(keys);
+        this.children = isLeaf ? NO_CHILDREN : children;
+        this.next = null;
+    }
+
+    /**
+     * Checks if this node is a leaf node.
+     *
+     * @return true if this is a leaf node, false otherwise
+     */
+    public boolean isLeaf() {
+        return isLeaf;
+    }
+
+    /**
+     * Returns the backing array of keys stored in this node.
+     * The array must not be modified by callers.
+     *
+     * @return the keys of this node
+     */
+    public int[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Returns the number of keys stored in this node.
+     *
+     * @return the key count
+     */
+    public int getKeyCount() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the strategy this node uses to locate keys.
+     *
+     * @return the key search strategy
+     */
+    public KeySearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Counts the keys of this node that are less than or equal to the given key.
+     * For an internal node this is the index of the child to follow.
+     *
+     * @param key the key to locate
+     * @return the number of keys less than or equal to the key
+     */
+    public int upperBound(int key) {
+        return search.upperBound(keys, key);
+    }
+
+    /**
+     * Returns the backing array of child nodes.
+     * This is only applicable for internal nodes.
+     *
+     * @return the child nodes, or an empty array if this is a leaf node
+     */
+    public IntNode[] getChildren() {
+        return children;
+    }
+
+    /**
+     * Sets the link to the next leaf node.
+     *
+     * @param next the next leaf node
+     */
+    public void setNext(IntNode next) {
+        this.next = next;
+    }
+
+    /**
+     * Returns the next leaf node linked to this node.
+     *
+     * @return the next leaf node, or null if there is no next node
+     */
+    public IntNode getNext() {
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "IntNode{" +
+                "isLeaf=" + isLeaf +
+                ", keys=" + Arrays.toString(keys) +
+                '}';
+    }
+}
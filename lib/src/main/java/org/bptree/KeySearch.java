@@ -0,0 +1,281 @@
+package org.bptree;
+
+import java.io.Serializable;
+
+/**
+ * Strategy for locating a key inside the sorted key array of a primitive node.
+ * <p>
+ * Every strategy answers the same question: how many keys of the node are less than or equal to a
+ * given key. Internal nodes follow the child at that index, and leaves find a key at the index before it.
+ * Nodes pick their strategy once, when they are built, with {@link #forKeys(int[])} or
+ * {@link #forKeys(long[])}, based on how evenly their keys are spread:
+ * <ul>
+ *   <li>{@link Binary}: branch-free binary search, for small nodes and skewed keys.</li>
+ *   <li>{@link Interpolation}: interpolation search, for keys that are roughly uniform.</li>
+ *   <li>{@link LinearModel}: a straight line from the first to the last key predicts the position, and
+ *       a binary search only covers the model's largest error around it. This suits near-uniform keys
+ *       such as dense ids, which then need a handful of comparisons regardless of the node size.</li>
+ * </ul>
+ */
+public abstract class KeySearch implements Serializable {
+    static final int MIN_MODEL_KEYS = 16;  // Smaller nodes always use binary search
+    static final int MAX_MODEL_ERROR = 8;  // Largest error window of a linear model
+    static final int INTERPOLATION_ERROR_DIVISOR = 8;  // Interpolation needs an error below n / divisor
+
+    /**
+     * Counts the keys less than or equal to the given key.
+     *
+     * @param keys the sorted keys the strategy was chosen for
+     * @param key  the key to locate
+     * @return the number of keys less than or equal to the key
+     */
+    public abstract int upperBound(int[] keys, int key);
+
+    /**
+     * Counts the keys less than or equal to the given key.
+     *
+     * @param keys the sorted keys the strategy was chosen for
+     * @param key  the key to locate
+     * @return the number of keys less than or equal to the key
+     */
+    public abstract int upperBound(long[] keys, long key);
+
+    /**
+     * Chooses the search strategy for the keys of a node.
+     *
+     * @param keys the sorted keys of the node
+     * @return the strategy to use for these keys
+     */
+    public static KeySearch forKeys(int[] keys) {
+        int n = keys.length;
+        if (n < MIN_MODEL_KEYS || keys[0] == keys[n - 1]) {
+            return Binary.INSTANCE;
+        }
+        double slope = (n - 1) / (double) ((long) keys[n - 1] - keys[0]);
+        double maxError = 0;
+        for (int i = 0; i < n; i++) {
+            maxError = Math.max(maxError, Math.abs(i - ((long) keys[i] - keys[0]) * slope));
+        }
+        return choose(n, keys[0], slope, maxError);
+    }
+
+    /**
+     * Chooses the search strategy for the keys of a node.
+     *
+     * @param keys the sorted keys of the node
+     * @return the strategy to use for these keys
+     */
+    public static KeySearch forKeys(long[] keys) {
+        int n = keys.length;
+        // Offsets are exact long differences: converting the keys first would round neighbors above 2^53
+        // to the same double. A spread that overflows a long cannot be modeled.
+        long spread = keys[n - 1] - keys[0];
+        if (n < MIN_MODEL_KEYS || spread <= 0) {
+            return Binary.INSTANCE;
+        }
+        double slope = (n - 1) / (double) spread;
+        double maxError = 0;
+        for (int i = 0; i < n; i++) {
+            maxError = Math.max(maxError, Math.abs(i - (keys[i] - keys[0]) * slope));
+        }
+        return choose(n, keys[0], slope, maxError);
+    }
+
+    private static KeySearch choose(int n, long first, double slope, double maxError) {
+        if (Double.isInfinite(slope) || Double.isNaN(slope) || Double.isNaN(maxError)) {
+            return Binary.INSTANCE;
+        }
+        int window = (int) Math.ceil(maxError) + 1;  // One extra slot absorbs rounding of the predictions
+        if (window <= MAX_MODEL_ERROR) {
+            return new LinearModel(first, slope, window);
+        }
+        if (maxError * INTERPOLATION_ERROR_DIVISOR < n) {
+            return Interpolation.INSTANCE;
+        }
+        return Binary.INSTANCE;
+    }
+
+    /**
+     * Branch-free binary search: the loop always runs {@code log2(n)} times and selects the next half with a
+     * conditional move instead of a hard-to-predict branch.
+     */
+    static final class Binary extends KeySearch {
+        static final Binary INSTANCE = new Binary();
+
+        @Override
+        public int upperBound(int[] keys, int key) {
+            return upperBound(keys, key, 0, keys.length);
+        }
+
+        @Override
+        public int upperBound(long[] keys, long key) {
+            return upperBound(keys, key, 0, keys.length);
+        }
+
+        /**
+         * Counts the keys less than or equal to the key, given that all keys before {@code from} are
+         * less than or equal to it and all keys from {@code to} on are greater.
+         */
+        static int upperBound(int[] keys, int key, int from, int to) {
+            int base = from;
+            int length = to - from;
+            if (length == 0) {
+                return base;
+            }
+            while (length > 1) {
+                int half = length >>> 1;
+                base = keys[base + half] <= key ? base + half : base;
+                length -= half;
+            }
+            return keys[base] <= key ? base + 1 : base;
+        }
+
+        static int upperBound(long[] keys, long key, int from, int to) {
+            int base = from;
+            int length = to - from;
+            if (length == 0) {
+                return base;
+            }
+            while (length > 1) {
+                int half = length >>> 1;
+                base = keys[base + half] <= key ? base + half : base;
+                length -= half;
+            }
+            return keys[base] <= key ? base + 1 : base;
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+
+        @Override
+        public String toString() {
+            return "Binary";
+        }
+    }
+
+    /**
+     * Interpolation search: each probe guesses the position from the values at the ends of the remaining range.
+     * A run of bad guesses falls back to binary search, so skewed input costs at most twice the probes.
+     */
+    static final class Interpolation extends KeySearch {
+        static final Interpolation INSTANCE = new Interpolation();
+        private static final int LINEAR_RANGE = 8;  // Ranges this small are finished with binary search
+
+        @Override
+        public int upperBound(int[] keys, int key) {
+            int n = keys.length;
+            if (n == 0 || key < keys[0]) {
+                return 0;
+            }
+            if (key >= keys[n - 1]) {
+                return n;
+            }
+            // Invariant: keys[low] <= key < keys[high]
+            int low = 0;
+            int high = n - 1;
+            for (int probes = 32 - Integer.numberOfLeadingZeros(n); high - low > LINEAR_RANGE && probes > 0; probes--) {
+                double fraction = (double) ((long) key - keys[low]) / ((long) keys[high] - keys[low]);
+                int probe = clamp(low + (int) (fraction * (high - low)), low + 1, high - 1);
+                if (keys[probe] <= key) {
+                    low = probe;
+                } else {
+                    high = probe;
+                }
+            }
+            return Binary.upperBound(keys, key, low + 1, high);
+        }
+
+        @Override
+        public int upperBound(long[] keys, long key) {
+            int n = keys.length;
+            if (n == 0 || key < keys[0]) {
+                return 0;
+            }
+            if (key >= keys[n - 1]) {
+                return n;
+            }
+            // Invariant: keys[low] <= key < keys[high]
+            int low = 0;
+            int high = n - 1;
+            for (int probes = 32 - Integer.numberOfLeadingZeros(n); high - low > LINEAR_RANGE && probes > 0; probes--) {
+                double fraction = (double) (key - keys[low]) / (keys[high] - keys[low]);
+                int probe = clamp(low + (int) (fraction * (high - low)), low + 1, high - 1);
+                if (keys[probe] <= key) {
+                    low = probe;
+                } else {
+                    high = probe;
+                }
+            }
+            return Binary.upperBound(keys, key, low + 1, high);
+        }
+
+        private Object readResolve() {
+            return INSTANCE;
+        }
+
+        @Override
+        public String toString() {
+            return "Interpolation";
+        }
+    }
+
+    /**
+     * A per-node linear model with a bounded error. The model predicts the position of a key from a line
+     * through the first and the last key; since the line is monotonic and no key lies further than
+     * {@code window} positions from its prediction, the answer lies within the window around the
+     * prediction for the searched key too.
+     */
+    static final class LinearModel extends KeySearch {
+        private final long first;  // Smallest key, where the line starts
+        private final double slope;  // Positions per unit of key
+        private final int window;  // Largest distance between a prediction and the true position
+
+        LinearModel(long first, double slope, int window) {
+            this.first = first;
+            this.slope = slope;
+            this.window = window;
+        }
+
+        int getWindow() {
+            return window;
+        }
+
+        @Override
+        public int upperBound(int[] keys, int key) {
+            if (key < keys[0]) {
+                return 0;
+            }
+            if (key >= keys[keys.length - 1]) {
+                return keys.length;
+            }
+            double predicted = (key - first) * slope;
+            int from = clamp((int) Math.floor(predicted) - window, 0, keys.length);
+            int to = clamp((int) Math.ceil(predicted) + window + 1, from, keys.length);
+            return Binary.upperBound(keys, key, from, to);
+        }
+
+        @Override
+        public int upperBound(long[] keys, long key) {
+            if (key < keys[0]) {
+                return 0;
+            }
+            if (key >= keys[keys.length - 1]) {
+                return keys.length;
+            }
+            double predicted = (key - first) * slope;
+            int from = clamp((int) Math.floor(predicted) - window, 0, keys.length);
+            int to = clamp((int) Math.ceil(predicted) + window + 1, from, keys.length);
+            return Binary.upperBound(keys, key, from, to);
+        }
+
+        @Override
+        public String toString() {
+            return "LinearModel{window=" + window + '}';
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
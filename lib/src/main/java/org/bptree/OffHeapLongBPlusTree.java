@@ -0,0 +1,291 @@
+package org.bptree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Represents a B+ Tree for primitive {@code long} keys whose nodes live off-heap in a {@link PageArena}.
+ * <p>
+ * Each node occupies one page: a header with the leaf flag, key count and next-leaf page id,
+ * followed by the keys and, for internal nodes, the child page ids. Nodes are referenced by page id
+ * rather than by object, so the heap only holds this facade and the arena's chunk handles, and a
+ * multi-gigabyte index does not grow the set of objects the garbage collector has to trace.
+ * The tree offers the same bulk-load, search and height API as {@link LongBPlusTree}.
+ */
+public class OffHeapLongBPlusTree {
+    private static final int CHUNK_BYTES = 1 << 20;  // Target size of each direct buffer
+    private static final int NO_PAGE = -1;  // Page id marking a missing root or next link
+
+    // Page layout, in bytes
+    private static final int LEAF_FLAG = 0;  // int: 1 for leaf nodes, 0 for internal nodes
+    private static final int KEY_COUNT = 4;  // int: number of keys in the node
+    private static final int NEXT = 8;  // int: page id of the next leaf, or NO_PAGE
+    private static final int KEYS = 16;  // long[order - 1]: sorted keys
+
+    private final int order;  // Order (degree) of the B+ Tree
+    private final int childrenOffset;  // Offset of the int[order] child page ids
+    private final PageArena arena;  // Pages holding the nodes
+    private int root = NO_PAGE;  // Page id of the root node
+    private long size;  // Number of keys stored in the tree
+
+    /**
+     * Constructs an OffHeapLongBPlusTree with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public OffHeapLongBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.childrenOffset = KEYS + (order - 1) * Long.BYTES;
+        int pageSize = (childrenOffset + order * Integer.BYTES + 7) & ~7;
+        this.arena = new PageArena(pageSize, Math.max(1, CHUNK_BYTES / pageSize));
+    }
+
+    /**
+     * Returns the order of the B+ Tree.
+     * @return the order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of keys stored in the tree.
+     * @return the key count
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the arena holding the nodes of the tree.
+     * @return the page arena
+     */
+    public PageArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using the given sorted keys.
+     * @param sortedKeys keys in ascending order
+     * @throws IllegalArgumentException if the array is empty
+     */
+    public void bottom_up_method(long[] sortedKeys) {
+        bottom_up_method(sortedKeys, 0, sortedKeys.length);
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using a sorted range of the given array.
+     * Any previous contents are released first.
+     * @param sortedKeys an array whose range {@code [fromIndex, toIndex)} is in ascending order
+     * @param fromIndex  the first index of the range, inclusive
+     * @param toIndex    the last index of the range, exclusive
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public void bottom_up_method(long[] sortedKeys, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > sortedKeys.length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + ", " + toIndex + ").");
+        }
+        bottom_up_method(Arrays.stream(sortedKeys, fromIndex, toIndex).iterator());
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using a stream of sorted keys, consumed in a single pass.
+     * Leaves are written to the arena as the keys arrive, so the keys never have to be held in memory at once;
+     * only the smallest key of each node is kept while its level is being built.
+     * Any previous contents are released first.
+     * @param sortedKeys keys in ascending order
+     * @throws IllegalArgumentException if there are no keys
+     */
+    public void bottom_up_method(PrimitiveIterator.OfLong sortedKeys) {
+        if (!sortedKeys.hasNext()) {
+            throw new IllegalArgumentException("Input data should not be empty.");
+        }
+        release();
+
+        // Pages are allocated in order, so the nodes of each level occupy consecutive page ids
+        int leafCapacity = order - 1;
+        int firstPage = arena.getPageCount();
+        long[] mins = new long[64];  // Smallest key of each subtree, used as separators
+        int levelCount = 0;
+        int page = NO_PAGE;
+        long keyCount = 0;
+        int keysInLeaf = leafCapacity;
+        while (sortedKeys.hasNext()) {
+            long key = sortedKeys.nextLong();
+            if (keysInLeaf == leafCapacity) {
+                if (page != NO_PAGE) {
+                    arena.putInt(page, KEY_COUNT, keysInLeaf);
+                }
+                int previous = page;
+                page = arena.allocate();
+                arena.putInt(page, LEAF_FLAG, 1);
+                arena.putInt(page, NEXT, NO_PAGE);
+                if (previous != NO_PAGE) {
+                    arena.putInt(previous, NEXT, page);
+                }
+                if (levelCount == mins.length) {
+                    mins = Arrays.copyOf(mins, mins.length * 2);
+                }
+                mins[levelCount++] = key;
+                keysInLeaf = 0;
+            }
+            arena.putLong(page, KEYS + keysInLeaf * Long.BYTES, key);
+            keysInLeaf++;
+            keyCount++;
+        }
+        arena.putInt(page, KEY_COUNT, keysInLeaf);
+
+        while (levelCount > 1) {
+            int parentCount = (levelCount + order - 1) / order;
+            long[] parentMins = new long[parentCount];
+            int firstParent = arena.getPageCount();
+
+            for (int p = 0, start = 0; p < parentCount; p++) {
+                int end = Math.min(start + order, levelCount);
+                // Never leave a single child for the last node: hand it one child of this node
+                if (levelCount - end == 1) {
+                    end--;
+                }
+                page = arena.allocate();
+                arena.putInt(page, LEAF_FLAG, 0);
+                arena.putInt(page, KEY_COUNT, end - start - 1);
+                arena.putInt(page, NEXT, NO_PAGE);
+                for (int c = start; c < end; c++) {
+                    if (c > start) {
+                        arena.putLong(page, KEYS + (c - start - 1) * Long.BYTES, mins[c]);
+                    }
+                    arena.putInt(page, childrenOffset + (c - start) * Integer.BYTES, firstPage + c);
+                }
+                parentMins[p] = mins[start];
+                start = end;
+            }
+
+            firstPage = firstParent;
+            levelCount = parentCount;
+            mins = parentMins;
+        }
+
+        this.root = firstPage;
+        this.size = keyCount;
+    }
+
+    /**
+     * Searches for a specific key by descending from the root with binary search in every page.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(long key) {
+        if (root == NO_PAGE) {
+            return false;
+        }
+        int leaf = findLeaf(key);
+        int low = 0;
+        int high = arena.getInt(leaf, KEY_COUNT) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = keyAt(leaf, mid);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the leaf page whose key range covers the given key.
+     * @param key the key to locate
+     * @return the page id of the leaf
+     */
+    private int findLeaf(long key) {
+        int page = root;
+        while (arena.getInt(page, LEAF_FLAG) == 0) {
+            // Child index is the number of separator keys less than or equal to the key
+            int low = 0;
+            int high = arena.getInt(page, KEY_COUNT);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keyAt(page, mid) <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            page = childAt(page, low);
+        }
+        return page;
+    }
+
+    /**
+     * Calculates the height of the B+ Tree.
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        if (root == NO_PAGE) {
+            return 0;
+        }
+        int height = 1;
+        for (int page = root; arena.getInt(page, LEAF_FLAG) == 0; page = childAt(page, 0)) {
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * Returns an iterator over all keys in ascending order, following the leaf chain.
+     * @return an iterator over all keys
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        int first = root;
+        while (first != NO_PAGE && arena.getInt(first, LEAF_FLAG) == 0) {
+            first = childAt(first, 0);
+        }
+        int firstLeaf = first;
+        return new PrimitiveIterator.OfLong() {
+            private int leaf = firstLeaf;  // Page of the next key, or NO_PAGE when exhausted
+            private int index;  // Position of the next key within the leaf
+
+            @Override
+            public boolean hasNext() {
+                return leaf != NO_PAGE;
+            }
+
+            @Override
+            public long nextLong() {
+                if (leaf == NO_PAGE) {
+                    throw new NoSuchElementException();
+                }
+                long key = keyAt(leaf, index++);
+                if (index == arena.getInt(leaf, KEY_COUNT)) {
+                    leaf = arena.getInt(leaf, NEXT);
+                    index = 0;
+                }
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Drops all nodes. Their direct buffers are returned to the system once they are collected.
+     */
+    public void release() {
+        arena.release();
+        root = NO_PAGE;
+        size = 0;
+    }
+
+    private long keyAt(int page, int index) {
+        return arena.getLong(page, KEYS + index * Long.BYTES);
+    }
+
+    private int childAt(int page, int index) {
+        return arena.getInt(page, childrenOffset + index * Integer.BYTES);
+    }
+}
@@ -0,0 +1,326 @@
+package org.bptree;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Represents a read-only B+ Tree of {@code int} keys with compressed leaves.
+ * <p>
+ * The tree is laid out like {@link IntBPlusTree}, but every leaf stores its keys as a
+ * {@link PackedIntBlock}: one base value plus bit-packed distances from it. Sorted keys that are close
+ * together, such as ids or timestamps, shrink to a few bits each, so cold trees can stay resident in a
+ * fraction of the memory. Searches binary search the packed leaf without decoding it, while scans decode
+ * one leaf at a time into a reusable buffer.
+ * <p>
+ * A tree can be bulk loaded from sorted keys or packed from an existing {@link IntBPlusTree} with
+ * {@link #pack(IntBPlusTree)}.
+ */
+public class PackedIntBPlusTree implements Serializable {
+    private PackedIntNode root;  // Root node of the B+ Tree
+    private final int order;  // Order (degree) of the B+ Tree
+    private int size;  // Number of keys stored in the tree
+
+    /**
+     * Constructs a PackedIntBPlusTree with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public PackedIntBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.root = null;
+    }
+
+    /**
+     * Creates a compressed copy of an IntBPlusTree with the same shape and separators.
+     * @param tree the tree to pack
+     * @return the packed tree
+     */
+    public static PackedIntBPlusTree pack(IntBPlusTree tree) {
+        PackedIntBPlusTree packed = new PackedIntBPlusTree(tree.getOrder());
+        if (tree.getRoot() != null) {
+            List<PackedIntNode> leaves = new ArrayList<>();
+            packed.root = packNode(tree.getRoot(), leaves);
+            for (int i = 0; i < leaves.size() - 1; i++) {
+                leaves.get(i).setNext(leaves.get(i + 1));
+            }
+        }
+        packed.size = tree.size();
+        return packed;
+    }
+
+    private static PackedIntNode packNode(IntNode node, List<PackedIntNode> leaves) {
+        if (node.isLeaf()) {
+            PackedIntNode leaf = new PackedIntNode(PackedIntBlock.encode(node.getKeys(), 0, node.getKeyCount()));
+            leaves.add(leaf);
+            return leaf;
+        }
+        IntNode[] children = node.getChildren();
+        PackedIntNode[] packedChildren = new PackedIntNode[children.length];
+        for (int i = 0; i < children.length; i++) {
+            packedChildren[i] = packNode(children[i], leaves);
+        }
+        return new PackedIntNode(node.getKeys().clone(), packedChildren);
+    }
+
+    /**
+     * Returns the root node of the B+ Tree.
+     * @return the root node
+     */
+    public PackedIntNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the order of the B+ Tree.
+     * @return the order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of keys stored in the tree.
+     * @return the key count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using the given sorted keys.
+     * @param sortedKeys keys in ascending order
+     * @throws IllegalArgumentException if the array is empty or not in ascending order
+     */
+    public void bottom_up_method(int[] sortedKeys) {
+        bottom_up_method(sortedKeys, 0, sortedKeys.length);
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using a sorted range of the given array.
+     * @param sortedKeys an array whose range {@code [fromIndex, toIndex)} is in ascending order
+     * @param fromIndex  the first index of the range, inclusive
+     * @param toIndex    the last index of the range, exclusive
+     * @throws IllegalArgumentException if the range is empty or not in ascending order
+     */
+    public void bottom_up_method(int[] sortedKeys, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > sortedKeys.length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Invalid range [" + fromIndex + ", " + toIndex + ").");
+        }
+        if (fromIndex == toIndex) {
+            throw new IllegalArgumentException("Input data should not be empty.");
+        }
+
+        int leafCapacity = order - 1;
+        int leafCount = (toIndex - fromIndex + leafCapacity - 1) / leafCapacity;
+        PackedIntNode[] level = new PackedIntNode[leafCount];
+        int[] mins = new int[leafCount];  // Smallest key of each subtree, used as separators
+
+        for (int i = 0, start = fromIndex; i < leafCount; i++, start += leafCapacity) {
+            int end = Math.min(start + leafCapacity, toIndex);
+            level[i] = new PackedIntNode(PackedIntBlock.encode(sortedKeys, start, end));
+            mins[i] = sortedKeys[start];
+            if (i > 0) {
+                if (sortedKeys[start] < sortedKeys[start - 1]) {
+                    throw new IllegalArgumentException("Keys must be in ascending order at index " + start + ".");
+                }
+                level[i - 1].setNext(level[i]);
+            }
+        }
+
+        while (level.length > 1) {
+            int parentCount = (level.length + order - 1) / order;
+            PackedIntNode[] parents = new PackedIntNode[parentCount];
+            int[] parentMins = new int[parentCount];
+
+            for (int p = 0, start = 0; p < parentCount; p++) {
+                int end = Math.min(start + order, level.length);
+                // Never leave a single child for the last node: hand it one child of this node
+                if (level.length - end == 1) {
+                    end--;
+                }
+                int[] separators = new int[end - start - 1];
+                System.arraycopy(mins, start + 1, separators, 0, separators.length);
+                PackedIntNode[] children = new PackedIntNode[end - start];
+                System.arraycopy(level, start, children, 0, children.length);
+                parents[p] = new PackedIntNode(separators, children);
+                parentMins[p] = mins[start];
+                start = end;
+            }
+
+            level = parents;
+            mins = parentMins;
+        }
+
+        this.root = level[0];
+        this.size = toIndex - fromIndex;
+    }
+
+    /**
+     * Searches for a specific key by descending from the root, locating the key in every internal node with its
+     * {@link KeySearch}, and then searching the packed leaf.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(int key) {
+        PackedIntNode leaf = findLeaf(key);
+        return leaf != null && leaf.getBlock().contains(key);
+    }
+
+    /**
+     * Finds the leaf node whose key range covers the given key.
+     * @param key the key to locate
+     * @return the leaf node, or null if the tree is empty
+     */
+    private PackedIntNode findLeaf(int key) {
+        PackedIntNode currentNode = root;
+        while (currentNode != null && !currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren()[currentNode.upperBound(key)];
+        }
+        return currentNode;
+    }
+
+    /**
+     * Returns all keys in ascending order.
+     * @return an iterator over the keys
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new BlockIterator(firstLeaf(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the keys between two bounds in ascending order.
+     * @param lo the lower bound, inclusive
+     * @param hi the upper bound, inclusive
+     * @return an iterator over the keys in the range
+     */
+    public PrimitiveIterator.OfInt range(int lo, int hi) {
+        PackedIntNode leaf = lo > hi ? null : findLeaf(lo);
+        int start = leaf == null || lo == Integer.MIN_VALUE ? 0 : leaf.getBlock().rank(lo - 1);
+        return new BlockIterator(leaf, start, hi);
+    }
+
+    /**
+     * Returns the number of bytes of packed leaf data, excluding object headers.
+     * @return the leaf size in bytes
+     */
+    public long getLeafByteCount() {
+        long bytes = 0;
+        for (PackedIntNode leaf = firstLeaf(); leaf != null; leaf = leaf.getNext()) {
+            bytes += leaf.getBlock().getByteCount();
+        }
+        return bytes;
+    }
+
+    /**
+     * Calculates the height of the B+ Tree.
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        int height = 0;
+        PackedIntNode currentNode = root;
+
+        while (currentNode != null) {
+            height++;
+            currentNode = currentNode.isLeaf() ? null : currentNode.getChildren()[0];
+        }
+
+        return height;
+    }
+
+    /**
+     * Returns the leftmost leaf node of the tree.
+     * @return the first leaf node, or null if the tree is empty
+     */
+    public PackedIntNode firstLeaf() {
+        PackedIntNode currentNode = root;
+        while (currentNode != null && !currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren()[0];
+        }
+        return currentNode;
+    }
+
+    /**
+     * Restores the leaf chain after deserialization.
+     * The next links are transient so that serialization does not recurse along the whole chain.
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (root == null) {
+            return;
+        }
+        List<PackedIntNode> level = new ArrayList<>();
+        level.add(root);
+        while (!level.get(0).isLeaf()) {
+            List<PackedIntNode> below = new ArrayList<>();
+            for (PackedIntNode parent : level) {
+                for (PackedIntNode child : parent.getChildren()) {
+                    below.add(child);
+                }
+            }
+            level = below;
+        }
+        for (int i = 0; i < level.size() - 1; i++) {
+            level.get(i).setNext(level.get(i + 1));
+        }
+    }
+
+    /**
+     * Walks the leaf chain, decoding each packed leaf into a buffer before handing out its keys.
+     */
+    private static final class BlockIterator implements PrimitiveIterator.OfInt {
+        private final int hi;  // Upper bound, inclusive
+        private PackedIntNode leaf;  // Leaf decoded into the buffer, or null when exhausted
+        private int[] buffer = new int[0];  // Keys of the current leaf
+        private int count;  // Number of keys in the buffer
+        private int index;  // Position of the next key in the buffer
+
+        BlockIterator(PackedIntNode leaf, int start, int hi) {
+            this.hi = hi;
+            load(leaf, start);
+        }
+
+        private void load(PackedIntNode next, int start) {
+            leaf = next;
+            if (leaf == null) {
+                return;
+            }
+            PackedIntBlock block = leaf.getBlock();
+            if (buffer.length < block.getCount()) {
+                buffer = new int[block.getCount()];
+            }
+            block.decode(buffer, 0);
+            count = block.getCount();
+            index = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (leaf != null && index == count) {
+                load(leaf.getNext(), 0);
+            }
+            if (leaf != null && buffer[index] > hi) {
+                leaf = null;
+            }
+            return leaf != null;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return buffer[index++];
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.bptree;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An immutable block of sorted {@code int} keys in frame-of-reference encoding.
+ * <p>
+ * The block stores its smallest key once as the base and every key as its distance from the base,
+ * bit-packed into {@code long} words with just enough bits for the largest distance. Dense leaves
+ * therefore take a few bits per key instead of four bytes, or the sixteen of a boxed {@link Integer}.
+ * Every key stays randomly accessible, so lookups binary search the packed block directly and only
+ * scans decode it, a whole block at a time.
+ */
+public final class PackedIntBlock implements Serializable {
+    private final int base;  // Smallest key of the block
+    private final int bitWidth;  // Bits per packed distance, between 0 and 32
+    private final int count;  // Number of keys in the block
+    private final long[] words;  // Packed distances from the base, least significant bits first
+
+    private PackedIntBlock(int base, int bitWidth, int count, long[] words) {
+        this.base = base;
+        this.bitWidth = bitWidth;
+        this.count = count;
+        this.words = words;
+    }
+
+    /**
+     * Encodes a sorted range of keys.
+     *
+     * @param sortedKeys an array whose range {@code [fromIndex, toIndex)} is in ascending order
+     * @param fromIndex  the first index of the range, inclusive
+     * @param toIndex    the last index of the range, exclusive
+     * @return the packed block
+     * @throws IllegalArgumentException if the range is empty or not in ascending order
+     */
+    public static PackedIntBlock encode(int[] sortedKeys, int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            throw new IllegalArgumentException("A block must hold at least one key.");
+        }
+        int base = sortedKeys[fromIndex];
+        for (int i = fromIndex + 1; i < toIndex; i++) {
+            if (sortedKeys[i] < sortedKeys[i - 1]) {
+                throw new IllegalArgumentException("Keys must be in ascending order at index " + i + ".");
+            }
+        }
+        long maxDelta = (long) sortedKeys[toIndex - 1] - base;
+        int bitWidth = 64 - Long.numberOfLeadingZeros(maxDelta);
+        int count = toIndex - fromIndex;
+        long[] words = new long[(int) (((long) count * bitWidth + 63) >>> 6)];
+
+        for (int i = 0; i < count && bitWidth > 0; i++) {
+            long delta = (long) sortedKeys[fromIndex + i] - base;
+            long bit = (long) i * bitWidth;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            words[word] |= delta << shift;
+            if (shift + bitWidth > 64) {
+                words[word + 1] |= delta >>> (64 - shift);
+            }
+        }
+        return new PackedIntBlock(base, bitWidth, count, words);
+    }
+
+    /**
+     * Returns the number of keys in the block.
+     *
+     * @return the key count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of bits used per key.
+     *
+     * @return the bit width, 0 if all keys are equal
+     */
+    public int getBitWidth() {
+        return bitWidth;
+    }
+
+    /**
+     * Returns the number of bytes of packed key data, excluding the object headers.
+     *
+     * @return the packed size in bytes
+     */
+    public int getByteCount() {
+        return Integer.BYTES * 3 + words.length * Long.BYTES;
+    }
+
+    /**
+     * Returns the smallest key of the block.
+     *
+     * @return the first key
+     */
+    public int first() {
+        return base;
+    }
+
+    /**
+     * Decodes a single key.
+     *
+     * @param index the index of the key
+     * @return the key
+     * @throws IndexOutOfBoundsException if the index is outside the block
+     */
+    public int get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside a block of " + count + " keys.");
+        }
+        return base + (int) delta(index);
+    }
+
+    private long delta(int index) {
+        if (bitWidth == 0) {
+            return 0;
+        }
+        long bit = (long) index * bitWidth;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = words[word] >>> shift;
+        if (shift + bitWidth > 64) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return value & ((1L << bitWidth) - 1);
+    }
+
+    /**
+     * Counts the keys less than or equal to the given key with a binary search on the packed distances.
+     *
+     * @param key the key to locate
+     * @return the number of keys less than or equal to the key
+     */
+    public int rank(int key) {
+        long target = (long) key - base;
+        if (target < 0) {
+            return 0;
+        }
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (delta(mid) <= target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks whether the block contains the given key.
+     *
+     * @param key the key to look for
+     * @return true if the key is present, false otherwise
+     */
+    public boolean contains(int key) {
+        int rank = rank(key);
+        return rank > 0 && delta(rank - 1) == (long) key - base;
+    }
+
+    /**
+     * Decodes all keys of the block in one pass.
+     *
+     * @param destination the array to decode into
+     * @param offset      the index of the first decoded key in the destination
+     * @throws IndexOutOfBoundsException if the destination is too small
+     */
+    public void decode(int[] destination, int offset) {
+        if (offset < 0 || offset + count > destination.length) {
+            throw new IndexOutOfBoundsException("Destination cannot hold " + count + " keys at offset " + offset + ".");
+        }
+        if (bitWidth == 0) {
+            Arrays.fill(destination, offset, offset + count, base);
+            return;
+        }
+        long mask = (1L << bitWidth) - 1;
+        int word = 0;
+        int shift = 0;
+        for (int i = 0; i < count; i++) {
+            long value = words[word] >>> shift;
+            if (shift + bitWidth > 64) {
+                value |= words[word + 1] << (64 - shift);
+            }
+            destination[offset + i] = base + (int) (value & mask);
+            shift += bitWidth;
+            if (shift >= 64) {
+                shift -= 64;
+                word++;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.bptree;
+
+import java.io.Serializable;
+
+/**
+ * Represents a node in a {@link PackedIntBPlusTree}.
+ * Internal nodes keep their separator keys in a plain {@code int[]} and route through a {@link KeySearch}
+ * chosen from their distribution, like {@link IntNode}, while
+ * leaf nodes hold their keys in a single frame-of-reference encoded {@link PackedIntBlock}.
+ */
+public class PackedIntNode implements Serializable {
+    private static final int[] NO_KEYS = new int[0];
+    private static final PackedIntNode[] NO_CHILDREN = new PackedIntNode[0];
+
+    private final int[] keys;  // Separator keys (only for internal nodes)
+    private final KeySearch search;  // Strategy for locating separator keys, chosen from their distribution
+    private final PackedIntNode[] children;  // Child nodes (only for internal nodes)
+    private final PackedIntBlock block;  // Packed keys (only for leaf nodes)
+    private transient PackedIntNode next;  // Link to the next leaf node, rebuilt by the tree on deserialization
+
+    /**
+     * Constructs a new leaf node.
+     *
+     * @param block the packed keys of the leaf
+     */
+    public PackedIntNode(PackedIntBlock block) {
+        this.keys = NO_KEYS;
+        this.search = KeySearch.forKeys(NO_KEYS);
+        this.children = NO_CHILDREN;
+        this.block = block;
+    }
+
+    /**
+     * Constructs a new internal node.
+     *
+     * @param keys     the sorted separator keys; the array is used as is, not copied
+     * @param children the child nodes
+     * @throws IllegalArgumentException if the node does not have exactly one more child than keys
+     */
+    public PackedIntNode(int[] keys, PackedIntNode[] children) {
+        if (children.length != keys.length + 1) {
+            throw new IllegalArgumentException("Internal node must have exactly one more child than keys.");
+        }
+        this.keys = keys;
+        this.search = KeySearch.forKeys(keys);
+        this.children = children;
+        this.block = null;
+    }
+
+    /**
+     * Checks if this node is a leaf node.
+     *
+     * @return true if this is a leaf node, false otherwise
+     */
+    public boolean isLeaf() {
+        return block != null;
+    }
+
+    /**
+     * Returns the backing array of separator keys of an internal node.
+     * The array must not be modified by callers.
+     *
+     * @return the separator keys, or an empty array if this is a leaf node
+     */
+    public int[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * Returns the strategy this node uses to locate separator keys.
+     *
+     * @return the key search strategy
+     */
+    public KeySearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Counts the separator keys of an internal node that are less than or equal to the given key,
+     * that is the index of the child to follow.
+     *
+     * @param key the key to locate
+     * @return the number of separator keys less than or equal to the key
+     */
+    public int upperBound(int key) {
+        return search.upperBound(keys, key);
+    }
+
+    /**
+     * Returns the packed keys of a leaf node.
+     *
+     * @return the packed block, or null if this is an internal node
+     */
+    public PackedIntBlock getBlock() {
+        return block;
+    }
+
+    /**
+     * Returns the backing array of child nodes.
+     * This is only applicable for internal nodes.
+     *
+     * @return the child nodes, or an empty array if this is a leaf node
+     */
+    public PackedIntNode[] getChildren() {
+        return children;
+    }
+
+    /**
+     * Sets the link to the next leaf node.
+     *
+     * @param next the next leaf node
+     */
+    public void setNext(PackedIntNode next) {
+        this.next = next;
+    }
+
+    /**
+     * Returns the next leaf node linked to this node.
+     *
+     * @return the next leaf node, or null if there is no next node
+     */
+    public PackedIntNode getNext() {
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedIntNode{" +
+                "isLeaf=" + isLeaf() +
+                ", keyCount=" + (isLeaf() ? block.getCount() : keys.length) +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+package org.bptree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An off-heap arena of fixed-size pages addressed by page id.
+ * <p>
+ * Pages are carved out of direct {@link ByteBuffer} chunks allocated with {@link ByteBuffer#allocateDirect},
+ * so their contents are not scanned or copied by the garbage collector; only the chunk handles stay on the heap.
+ * All accessors use absolute positions, so concurrent readers need no synchronization once the pages are written.
+ * Pages are never freed individually: the whole arena is released by {@link #release()} or when it becomes unreachable.
+ */
+public class PageArena {
+    private static final int MAX_CHUNK_BYTES = 1 << 30;  // Upper bound of a single direct buffer
+
+    private final int pageSize;  // Size of each page in bytes
+    private final int pagesPerChunk;  // Number of pages carved out of one chunk
+    private final List<ByteBuffer> chunks = new ArrayList<>();  // Allocated direct buffers
+    private int pageCount;  // Number of pages handed out
+
+    /**
+     * Constructs a PageArena.
+     * @param pageSize      the size of each page in bytes, must be positive and a multiple of 8
+     * @param pagesPerChunk the number of pages to allocate at once, must be positive
+     * @throws IllegalArgumentException if a size is invalid or a chunk would exceed 1 GiB
+     */
+    public PageArena(int pageSize, int pagesPerChunk) {
+        if (pageSize <= 0 || pageSize % 8 != 0) {
+            throw new IllegalArgumentException("Page size must be a positive multiple of 8.");
+        }
+        if (pagesPerChunk <= 0 || (long) pageSize * pagesPerChunk > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Chunk must hold at least one page and at most 1 GiB.");
+        }
+        this.pageSize = pageSize;
+        this.pagesPerChunk = pagesPerChunk;
+    }
+
+    /**
+     * Returns the size of each page in bytes.
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns the number of pages allocated so far.
+     * @return the page count
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved by the arena.
+     * @return the reserved bytes
+     */
+    public long getReservedBytes() {
+        return (long) chunks.size() * pagesPerChunk * pageSize;
+    }
+
+    /**
+     * Allocates a new zero-filled page.
+     * @return the id of the new page
+     */
+    public int allocate() {
+        if (pageCount == chunks.size() * pagesPerChunk) {
+            chunks.add(ByteBuffer.allocateDirect(pagesPerChunk * pageSize).order(ByteOrder.nativeOrder()));
+        }
+        return pageCount++;
+    }
+
+    /**
+     * Reads an int from a page.
+     * @param page   the page id
+     * @param offset the byte offset within the page
+     * @return the value
+     */
+    public int getInt(int page, int offset) {
+        return chunks.get(page / pagesPerChunk).getInt(position(page, offset));
+    }
+
+    /**
+     * Writes an int to a page.
+     * @param page   the page id
+     * @param offset the byte offset within the page
+     * @param value  the value
+     */
+    public void putInt(int page, int offset, int value) {
+        chunks.get(page / pagesPerChunk).putInt(position(page, offset), value);
+    }
+
+    /**
+     * Reads a long from a page.
+     * @param page   the page id
+     * @param offset the byte offset within the page
+     * @return the value
+     */
+    public long getLong(int page, int offset) {
+        return chunks.get(page / pagesPerChunk).getLong(position(page, offset));
+    }
+
+    /**
+     * Writes a long to a page.
+     * @param page   the page id
+     * @param offset the byte offset within the page
+     * @param value  the value
+     */
+    public void putLong(int page, int offset, long value) {
+        chunks.get(page / pagesPerChunk).putLong(position(page, offset), value);
+    }
+
+    /**
+     * Drops all pages. The direct buffers are returned to the system once they are collected.
+     */
+    public void release() {
+        chunks.clear();
+        pageCount = 0;
+    }
+
+    private int position(int page, int offset) {
+        if (page < 0 || page >= pageCount) {
+            throw new IndexOutOfBoundsException("Page " + page + " is not allocated.");
+        }
+        return (page % pagesPerChunk) * pageSize + offset;
+    }
+}
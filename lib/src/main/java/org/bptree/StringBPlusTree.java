@@ -0,0 +1,229 @@
+package org.bptree;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Represents a B+ Tree specialized for {@link String} keys with compressed nodes.
+ * <p>
+ * Keys are stored as UTF-8 bytes in {@link StringNode}s, which keep the prefix shared by all keys of a
+ * node once. Separators in internal nodes are suffix-truncated: instead of copying the first key of the
+ * right child, the tree stores the shortest prefix of it that is still greater than the last key of the
+ * left child. Keys with long common prefixes, such as URLs or generated ids, therefore take a fraction of
+ * the memory of a {@code BPlusTree<String>}, and internal nodes carry short separators.
+ * <p>
+ * Keys are ordered by their UTF-8 bytes, which is code point order. It matches {@link String#compareTo}
+ * unless keys contain characters outside the Basic Multilingual Plane.
+ */
+public class StringBPlusTree implements Serializable {
+    private StringNode root;  // Root node of the B+ Tree
+    private final int order;  // Order (degree) of the B+ Tree
+    private int size;  // Number of keys stored in the tree
+
+    /**
+     * Constructs a StringBPlusTree with the specified order.
+     * @param order the order of the B+ tree, must be at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public StringBPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Order must be at least 3.");
+        }
+        this.order = order;
+        this.root = null;
+    }
+
+    /**
+     * Returns the root node of the B+ Tree.
+     * @return the root node
+     */
+    public StringNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the order of the B+ Tree.
+     * @return the order
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of keys stored in the tree.
+     * @return the key count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Constructs the B+ Tree from a bottom-up approach using the given sorted keys.
+     * @param sortedKeys distinct keys in ascending order
+     * @throws IllegalArgumentException if the list is empty, or the keys are not distinct and ascending
+     */
+    public void bottom_up_method(List<String> sortedKeys) {
+        if (sortedKeys.isEmpty()) {
+            throw new IllegalArgumentException("Input data list should not be empty.");
+        }
+
+        byte[][] keys = new byte[sortedKeys.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = sortedKeys.get(i).getBytes(StandardCharsets.UTF_8);
+            if (i > 0 && compare(keys[i - 1], keys[i]) >= 0) {
+                throw new IllegalArgumentException("Input keys must be distinct and ascending at index " + i + ".");
+            }
+        }
+
+        int leafCapacity = order - 1;
+        int leafCount = (keys.length + leafCapacity - 1) / leafCapacity;
+        StringNode[] level = new StringNode[leafCount];
+        byte[][] mins = new byte[leafCount][];  // Smallest key of each subtree
+        byte[][] maxes = new byte[leafCount][];  // Largest key of each subtree
+
+        for (int i = 0, start = 0; i < leafCount; i++, start += leafCapacity) {
+            int end = Math.min(start + leafCapacity, keys.length);
+            level[i] = new StringNode(true, keys, start, end, null);
+            mins[i] = keys[start];
+            maxes[i] = keys[end - 1];
+            if (i > 0) {
+                level[i - 1].setNext(level[i]);
+            }
+        }
+
+        while (level.length > 1) {
+            int parentCount = (level.length + order - 1) / order;
+            StringNode[] parents = new StringNode[parentCount];
+            byte[][] parentMins = new byte[parentCount][];
+            byte[][] parentMaxes = new byte[parentCount][];
+
+            for (int p = 0, start = 0; p < parentCount; p++) {
+                int end = Math.min(start + order, level.length);
+                // Never leave a single child for the last node: hand it one child of this node
+                if (level.length - end == 1) {
+                    end--;
+                }
+                byte[][] separators = new byte[end - start - 1][];
+                for (int c = start + 1; c < end; c++) {
+                    separators[c - start - 1] = shortestSeparator(maxes[c - 1], mins[c]);
+                }
+                parents[p] = new StringNode(false, separators, 0, separators.length,
+                        Arrays.copyOfRange(level, start, end));
+                parentMins[p] = mins[start];
+                parentMaxes[p] = maxes[end - 1];
+                start = end;
+            }
+
+            level = parents;
+            mins = parentMins;
+            maxes = parentMaxes;
+        }
+
+        this.root = level[0];
+        this.size = keys.length;
+    }
+
+    /**
+     * Returns the shortest prefix of {@code right} that is still greater than {@code left}.
+     * Every key of the left subtree is at most {@code left} and so sorts before it, while every key
+     * of the right subtree is at least {@code right} and so sorts at or after it.
+     * @param left the largest key of the left subtree
+     * @param right the smallest key of the right subtree, greater than {@code left}
+     * @return the truncated separator
+     */
+    static byte[] shortestSeparator(byte[] left, byte[] right) {
+        return Arrays.copyOf(right, StringNode.mismatch(left, right) + 1);
+    }
+
+    /**
+     * Searches for a specific key by descending from the root, comparing raw bytes in every node.
+     * @param key the key to search for
+     * @return true if the key is found, false otherwise
+     */
+    public boolean search(String key) {
+        if (root == null) {
+            return false;
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        StringNode currentNode = root;
+        while (!currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren()[currentNode.rank(bytes, false)];
+        }
+        return currentNode.rank(bytes, true) == 1;
+    }
+
+    /**
+     * Calculates the height of the B+ Tree.
+     * @return the height of the tree
+     */
+    public int getHeight() {
+        int height = 0;
+        StringNode currentNode = root;
+
+        while (currentNode != null) {
+            height++;
+            currentNode = currentNode.isLeaf() ? null : currentNode.getChildren()[0];
+        }
+
+        return height;
+    }
+
+    /**
+     * Returns the leftmost leaf node of the tree.
+     * @return the first leaf node, or null if the tree is empty
+     */
+    public StringNode firstLeaf() {
+        StringNode currentNode = root;
+        while (currentNode != null && !currentNode.isLeaf()) {
+            currentNode = currentNode.getChildren()[0];
+        }
+        return currentNode;
+    }
+
+    /**
+     * Compares two byte arrays as unsigned bytes, lexicographically.
+     */
+    private static int compare(byte[] a, byte[] b) {
+        int common = StringNode.mismatch(a, b);
+        if (common < a.length && common < b.length) {
+            return (a[common] & 0xFF) - (b[common] & 0xFF);
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * Restores the leaf chain after deserialization.
+     * The next links are transient so that serialization does not recurse along the whole chain.
+     * @param in the stream to read from
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class of a serialized object cannot be found
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (root == null) {
+            return;
+        }
+        StringNode[] level = {root};
+        while (!level[0].isLeaf()) {
+            int count = 0;
+            for (StringNode parent : level) {
+                count += parent.getChildren().length;
+            }
+            StringNode[] below = new StringNode[count];
+            int index = 0;
+            for (StringNode parent : level) {
+                for (StringNode child : parent.getChildren()) {
+                    below[index++] = child;
+                }
+            }
+            level = below;
+        }
+        for (int i = 0; i < level.length - 1; i++) {
+            level[i].setNext(level[i + 1]);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.bptree;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Represents a node in a {@link StringBPlusTree}.
+ * Keys are stored as UTF-8 bytes with their common prefix kept once per node: the remaining
+ * suffixes are concatenated into a single array and addressed by offsets, so a node holds a
+ * handful of arrays instead of one {@link String} object per key. In internal nodes the keys
+ * are separators, which the tree truncates to the shortest bytes that still separate two children.
+ */
+public class StringNode implements Serializable {
+    private static final StringNode[] NO_CHILDREN = new StringNode[0];
+
+    private final boolean isLeaf;  // True for leaf nodes, False for internal nodes
+    private final byte[] prefix;  // Bytes shared by every key of this node
+    private final byte[] suffixes;  // Key bytes after the prefix, concatenated in key order
+    private final int[] offsets;  // Start of each suffix in suffixes, plus its total length
+    private final StringNode[] children;  // Child nodes (only for internal nodes)
+    private transient StringNode next;  // Link to the next leaf node, rebuilt by the tree on deserialization
+
+    /**
+     * Constructs a new StringNode from keys in ascending byte order.
+     *
+     * @param isLeaf   whether the node is a leaf node
+     * @param keys     the UTF-8 encoded keys, in ascending unsigned byte order
+     * @param from     the index of the first key to store, inclusive
+     * @param to       the index of the last key to store, exclusive
+     * @param children the child nodes, or {@code null} for a leaf node
+     * @throws IllegalArgumentException if an internal node does not have exactly one more child than keys
+     */
+    StringNode(boolean isLeaf, byte[][] keys, int from, int to, StringNode[] children) {
+        if (!isLeaf && (children == null || children.length != to - from + 1)) {
+            throw new IllegalArgumentException("Internal node must have exactly one more child than keys.");
+        }
+        // In sorted keys, the prefix shared by all keys is the prefix shared by the first and the last
+        int prefixLength = from == to ? 0 : mismatch(keys[from], keys[to - 1]);
+        int total = 0;
+        for (int i = from; i < to; i++) {
+            total += keys[i].length - prefixLength;
+        }
+
+        this.isLeaf = isLeaf;
+        this.prefix = from == to ? new byte[0] : Arrays.copyOf(keys[from], prefixLength);
+        this.suffixes = new byte[total];
+        this.offsets = new int[to - from + 1];
+        for (int i = from, offset = 0; i < to; i++) {
+            int length = keys[i].length - prefixLength;
+            System.arraycopy(keys[i], prefixLength, suffixes, offset, length);
+            offsets[i - from] = offset;
+            offset += length;
+        }
+        offsets[to - from] = total;
+        this.children = isLeaf ? NO_CHILDREN : children;
+    }
+
+    /**
+     * Checks if this node is a leaf node.
+     *
+     * @return true if this is a leaf node, false otherwise
+     */
+    public boolean isLeaf() {
+        return isLeaf;
+    }
+
+    /**
+     * Returns the number of keys stored in this node.
+     *
+     * @return the key count
+     */
+    public int getKeyCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the length of the prefix shared by every key of this node.
+     *
+     * @return the prefix length in bytes
+     */
+    public int getPrefixLength() {
+        return prefix.length;
+    }
+
+    /**
+     * Decodes a key of this node.
+     *
+     * @param index the index of the key
+     * @return the key as a string
+     */
+    public String getKey(int index) {
+        return new String(getKeyBytes(index), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a copy of the UTF-8 bytes of a key of this node.
+     *
+     * @param index the index of the key
+     * @return the key bytes, prefix included
+     */
+    public byte[] getKeyBytes(int index) {
+        int from = offsets[index];
+        int length = offsets[index + 1] - from;
+        byte[] key = Arrays.copyOf(prefix, prefix.length + length);
+        System.arraycopy(suffixes, from, key, prefix.length, length);
+        return key;
+    }
+
+    /**
+     * Returns the number of bytes used for keys in this node, prefix and suffixes included.
+     *
+     * @return the key byte count
+     */
+    public int getKeyByteCount() {
+        return prefix.length + suffixes.length;
+    }
+
+    /**
+     * Returns the backing array of child nodes.
+     * This is only applicable for internal nodes.
+     *
+     * @return the child nodes, or an empty array if this is a leaf node
+     */
+    public StringNode[] getChildren() {
+        return children;
+    }
+
+    /**
+     * Sets the link to the next leaf node.
+     *
+     * @param next the next leaf node
+     */
+    public void setNext(StringNode next) {
+        this.next = next;
+    }
+
+    /**
+     * Returns the next leaf node linked to this node.
+     *
+     * @return the next leaf node, or null if there is no next node
+     */
+    public StringNode getNext() {
+        return next;
+    }
+
+    /**
+     * Finds how many keys of this node are less than or equal to the given key, or
+     * whether the key is present, without decoding any key.
+     *
+     * @param key    the UTF-8 encoded key
+     * @param exact  true to return whether the key is present as 1 or 0 instead of the count
+     * @return the number of keys less than or equal to the key, or 1/0 for an exact lookup
+     */
+    int rank(byte[] key, boolean exact) {
+        int keyCount = getKeyCount();
+        int common = Math.min(key.length, prefix.length);
+        for (int i = 0; i < common; i++) {
+            if (prefix[i] != key[i]) {
+                // The key lies entirely before or after this node's keys
+                boolean after = (prefix[i] & 0xFF) < (key[i] & 0xFF);
+                return exact ? 0 : after ? keyCount : 0;
+            }
+        }
+        if (key.length < prefix.length) {
+            return 0;  // A proper prefix of every key sorts before all of them
+        }
+
+        int low = 0;
+        int high = keyCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareSuffix(mid, key, prefix.length);
+            if (cmp == 0 && exact) {
+                return 1;
+            }
+            if (cmp <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return exact ? 0 : low;
+    }
+
+    /**
+     * Compares a stored suffix with the key bytes from {@code keyFrom} on, as unsigned bytes.
+     */
+    private int compareSuffix(int index, byte[] key, int keyFrom) {
+        int from = offsets[index];
+        int length = offsets[index + 1] - from;
+        int keyLength = key.length - keyFrom;
+        int common = Math.min(length, keyLength);
+        for (int i = 0; i < common; i++) {
+            int cmp = (suffixes[from + i] & 0xFF) - (key[keyFrom + i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - keyLength;
+    }
+
+    /**
+     * Returns the length of the common prefix of two byte arrays.
+     */
+    static int mismatch(byte[] a, byte[] b) {
+        int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; i++) {
+            if (a[i] != b[i]) {
+                return i;
+            }
+        }
+        return common;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder keys = new StringBuilder();
+        for (int i = 0; i < getKeyCount(); i++) {
+            keys.append(i == 0 ? "" : ", ").append(getKey(i));
+        }
+        return "StringNode{" +
+                "isLeaf=" + isLeaf +
+                ", keys=[" + keys +
+                "]}";
+    }
+}
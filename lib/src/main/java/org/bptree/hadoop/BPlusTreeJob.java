@@ -6,13 +6,18 @@ import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.io.IntWritable;
-import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.VIntWritable;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.bptree.hadoop.common.Constant;
 import org.bptree.hadoop.mapper.BPlusTreeMapper;
+import org.bptree.hadoop.models.PartitionValueWritable;
+import org.bptree.hadoop.models.SubtreeMetadata;
+import org.bptree.hadoop.output.SubtreeOutputFormat;
 import org.bptree.hadoop.reducer.BPlusTreeReducer;
+import org.bptree.hadoop.utils.PartitionSampler;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -20,8 +25,6 @@ import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Main class for configuring and executing the BPlusTree Hadoop MapReduce job.
@@ -39,22 +42,39 @@ public class BPlusTreeJob {
         long totalStartTime = System.currentTimeMillis();
 
         Configuration conf = new Configuration();
+        Path inputPath = new Path(args[0]);
+        FileSystem fs = FileSystem.get(conf);
+
+        // Sample the input so every reducer gets an equal share, whatever the key distribution
+        RangePartitioner partitioner = samplePartitioner(fs, inputPath, conf);
+        conf.set(Constant.PARTITION_SPLIT_POINTS, partitioner.toString());
+
         Job job = Job.getInstance(conf, "BPlusTree Job for Distributed B+ Tree Construction");
         job.setJarByClass(BPlusTreeJob.class);
 
         job.setMapperClass(BPlusTreeMapper.MapPhase.class);
+        job.setCombinerClass(BPlusTreeMapper.CombinePhase.class);
         job.setReducerClass(BPlusTreeReducer.ReducePhase.class);
-
-        job.setMapOutputKeyClass(Text.class);
-        job.setMapOutputValueClass(IntWritable.class);
-        job.setOutputKeyClass(Text.class);
-        job.setOutputValueClass(Text.class);
-
-        FileInputFormat.addInputPath(job, new Path(args[0]));
+        job.setPartitionerClass(BPlusTreeMapper.PartitionPhase.class);
+        job.setNumReduceTasks(partitioner.getPartitionCount());
+
+        // Secondary sort: keys are (partition, data item) so every reducer receives its items in ascending order,
+        // while grouping by partition alone keeps one reduce call per partition
+        job.setMapOutputKeyClass(PartitionValueWritable.class);
+        job.setMapOutputValueClass(VIntWritable.class);
+        job.setSortComparatorClass(PartitionValueWritable.Comparator.class);
+        job.setGroupingComparatorClass(PartitionValueWritable.PartitionComparator.class);
+
+        // Subtrees and metadata records are committed with the task attempt, so speculative attempts are safe
+        job.setOutputFormatClass(SubtreeOutputFormat.class);
+        job.setOutputKeyClass(NullWritable.class);
+        job.setOutputValueClass(SubtreeMetadata.class);
+        job.setReduceSpeculativeExecution(true);
+
+        FileInputFormat.addInputPath(job, inputPath);
         Path outputPath = new Path(args[1]);
         FileOutputFormat.setOutputPath(job, outputPath);
 
-        FileSystem fs = FileSystem.get(conf);
         if (fs.exists(outputPath)) {
             fs.delete(outputPath, true);
         }
@@ -71,7 +91,31 @@ public class BPlusTreeJob {
     }
 
     /**
-     * Generates a metadata file based on the output of reducers.
+     * Chooses balanced split points from a sample of the input, and records in the configuration how many
+     * elements each partition should receive.
+     *
+     * @param fs        the FileSystem instance
+     * @param inputPath the input file or directory of the job
+     * @param conf      Hadoop configuration holding the partition count and sample size
+     * @return the partitioner the mappers will use
+     * @throws Exception if the input cannot be sampled
+     */
+    private static RangePartitioner samplePartitioner(FileSystem fs, Path inputPath, Configuration conf) throws Exception {
+        long sampleStartTime = System.currentTimeMillis();
+        int partitions = conf.getInt(Constant.PARTITION_COUNT, Constant.DEFAULT_PARTITION_COUNT);
+        int sampleSize = conf.getInt(Constant.PARTITION_SAMPLE_SIZE, Constant.DEFAULT_PARTITION_SAMPLE_SIZE);
+        PartitionSampler.Sample sample = PartitionSampler.sample(fs, inputPath, sampleSize);
+        RangePartitioner partitioner = RangePartitioner.fromSample(sample.getValues(), partitions);
+        long expectedElements = Math.max(1, (sample.getEstimatedRecords() + partitioner.getPartitionCount() - 1)
+                / partitioner.getPartitionCount());
+        conf.setLong(Constant.PARTITION_EXPECTED_ELEMENTS, expectedElements);
+        System.out.println("Sampled " + sample.getValues().length + " values in " + (System.currentTimeMillis() - sampleStartTime)
+                + " ms, split points: [" + partitioner + "], about " + expectedElements + " elements per partition");
+        return partitioner;
+    }
+
+    /**
+     * Generates a metadata file from the metadata records committed by the reducers.
      *
      * @param fs         the FileSystem instance
      * @param outputPath the output path of the reducers
@@ -90,7 +134,11 @@ public class BPlusTreeJob {
                      BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
                     String line;
                     while ((line = reader.readLine()) != null) {
-                        System.out.println("Read line: " + line);
+                        if (line.trim().isEmpty()) {
+                            continue;
+                        }
+                        int bloomStart = line.indexOf(", \"bloom_filter\"");
+                        System.out.println("Read record: " + (bloomStart < 0 ? line : line.substring(0, bloomStart) + "}"));
                         metadataEntries.add(line);
                     }
                 } catch (Exception e) {
@@ -109,39 +157,11 @@ public class BPlusTreeJob {
         try (FSDataOutputStream out = fs.create(metadataPath);
              OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
             writer.write("{ \"metadata\": [\n");
-
-            // Regex pattern to extract details from each line
-            String pattern = "B\\+ Tree stored for key (\\d+)\\s+Path: (\\S+), Min: (\\d+), Max: (\\d+), Height: (\\d+), Elements: (\\d+)";
-            Pattern regex = Pattern.compile(pattern);
-
+            // Each record is already a JSON object, so they only need to be joined
             for (int i = 0; i < metadataEntries.size(); i++) {
-                try {
-                    Matcher matcher = regex.matcher(metadataEntries.get(i));
-                    if (matcher.find()) {
-                        String partitionKey = matcher.group(1);
-                        String path = matcher.group(2);
-                        String minValue = matcher.group(3);
-                        String maxValue = matcher.group(4);
-                        String height = matcher.group(5);
-                        String elements = matcher.group(6);
-
-                        writer.write("  {\n");
-                        writer.write("    \"partition_key\": \"" + partitionKey + "\",\n");
-                        writer.write("    \"path\": \"" + path + "\",\n");
-                        writer.write("    \"min_value\": " + minValue + ",\n");
-                        writer.write("    \"max_value\": " + maxValue + ",\n");
-                        writer.write("    \"height\": " + height + ",\n");
-                        writer.write("    \"elements\": " + elements + "\n");
-                        writer.write("  }");
-                        if (i < metadataEntries.size() - 1) writer.write(",");
-                        writer.write("\n");
-                    } else {
-                        System.err.println("Line does not match pattern: " + metadataEntries.get(i));
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error processing metadata entry: " + metadataEntries.get(i));
-                    e.printStackTrace();
-                }
+                writer.write("  " + metadataEntries.get(i));
+                if (i < metadataEntries.size() - 1) writer.write(",");
+                writer.write("\n");
             }
             writer.write("]}\n");
         } catch (Exception e) {
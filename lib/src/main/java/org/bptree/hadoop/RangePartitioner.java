@@ -0,0 +1,164 @@
+package org.bptree.hadoop;
+
+import java.util.Arrays;
+
+/**
+ * RangePartitioner assigns integer values to contiguous key ranges separated by split points.
+ * <p>
+ * The split points are chosen from a sample of the input with {@link #fromSample(int[], int)}, so every range
+ * receives about the same number of values whatever the key distribution is. A split point is the smallest value
+ * of the range it starts, the same convention as the separator keys of a B+ Tree. Partition keys are the range
+ * numbers starting from {@code "1"}, so range {@code i} ends up in subtree {@code i + 1}.
+ */
+public class RangePartitioner implements DataPartitioner<Integer> {
+    private final int[] splitPoints;  // Smallest value of each range but the first, strictly ascending
+    private final String[] keys;  // Partition key of each range
+
+    /**
+     * Constructs a RangePartitioner from explicit split points.
+     *
+     * @param splitPoints the smallest value of every range but the first, strictly ascending
+     * @throws IllegalArgumentException if the split points are not strictly ascending
+     */
+    public RangePartitioner(int[] splitPoints) {
+        for (int i = 1; i < splitPoints.length; i++) {
+            if (splitPoints[i - 1] >= splitPoints[i]) {
+                throw new IllegalArgumentException("Split points must be strictly ascending.");
+            }
+        }
+        this.splitPoints = splitPoints.clone();
+        this.keys = new String[splitPoints.length + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = String.valueOf(i + 1);
+        }
+    }
+
+    /**
+     * Chooses split points that divide a sample of the input into equally sized ranges.
+     * <p>
+     * A value that fills several quantiles of the sample on its own cannot be split, since equal keys have to
+     * reach the same subtree. The next range then starts after its run, so heavily skewed samples can produce
+     * fewer ranges than requested.
+     *
+     * @param sample     values sampled from the input, in any order; the array is sorted in place
+     * @param partitions the number of ranges wanted, at least 1
+     * @return a partitioner with at most {@code partitions} ranges
+     * @throws IllegalArgumentException if fewer than one partition is requested
+     */
+    public static RangePartitioner fromSample(int[] sample, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1.");
+        }
+        Arrays.sort(sample);
+        int[] splitPoints = new int[partitions - 1];
+        int count = 0;
+        if (sample.length > 0) {
+            for (int i = 1; i < partitions; i++) {
+                int position = (int) ((long) i * sample.length / partitions);
+                int limit = (int) ((long) (i + 1) * sample.length / partitions);
+                int previous = count == 0 ? sample[0] : splitPoints[count - 1];
+                if (sample[position] <= previous) {
+                    // The quantile falls in a run of equal values, so the range can only start after the run
+                    position = upperBound(sample, previous);
+                }
+                if (position < limit) {
+                    splitPoints[count++] = sample[position];
+                }
+            }
+        }
+        return new RangePartitioner(Arrays.copyOf(splitPoints, count));
+    }
+
+    /**
+     * Returns the index of the first value greater than the given one in a sorted array.
+     */
+    private static int upperBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Restores a partitioner from the form written by {@link #toString()}.
+     *
+     * @param splitPoints comma-separated split points, or an empty string for a single range
+     * @return the partitioner
+     * @throws IllegalArgumentException if the split points are not integers in strictly ascending order
+     */
+    public static RangePartitioner parse(String splitPoints) {
+        String trimmed = splitPoints.trim();
+        if (trimmed.isEmpty()) {
+            return new RangePartitioner(new int[0]);
+        }
+        String[] parts = trimmed.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return new RangePartitioner(values);
+    }
+
+    /**
+     * Returns the index of the range a value belongs to, that is the number of split points less than or equal to it.
+     *
+     * @param value the value to evaluate
+     * @return the range index, between 0 and {@link #getPartitionCount()} - 1
+     */
+    public int getPartition(int value) {
+        return upperBound(splitPoints, value);
+    }
+
+    /**
+     * Determines the partition key of a value: the number of its range, starting from {@code "1"}.
+     *
+     * @param value the value to evaluate
+     * @return the partition key for the given value
+     */
+    @Override
+    public String partitionKey(Integer value) {
+        return keys[getPartition(value)];
+    }
+
+    /**
+     * Returns the number of ranges.
+     *
+     * @return the partition count
+     */
+    public int getPartitionCount() {
+        return keys.length;
+    }
+
+    /**
+     * Returns a copy of the split points.
+     *
+     * @return the smallest value of every range but the first
+     */
+    public int[] getSplitPoints() {
+        return splitPoints.clone();
+    }
+
+    /**
+     * Returns the split points separated by commas, the form read by {@link #parse(String)}.
+     *
+     * @return the split points as a string
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < splitPoints.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(splitPoints[i]);
+        }
+        return builder.toString();
+    }
+}
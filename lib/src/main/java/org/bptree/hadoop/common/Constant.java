@@ -6,22 +6,22 @@ package org.bptree.hadoop.common;
 public interface Constant {
 
     /**
-     * Maximum value for partition 1.
+     * Maximum value for partition 1 when no split points are configured.
      */
     long MAX_PARTITION1 = 17469497;
 
     /**
-     * Maximum value for partition 2.
+     * Maximum value for partition 2 when no split points are configured.
      */
     long MAX_PARTITION2 = 34951108;
 
     /**
-     * Maximum value for partition 3.
+     * Maximum value for partition 3 when no split points are configured.
      */
     long MAX_PARTITION3 = 52433869;
 
     /**
-     * Maximum value for partition 4.
+     * Maximum value for partition 4 when no split points are configured.
      */
     long MAX_PARTITION4 = 69920921;
 
@@ -49,4 +49,50 @@ public interface Constant {
      * Key identifier for partition 5.
      */
     String KEY5 = "5";
+
+    /**
+     * Configuration key for the false-positive rate of the Bloom filter built for each subtree.
+     */
+    String BLOOM_FALSE_POSITIVE_RATE = "bptree.bloom.false-positive-rate";
+
+    /**
+     * False-positive rate of the subtree Bloom filters when none is configured.
+     */
+    double DEFAULT_BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Configuration key for the number of partitions, and so of reducers, the input is split into.
+     */
+    String PARTITION_COUNT = "bptree.partition.count";
+
+    /**
+     * Number of partitions when none is configured.
+     */
+    int DEFAULT_PARTITION_COUNT = 5;
+
+    /**
+     * Configuration key for the number of input values sampled on the driver to choose the split points.
+     */
+    String PARTITION_SAMPLE_SIZE = "bptree.partition.sample-size";
+
+    /**
+     * Number of sampled input values when none is configured.
+     */
+    int DEFAULT_PARTITION_SAMPLE_SIZE = 10_000;
+
+    /**
+     * Configuration key for the comma-separated split points the driver passes to the mappers.
+     */
+    String PARTITION_SPLIT_POINTS = "bptree.partition.split-points";
+
+    /**
+     * Configuration key for the expected number of elements per partition, estimated by the driver while
+     * sampling; reducers size the subtree Bloom filters with it before the values stream in.
+     */
+    String PARTITION_EXPECTED_ELEMENTS = "bptree.partition.expected-elements";
+
+    /**
+     * Expected number of elements per partition when none is configured.
+     */
+    long DEFAULT_PARTITION_EXPECTED_ELEMENTS = 1_000_000;
 }
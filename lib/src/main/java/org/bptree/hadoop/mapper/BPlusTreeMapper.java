@@ -1,10 +1,16 @@
 package org.bptree.hadoop.mapper;
 
-import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.VIntWritable;
 import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.bptree.hadoop.RangePartitioner;
 import org.bptree.hadoop.common.Constant;
+import org.bptree.hadoop.models.PartitionValueWritable;
+import org.bptree.hadoop.utils.IntParser;
 
 import java.io.IOException;
 
@@ -14,16 +20,36 @@ import java.io.IOException;
  * <p>
  * Each data item is mapped to a specific partition key based on the value
  * to balance the B+ Tree construction process across multiple nodes.
+ * Each record is emitted as a {@link PartitionValueWritable} key holding the partition number,
+ * starting from 1, and the data item, so the shuffle sorts the items of every partition.
+ * The value counts how many times the item occurred.
  */
 public class BPlusTreeMapper {
 
     /**
      * MapPhase class is the core Mapper logic.
      * It reads lines of data, parses each line to an integer,
-     * assigns it to a partition key based on defined ranges in {@link Constant},
+     * assigns it to a partition key using the split points the driver sampled from the input,
      * and writes the partitioned data to the context for Reducer processing.
+     * Lines are parsed from their bytes and the output writables are reused, so no objects
+     * are created per record.
      */
-    public static class MapPhase extends Mapper<LongWritable, Text, Text, IntWritable> {
+    public static class MapPhase extends Mapper<LongWritable, Text, PartitionValueWritable, VIntWritable> {
+
+        private static final VIntWritable ONE = new VIntWritable(1); // Every record is a single occurrence
+
+        private final PartitionValueWritable partitionKey = new PartitionValueWritable(); // Reused output key
+        private RangePartitioner partitioner; // Assigns values to partitions
+
+        /**
+         * Reads the split points from the job configuration.
+         *
+         * @param context the Hadoop Context holding the job configuration.
+         */
+        @Override
+        protected void setup(Context context) {
+            partitioner = createPartitioner(context.getConfiguration());
+        }
 
         /**
          * The map method processes each line of input data.
@@ -34,42 +60,84 @@ public class BPlusTreeMapper {
          */
         @Override
         public void map(LongWritable key, Text value, Context context) throws IOException, InterruptedException {
+            int eachLineData;
             try {
-                // Convert the line to a String and trim any whitespace.
-                String line = value.toString().trim();
-                // Parse the line content to an integer.
-                int eachLineData = Integer.parseInt(line);
-
-                // Determine the partition key based on the integer value.
-                Text partitionKey = new Text(determineKey(eachLineData));
-
-                // Write the key-value pair (partition key, data item) to context.
-                context.write(partitionKey, new IntWritable(eachLineData));
-
+                // Parse the line content to an integer without decoding it to a String.
+                eachLineData = IntParser.parseInt(value.getBytes(), 0, value.getLength());
             } catch (NumberFormatException e) {
                 // Log any lines that cannot be parsed to an integer.
                 System.err.println("Error parsing number format: " + value.toString());
+                return;
             }
+
+            // Determine the partition, numbered from 1, based on the integer value.
+            partitionKey.set(partitioner.getPartition(eachLineData) + 1, eachLineData);
+
+            // Write the key-value pair ((partition, data item), occurrence count) to context.
+            context.write(partitionKey, ONE);
         }
 
         /**
-         * Determines the partition key for a given value based on predefined ranges.
+         * Creates the partitioner from the split points in the configuration, falling back to the
+         * fixed ranges in {@link Constant} when the job was submitted without sampling.
          *
-         * @param value the data item to be partitioned.
-         * @return the partition key as a String.
+         * @param conf the job configuration.
+         * @return the partitioner.
          */
-        private static String determineKey(int value) {
-            if (value < Constant.MAX_PARTITION1) {
-                return Constant.KEY1;
-            } else if (value < Constant.MAX_PARTITION2) {
-                return Constant.KEY2;
-            } else if (value < Constant.MAX_PARTITION3) {
-                return Constant.KEY3;
-            } else if (value < Constant.MAX_PARTITION4) {
-                return Constant.KEY4;
-            } else {
-                return Constant.KEY5;
+        static RangePartitioner createPartitioner(Configuration conf) {
+            String splitPoints = conf.get(Constant.PARTITION_SPLIT_POINTS);
+            if (splitPoints != null) {
+                return RangePartitioner.parse(splitPoints);
             }
+            return new RangePartitioner(new int[]{(int) Constant.MAX_PARTITION1, (int) Constant.MAX_PARTITION2,
+                    (int) Constant.MAX_PARTITION3, (int) Constant.MAX_PARTITION4});
+        }
+    }
+
+    /**
+     * CombinePhase merges repeated data items of a map task into one record with their total count,
+     * which shrinks the shuffle when the input holds duplicates.
+     */
+    public static class CombinePhase extends Reducer<PartitionValueWritable, VIntWritable, PartitionValueWritable, VIntWritable> {
+
+        private final VIntWritable total = new VIntWritable(); // Reused output value
+
+        /**
+         * Sums the occurrence counts of one (partition, data item) key.
+         *
+         * @param key     the partition and data item.
+         * @param values  the occurrence counts written for this key.
+         * @param context the Hadoop Context to write the merged record to.
+         */
+        @Override
+        public void reduce(PartitionValueWritable key, Iterable<VIntWritable> values, Context context)
+                throws IOException, InterruptedException {
+            int count = 0;
+            for (VIntWritable value : values) {
+                count += value.get();
+            }
+            total.set(count);
+            context.write(key, total);
+        }
+    }
+
+    /**
+     * PartitionPhase sends each partition key to its own reducer, so that every reducer builds
+     * one subtree of about the same size instead of relying on the hash of the key.
+     */
+    public static class PartitionPhase extends Partitioner<PartitionValueWritable, VIntWritable> {
+
+        /**
+         * Maps partition {@code i} to reducer {@code i - 1}, whatever the data item.
+         *
+         * @param key           the partition, numbered from 1, and the data item.
+         * @param value         the occurrence count (not used).
+         * @param numPartitions the number of reducers.
+         * @return the reducer index.
+         */
+        @Override
+        public int getPartition(PartitionValueWritable key, VIntWritable value, int numPartitions) {
+            return (key.getPartition() - 1) % numPartitions;
         }
     }
 }
@@ -0,0 +1,120 @@
+package org.bptree.hadoop.models;
+
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * PartitionValueWritable is the composite map output key of the B+ Tree job: a partition number and a data item.
+ * <p>
+ * Sorting by both fields makes the shuffle deliver the values of each partition in ascending order (a secondary
+ * sort), while {@link PartitionComparator} groups keys by partition only, so each reducer call still sees one whole
+ * partition. Both comparators work on the serialized bytes without deserializing keys.
+ */
+public class PartitionValueWritable implements WritableComparable<PartitionValueWritable> {
+    private static final int PARTITION_OFFSET = 0;  // Byte offset of the partition number
+    private static final int VALUE_OFFSET = Integer.BYTES;  // Byte offset of the data item
+
+    private int partition;  // Partition number, starting from 1
+    private int value;  // Data item
+
+    static {
+        WritableComparator.define(PartitionValueWritable.class, new Comparator());
+    }
+
+    /**
+     * Sets both fields.
+     *
+     * @param partition the partition number
+     * @param value     the data item
+     */
+    public void set(int partition, int value) {
+        this.partition = partition;
+        this.value = value;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(partition);
+        out.writeInt(value);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        partition = in.readInt();
+        value = in.readInt();
+    }
+
+    @Override
+    public int compareTo(PartitionValueWritable other) {
+        int byPartition = Integer.compare(partition, other.partition);
+        return byPartition != 0 ? byPartition : Integer.compare(value, other.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PartitionValueWritable)) return false;
+        PartitionValueWritable other = (PartitionValueWritable) o;
+        return partition == other.partition && value == other.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * partition + value;
+    }
+
+    @Override
+    public String toString() {
+        return partition + ":" + value;
+    }
+
+    /**
+     * Sort comparator: orders serialized keys by partition, then by data item.
+     */
+    public static class Comparator extends WritableComparator {
+        public Comparator() {
+            super(PartitionValueWritable.class);
+        }
+
+        @Override
+        public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+            int byPartition = Integer.compare(readInt(b1, s1 + PARTITION_OFFSET), readInt(b2, s2 + PARTITION_OFFSET));
+            if (byPartition != 0) {
+                return byPartition;
+            }
+            return Integer.compare(readInt(b1, s1 + VALUE_OFFSET), readInt(b2, s2 + VALUE_OFFSET));
+        }
+    }
+
+    /**
+     * Grouping comparator: treats keys of the same partition as equal, so one reduce call covers a partition.
+     */
+    public static class PartitionComparator extends WritableComparator {
+        public PartitionComparator() {
+            super(PartitionValueWritable.class);
+        }
+
+        @Override
+        public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+            return Integer.compare(readInt(b1, s1 + PARTITION_OFFSET), readInt(b2, s2 + PARTITION_OFFSET));
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public int compare(WritableComparable a, WritableComparable b) {
+            return Integer.compare(((PartitionValueWritable) a).partition, ((PartitionValueWritable) b).partition);
+        }
+    }
+}
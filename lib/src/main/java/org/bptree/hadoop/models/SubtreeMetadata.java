@@ -1,7 +1,10 @@
 package org.bptree.hadoop.models;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.bptree.utils.BloomFilter;
+
 import java.io.Serializable;
+import java.util.Base64;
 
 public class SubtreeMetadata implements Serializable {
     @JsonProperty("partition_key")
@@ -22,6 +25,12 @@ public class SubtreeMetadata implements Serializable {
     @JsonProperty("elements")
     private int elements;
 
+    // Base64 encoded Bloom filter of the subtree keys; read from metadata but left out of search results
+    @JsonProperty(value = "bloom_filter", access = JsonProperty.Access.WRITE_ONLY)
+    private String bloomFilter;
+
+    private transient BloomFilter decodedBloomFilter;  // Decoded on first use
+
     // Constructor mặc định
     public SubtreeMetadata() {}
 
@@ -84,6 +93,32 @@ public class SubtreeMetadata implements Serializable {
         this.elements = elements;
     }
 
+    public String getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public void setBloomFilter(String bloomFilter) {
+        this.bloomFilter = bloomFilter;
+        this.decodedBloomFilter = null;
+    }
+
+    /**
+     * Checks the subtree's Bloom filter for a key.
+     * Metadata written without a filter cannot rule anything out, so every key may be contained.
+     *
+     * @param key the key to check
+     * @return false if the subtree certainly does not contain the key, true if it may
+     */
+    public boolean mightContain(int key) {
+        if (bloomFilter == null) {
+            return true;
+        }
+        if (decodedBloomFilter == null) {
+            decodedBloomFilter = BloomFilter.fromByteArray(Base64.getDecoder().decode(bloomFilter));
+        }
+        return decodedBloomFilter.mightContain(key);
+    }
+
     @Override
     public String toString() {
         return "SubtreeMetadata{" +
@@ -93,6 +128,7 @@ public class SubtreeMetadata implements Serializable {
                 ", maxValue=" + maxValue +
                 ", height=" + height +
                 ", elements=" + elements +
+                ", bloomFilter=" + (bloomFilter == null ? "none" : bloomFilter.length() + " chars") +
                 '}';
     }
 }
@@ -0,0 +1,125 @@
+package org.bptree.hadoop.output;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.bptree.hadoop.models.SubtreeMetadata;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SubtreeOutputFormat writes the subtree files of the B+ Tree job and their metadata inside the job output
+ * directory, under the control of the output committer.
+ * <p>
+ * Every file is created in the work directory of the task attempt and only moved to the output directory when
+ * the attempt commits. Failed, killed or speculative attempts that lose therefore leave nothing behind, and each
+ * partition ends up with exactly one subtree file, at a path that does not depend on the attempt:
+ * <pre>
+ *   &lt;output&gt;/trees/&lt;partition&gt;/tree-r-&lt;task&gt;.bpt   subtree written with {@link #createSubtreeFile}
+ *   &lt;output&gt;/part-r-&lt;task&gt;.json                  one JSON metadata record per line
+ * </pre>
+ * The metadata records are written by the record writer of this format, so reducers emit
+ * {@link SubtreeMetadata} values instead of formatted text.
+ */
+public class SubtreeOutputFormat extends FileOutputFormat<NullWritable, SubtreeMetadata> {
+
+    private static final String TREE_DIRECTORY = "trees"; // Subdirectory of the output holding the subtree files
+    private static final String TREE_EXTENSION = ".bpt"; // Extension of the subtree files
+    private static final String METADATA_EXTENSION = ".json"; // Extension of the metadata files
+
+    /**
+     * Creates the writer for the metadata records of a task attempt.
+     *
+     * @param context the task attempt context.
+     * @return the record writer.
+     * @throws IOException if the metadata file cannot be created.
+     */
+    @Override
+    public RecordWriter<NullWritable, SubtreeMetadata> getRecordWriter(TaskAttemptContext context) throws IOException {
+        Path file = getDefaultWorkFile(context, METADATA_EXTENSION);
+        FileSystem fs = file.getFileSystem(context.getConfiguration());
+        return new MetadataRecordWriter(fs.create(file, false));
+    }
+
+    /**
+     * Creates the file for the subtree of a partition in the work directory of the task attempt.
+     * It reaches {@link #getCommittedSubtreePath} when the attempt commits.
+     *
+     * @param context   the context of the reduce task.
+     * @param partition the partition number.
+     * @return the stream to write the subtree to.
+     * @throws IOException          if the file cannot be created.
+     * @throws InterruptedException if resolving the work directory of the task attempt is interrupted.
+     */
+    public static FSDataOutputStream createSubtreeFile(TaskInputOutputContext<?, ?, ?, ?> context, int partition)
+            throws IOException, InterruptedException {
+        Path file = new Path(getWorkOutputPath(context), subtreeFileName(context, partition));
+        return file.getFileSystem(context.getConfiguration()).create(file, false);
+    }
+
+    /**
+     * Returns the path the subtree of a partition will have once the task attempt commits, as recorded in the metadata.
+     *
+     * @param context   the context of the reduce task.
+     * @param partition the partition number.
+     * @return the absolute path of the committed subtree file, without scheme and authority.
+     * @throws IOException if the file system of the output cannot be resolved.
+     */
+    public static String getCommittedSubtreePath(TaskInputOutputContext<?, ?, ?, ?> context, int partition)
+            throws IOException {
+        Path file = new Path(getOutputPath(context), subtreeFileName(context, partition));
+        FileSystem fs = file.getFileSystem(context.getConfiguration());
+        return fs.makeQualified(file).toUri().getPath();
+    }
+
+    /**
+     * Names a subtree file relative to the output directory. One reducer may receive several partitions,
+     * so the partition is part of the path.
+     */
+    private static String subtreeFileName(TaskAttemptContext context, int partition) {
+        return TREE_DIRECTORY + Path.SEPARATOR + partition + Path.SEPARATOR + getUniqueFile(context, "tree", TREE_EXTENSION);
+    }
+
+    /**
+     * Writes each metadata record as a JSON object on its own line, in the layout of the entries of the
+     * metadata file, with the Bloom filter last.
+     */
+    private static class MetadataRecordWriter extends RecordWriter<NullWritable, SubtreeMetadata> {
+        private final Writer out;
+
+        MetadataRecordWriter(FSDataOutputStream out) {
+            this.out = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(NullWritable key, SubtreeMetadata metadata) throws IOException {
+            out.write("{\"partition_key\": " + quote(metadata.getPartitionKey()));
+            out.write(", \"path\": " + quote(metadata.getPath()));
+            out.write(", \"min_value\": " + metadata.getMinValue());
+            out.write(", \"max_value\": " + metadata.getMaxValue());
+            out.write(", \"height\": " + metadata.getHeight());
+            out.write(", \"elements\": " + metadata.getElements());
+            if (metadata.getBloomFilter() != null) {
+                out.write(", \"bloom_filter\": " + quote(metadata.getBloomFilter()));
+            }
+            out.write("}\n");
+        }
+
+        @Override
+        public void close(TaskAttemptContext context) throws IOException {
+            out.close();
+        }
+
+        private static String quote(String value) {
+            return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        }
+    }
+}
@@ -1,21 +1,20 @@
 package org.bptree.hadoop.reducer;
 
-import org.apache.hadoop.io.IntWritable;
-import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.VIntWritable;
 import org.apache.hadoop.mapreduce.Reducer;
 import org.apache.hadoop.fs.FSDataOutputStream;
-import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.conf.Configuration;
-import org.bptree.BPlusTree;
+import org.bptree.IntBPlusTreeCodec;
+import org.bptree.hadoop.common.Constant;
+import org.bptree.hadoop.models.PartitionValueWritable;
+import org.bptree.hadoop.models.SubtreeMetadata;
+import org.bptree.hadoop.output.SubtreeOutputFormat;
+import org.bptree.utils.BloomFilter;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.ExecutionException;
+import java.util.Base64;
 
 /**
  * BPlusTreeReducer is a custom Reducer class that constructs B+ Trees
@@ -25,91 +24,86 @@ public class BPlusTreeReducer {
 
     /**
      * ReducePhase class builds B+ Trees for each partition key without further splitting.
+     * <p>
+     * The shuffle delivers the data items of a partition in ascending order, so they are streamed into
+     * the tree file as they arrive and finished nodes are written right away. Memory use does not grow
+     * with the size of the partition, apart from the Bloom filter. The filter is sized up front for
+     * several times the expected number of elements per partition and folded down to the actual number
+     * once the partition is complete, so partitions that outgrow the estimate still get the configured
+     * false-positive rate.
+     * <p>
+     * Subtrees and their metadata go through {@link SubtreeOutputFormat}, so only the committed
+     * attempt of a task leaves files behind.
      */
-    public static class ReducePhase extends Reducer<Text, IntWritable, Text, Text> {
+    public static class ReducePhase extends Reducer<PartitionValueWritable, VIntWritable, NullWritable, SubtreeMetadata> {
 
         private static final int B_PLUS_TREE_ORDER = 100; // Order of the B+ Tree
+        private static final int WRITE_BUFFER_SIZE = 1 << 16; // Buffer size for streaming the tree to HDFS
+        private static final int BLOOM_HEADROOM = 8; // How far a partition may outgrow the estimate at the configured rate
 
         /**
-         * Processes each partition key and its associated values to build a B+ Tree.
+         * Processes each partition and its sorted data items to build a B+ Tree.
          *
-         * @param key     the partition key.
-         * @param values  the list of values associated with this partition key.
+         * @param key     the partition and, while iterating the values, the current data item.
+         * @param values  the occurrence count of each data item, in ascending order of the items.
          * @param context the Hadoop Context for writing results and tracking job progress.
          */
         @Override
-        public void reduce(Text key, Iterable<IntWritable> values, Context context) throws IOException, InterruptedException {
-            List<Integer> valueList = new ArrayList<>();
-            for (IntWritable value : values) {
-                valueList.add(value.get());
-            }
-
-            if (valueList.isEmpty()) {
-                System.err.println("No values for key: " + key.toString());
-                return;
-            }
+        public void reduce(PartitionValueWritable key, Iterable<VIntWritable> values, Context context) throws IOException, InterruptedException {
+            int partition = key.getPartition();
 
-            // Initialize and build the B+ Tree with data
-            BPlusTree<Integer> bPlusTree = new BPlusTree<>(B_PLUS_TREE_ORDER);
-            try {
-                bPlusTree.bottom_up_method(valueList);
-            } catch (ExecutionException e) {
-                System.err.println("Error building B+ Tree for key: " + key.toString() + " - " + e.getMessage());
-                throw new RuntimeException("Failed to build B+ Tree", e);
-            }
+            // Size the Bloom filter from the driver's estimate with headroom, since the element count is only
+            // known at the end, and fold it down to the actual count then
+            Configuration conf = context.getConfiguration();
+            double falsePositiveRate = conf.getDouble(Constant.BLOOM_FALSE_POSITIVE_RATE,
+                    Constant.DEFAULT_BLOOM_FALSE_POSITIVE_RATE);
+            long expectedElements = conf.getLong(Constant.PARTITION_EXPECTED_ELEMENTS,
+                    Constant.DEFAULT_PARTITION_EXPECTED_ELEMENTS);
+            BloomFilter bloomFilter = BloomFilter.foldable(expectedElements * BLOOM_HEADROOM, falsePositiveRate);
 
-            // Calculate min and max values from valueList
-            int minValue = valueList.stream().min(Integer::compareTo).orElse(Integer.MIN_VALUE);
-            int maxValue = valueList.stream().max(Integer::compareTo).orElse(Integer.MAX_VALUE);
+            // The subtree is written to the attempt's work directory and reaches this path on commit
+            String path = SubtreeOutputFormat.getCommittedSubtreePath(context, partition);
 
-            // Serialize B+ Tree
-            byte[] serializedTree;
-            try {
-                serializedTree = serializeBPlusTree(bPlusTree);
+            int count = 0;
+            int distinct = 0;
+            int minValue = 0;
+            int maxValue = 0;
+            int height;
+            try (FSDataOutputStream outputStream = SubtreeOutputFormat.createSubtreeFile(context, partition);
+                 BufferedOutputStream bufferedStream = new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE)) {
+                IntBPlusTreeCodec.StreamWriter writer = IntBPlusTreeCodec.streamWriter(B_PLUS_TREE_ORDER, bufferedStream);
+                for (VIntWritable occurrences : values) {
+                    // Hadoop refreshes the key with the data item of each value
+                    int value = key.getValue();
+                    if (count == 0) {
+                        minValue = value;
+                    }
+                    maxValue = value;
+                    for (int i = 0; i < occurrences.get(); i++) {
+                        writer.add(value);
+                    }
+                    count += occurrences.get();
+                    distinct++;
+                    bloomFilter.add(value);
+                }
+                writer.finish();
+                height = writer.getHeight();
             } catch (IOException e) {
-                System.err.println("Serialization failed for B+ Tree with key: " + key.toString() + " - " + e.getMessage());
-                e.printStackTrace();
-                throw new IOException("Failed to serialize B+ Tree for key: " + key.toString(), e);
-            }
-
-            // Define path for HDFS storage
-            String path = "/listTree/" + key.toString() + "/tree_serialized_" + UUID.randomUUID();
-
-            // Save serialized B+ Tree to HDFS
-            Configuration conf = context.getConfiguration();
-            FileSystem fs = FileSystem.get(conf);
-            try (FSDataOutputStream outputStream = fs.create(new Path(path))) {
-                outputStream.write(serializedTree);
-            } catch (IOException e) {
-                System.err.println("Failed to write B+ Tree to HDFS for key: " + key.toString() + " - " + e.getMessage());
+                System.err.println("Failed to write B+ Tree to HDFS for key: " + partition + " - " + e.getMessage());
                 e.printStackTrace();
                 throw new IOException("Failed to write serialized B+ Tree to HDFS", e);
             }
 
-            // Write metadata with min/max values to context
-            context.write(new Text("B+ Tree stored for key " + key.toString()),
-                    new Text("Path: " + path + ", Min: " + minValue + ", Max: " + maxValue +
-                            ", Height: " + bPlusTree.getHeight() + ", Elements: " + valueList.size()));
-        }
-
-        /**
-         * Serializes a B+ Tree to a byte array.
-         *
-         * @param bPlusTree the B+ Tree to serialize.
-         * @return a byte array representing the serialized B+ Tree.
-         * @throws IOException if an I/O error occurs
-         */
-        private byte[] serializeBPlusTree(BPlusTree<Integer> bPlusTree) throws IOException {
-            try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                 ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
-                objectOutputStream.writeObject(bPlusTree);
-                objectOutputStream.flush();
-                return byteArrayOutputStream.toByteArray();
-            } catch (IOException e) {
-                System.err.println("Error serializing B+ Tree: " + e.getMessage());
-                e.printStackTrace();
-                throw new IOException("Failed to serialize B+ Tree", e);
+            bloomFilter = bloomFilter.fold(distinct, falsePositiveRate);
+            if (bloomFilter.expectedFalsePositiveRate(distinct) > falsePositiveRate) {
+                System.err.println("Bloom filter of partition " + partition + " exceeds the false-positive rate "
+                        + falsePositiveRate + ": " + distinct + " elements, " + expectedElements + " expected.");
             }
+
+            // Write metadata with min/max values and the Base64 encoded Bloom filter to context
+            SubtreeMetadata metadata = new SubtreeMetadata(String.valueOf(partition), path, minValue, maxValue, height, count);
+            metadata.setBloomFilter(Base64.getEncoder().encodeToString(bloomFilter.toByteArray()));
+            context.write(NullWritable.get(), metadata);
         }
     }
 }
@@ -5,17 +5,17 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.sql.SparkSession;
-import org.bptree.BPlusTree;
+import org.bptree.IntBPlusTree;
+import org.bptree.IntBPlusTreeCodec;
 import org.bptree.hadoop.models.SubtreeMetadata;
 import org.bptree.hadoop.utils.MetadataReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.io.OutputStream;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 public class MetadataSearcher {
@@ -55,11 +55,18 @@ public class MetadataSearcher {
                     .collect(Collectors.toList());
             logger.info("Matched Subtrees: {}", matchedSubtrees);
 
+            // Skip subtrees whose Bloom filter rules the key out, before any subtree is read from HDFS
+            List<SubtreeMetadata> candidateSubtrees = matchedSubtrees.stream()
+                    .filter(metadata -> metadata.mightContain(searchKey))
+                    .collect(Collectors.toList());
+            logger.info("Bloom filters skipped {} of {} matched subtrees.",
+                    matchedSubtrees.size() - candidateSubtrees.size(), matchedSubtrees.size());
+
             // Search in each subtree
             boolean isFound = false;
-            for (SubtreeMetadata subtreeMetadata : matchedSubtrees) {
+            for (SubtreeMetadata subtreeMetadata : candidateSubtrees) {
                 logger.info("Searching in subtree: {}", subtreeMetadata.getPath());
-                BPlusTree<Integer> subtree = readSubtreeFromHDFS(subtreeMetadata.getPath());
+                IntBPlusTree subtree = readSubtreeFromHDFS(subtreeMetadata.getPath());
                 isFound = searchInSubtree(subtree, searchKey);
                 if (isFound) {
                     logger.info("Search key {} found in subtree: {}", searchKey, subtreeMetadata.getPath());
@@ -87,7 +94,7 @@ public class MetadataSearcher {
     }
 
 
-    private static BPlusTree<Integer> readSubtreeFromHDFS(String path) throws Exception {
+    private static IntBPlusTree readSubtreeFromHDFS(String path) throws Exception {
         Configuration conf = new Configuration();
         FileSystem fs = FileSystem.get(conf);
         Path hdfsPath = new Path(path);
@@ -96,22 +103,13 @@ public class MetadataSearcher {
             throw new Exception("Subtree file not found at: " + path);
         }
 
-        try (InputStream in = fs.open(hdfsPath);
-             ObjectInputStream ois = new ObjectInputStream(in)) {
-            @SuppressWarnings("unchecked")
-            BPlusTree<Integer> subtree = (BPlusTree<Integer>) ois.readObject();
-            return subtree;
+        try (InputStream in = new BufferedInputStream(fs.open(hdfsPath))) {
+            return IntBPlusTreeCodec.read(in);
         }
     }
 
-    private static boolean searchInSubtree(BPlusTree<Integer> subtree, int searchKey) {
-        try {
-            return subtree.parallelSearch(searchKey);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
-        }
+    private static boolean searchInSubtree(IntBPlusTree subtree, int searchKey) {
+        return subtree.search(searchKey);
     }
 
     private static void saveSearchResult(boolean isFound, List<SubtreeMetadata> matchedSubtrees, int searchKey, long executionTime, String outputPath) throws Exception {
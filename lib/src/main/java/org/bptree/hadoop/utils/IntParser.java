@@ -0,0 +1,65 @@
+package org.bptree.hadoop.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * IntParser reads decimal integers straight from the UTF-8 bytes of an input line, so the mapper does not
+ * have to decode each line into a String, trim it and parse it.
+ * <p>
+ * It accepts what {@code Integer.parseInt(line.trim())} accepts for ASCII input: leading and trailing
+ * characters up to the space, an optional sign and at least one digit, within the range of an {@code int}.
+ */
+public final class IntParser {
+
+    private IntParser() {
+    }
+
+    /**
+     * Parses an integer from a range of bytes.
+     *
+     * @param bytes  the bytes holding the line
+     * @param offset the index of the first byte of the line
+     * @param length the number of bytes in the line
+     * @return the parsed value
+     * @throws NumberFormatException if the line is not an integer in the range of an {@code int}
+     */
+    public static int parseInt(byte[] bytes, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && (bytes[start] & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (bytes[end - 1] & 0xff) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            throw invalid(bytes, offset, length);
+        }
+
+        boolean negative = bytes[start] == '-';
+        int i = negative || bytes[start] == '+' ? start + 1 : start;
+        if (i == end) {
+            throw invalid(bytes, offset, length);
+        }
+        // Accumulate negatively, since the magnitude of Integer.MIN_VALUE does not fit in an int
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multiplyLimit = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw invalid(bytes, offset, length);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalid(bytes, offset, length);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static NumberFormatException invalid(byte[] bytes, int offset, int length) {
+        return new NumberFormatException("For input string: \"" + new String(bytes, offset, length, StandardCharsets.UTF_8) + "\"");
+    }
+}
@@ -0,0 +1,153 @@
+package org.bptree.hadoop.utils;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PartitionSampler reads a sample of the integer values of the job input on the driver, from which balanced
+ * partition split points are computed before the job starts.
+ * <p>
+ * Instead of scanning the input, it seeks to evenly spaced offsets in every input file and reads the first complete
+ * line after each, so the cost depends on the sample size and not on the size of the input. Each file gets a share
+ * of the sample proportional to its length. The average length of the sampled lines also gives an estimate of the
+ * number of records in the input.
+ */
+public class PartitionSampler {
+    private static final int LINE_BUFFER_SIZE = 256;  // Read buffer for a single sampled line
+
+    /**
+     * Samples integer values from a file or from every visible file below a directory.
+     *
+     * @param fs         the FileSystem holding the input
+     * @param input      the input file or directory
+     * @param sampleSize the number of values to aim for
+     * @return the sampled values and the estimated record count
+     * @throws IOException if the input cannot be read
+     */
+    public static Sample sample(FileSystem fs, Path input, int sampleSize) throws IOException {
+        List<FileStatus> files = listInputFiles(fs, input);
+        long totalLength = 0;
+        for (FileStatus file : files) {
+            totalLength += file.getLen();
+        }
+
+        int[] sample = new int[Math.max(0, sampleSize)];
+        int count = 0;
+        long linesRead = 0;
+        long lineBytes = 0;  // Bytes of the sampled lines, line breaks included
+        StringBuilder line = new StringBuilder();
+        for (FileStatus file : files) {
+            if (file.getLen() == 0 || totalLength == 0) {
+                continue;
+            }
+            int samples = (int) Math.max(1, Math.round((double) sampleSize * file.getLen() / totalLength));
+            try (FSDataInputStream in = fs.open(file.getPath())) {
+                for (int i = 0; i < samples; i++) {
+                    long offset = file.getLen() * i / samples;
+                    in.seek(offset);
+                    InputStream lineIn = new BufferedInputStream(in, LINE_BUFFER_SIZE);
+                    if (offset > 0) {
+                        skipLine(lineIn);  // The offset most likely falls inside a line
+                    }
+                    int length = readLine(lineIn, line);
+                    if (length < 0) {
+                        continue;
+                    }
+                    linesRead++;
+                    lineBytes += length;
+                    try {
+                        int value = Integer.parseInt(line.toString().trim());
+                        if (count == sample.length) {
+                            sample = Arrays.copyOf(sample, Math.max(16, sample.length * 2));
+                        }
+                        sample[count++] = value;
+                    } catch (NumberFormatException e) {
+                        // The mapper skips such lines as well
+                    }
+                }
+            }
+        }
+        long estimatedRecords = lineBytes == 0 ? 0 : Math.round((double) totalLength * linesRead / lineBytes);
+        return new Sample(Arrays.copyOf(sample, count), estimatedRecords);
+    }
+
+    /**
+     * Lists the input files, skipping hidden files such as {@code _SUCCESS} like the input formats do.
+     */
+    private static List<FileStatus> listInputFiles(FileSystem fs, Path input) throws IOException {
+        List<FileStatus> files = new ArrayList<>();
+        FileStatus status = fs.getFileStatus(input);
+        if (status.isFile()) {
+            files.add(status);
+            return files;
+        }
+        RemoteIterator<LocatedFileStatus> iterator = fs.listFiles(input, true);
+        while (iterator.hasNext()) {
+            LocatedFileStatus file = iterator.next();
+            String name = file.getPath().getName();
+            if (!name.startsWith("_") && !name.startsWith(".")) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static void skipLine(InputStream in) throws IOException {
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            // Discard the rest of the line
+        }
+    }
+
+    /**
+     * Reads the next line into a builder.
+     *
+     * @return the number of bytes consumed, line break included, or -1 if the stream ended before the line started
+     */
+    private static int readLine(InputStream in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int b = in.read();
+        if (b == -1) {
+            return -1;
+        }
+        int length = 1;
+        while (b != -1 && b != '\n') {
+            line.append((char) b);
+            b = in.read();
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * The outcome of sampling: the sampled values and the estimated number of records in the whole input.
+     */
+    public static final class Sample {
+        private final int[] values;
+        private final long estimatedRecords;
+
+        Sample(int[] values, long estimatedRecords) {
+            this.values = values;
+            this.estimatedRecords = estimatedRecords;
+        }
+
+        public int[] getValues() {
+            return values;
+        }
+
+        public long getEstimatedRecords() {
+            return estimatedRecords;
+        }
+    }
+}
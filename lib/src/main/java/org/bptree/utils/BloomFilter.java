@@ -0,0 +1,214 @@
+package org.bptree.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A Bloom filter over {@code long} keys, used to rule out subtrees that cannot contain a key
+ * before any of their data is read.
+ * <p>
+ * The filter is sized from the expected number of keys and the accepted false-positive rate. Each key
+ * sets {@code k} bits chosen by double hashing of one 64-bit mix of the key, so adding and probing cost
+ * a single hash computation. {@link #mightContain(long)} never returns false for a key that was added.
+ * <p>
+ * When the number of keys is only estimated up front, {@link #foldable(long, double)} sizes a filter for the
+ * most keys that may arrive, and {@link #fold(long, double)} shrinks it to the number that actually did.
+ */
+public class BloomFilter {
+    private static final byte FORMAT_VERSION = 1;  // Leading byte of the serialized form
+    private static final int MAX_FOLDABLE_WORDS = 1 << 30;  // Largest power of two that fits a long array
+
+    private final long[] words;  // Bit array
+    private final long bitCount;  // Number of bits, a multiple of 64
+    private final int hashCount;  // Bits set per key
+
+    /**
+     * Constructs an empty BloomFilter sized for the given number of keys.
+     *
+     * @param expectedKeys      the number of keys that will be added, at least 1 is assumed
+     * @param falsePositiveRate the accepted probability of a false positive, between 0 and 1 exclusive
+     * @throws IllegalArgumentException if the false-positive rate is not between 0 and 1
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1.");
+        }
+        long keys = Math.max(1, expectedKeys);
+        long wordCount = Math.max(1, Math.min(Integer.MAX_VALUE - 8, optimalWordCount(keys, falsePositiveRate)));
+        this.words = new long[(int) wordCount];
+        this.bitCount = wordCount * 64;
+        this.hashCount = (int) Math.max(1, Math.min(30, Math.round((double) bitCount / keys * Math.log(2))));
+    }
+
+    /**
+     * Constructs an empty BloomFilter with room for up to {@code maxKeys} keys that can later be shrunk with
+     * {@link #fold(long, double)}. The bit count is a power of two, so halving it keeps every key that was added,
+     * and the hash count depends on the false-positive rate only, so it suits whatever size the filter ends at.
+     *
+     * @param maxKeys           the most keys that may be added, at least 1 is assumed
+     * @param falsePositiveRate the accepted probability of a false positive, between 0 and 1 exclusive
+     * @return the filter
+     * @throws IllegalArgumentException if the false-positive rate is not between 0 and 1
+     */
+    public static BloomFilter foldable(long maxKeys, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1.");
+        }
+        long wordCount = Math.min(MAX_FOLDABLE_WORDS, optimalWordCount(Math.max(1, maxKeys), falsePositiveRate));
+        int words = wordCount <= 1 ? 1 : Integer.highestOneBit((int) (wordCount - 1)) << 1;
+        int hashCount = (int) Math.max(1, Math.min(30, Math.round(-Math.log(falsePositiveRate) / Math.log(2))));
+        return new BloomFilter(new long[words], hashCount);
+    }
+
+    private BloomFilter(long[] words, int hashCount) {
+        this.words = words;
+        this.bitCount = (long) words.length * 64;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Adds a key to the filter.
+     *
+     * @param key the key to add
+     */
+    public void add(long key) {
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;  // Odd, so successive probes never repeat the same step
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a key may have been added.
+     *
+     * @param key the key to check
+     * @return false if the key was certainly never added, true if it may have been
+     */
+    public boolean mightContain(long key) {
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the smallest fold of this filter whose false-positive rate for the given number of keys stays
+     * within the accepted rate. Each fold halves the bit array by merging its upper half into the lower half.
+     *
+     * @param keys              the number of distinct keys that were added
+     * @param falsePositiveRate the accepted probability of a false positive
+     * @return the folded filter, or this filter if it cannot shrink
+     * @throws IllegalStateException if the bit count is not a power of two, as for filters not made by
+     *                               {@link #foldable(long, double)}
+     */
+    public BloomFilter fold(long keys, double falsePositiveRate) {
+        if (Integer.bitCount(words.length) != 1) {
+            throw new IllegalStateException("Only filters with a power-of-two bit count can be folded.");
+        }
+        int wordCount = words.length;
+        while (wordCount > 1 && falsePositiveRate(keys, wordCount / 2 * 64L) <= falsePositiveRate) {
+            wordCount /= 2;
+        }
+        if (wordCount == words.length) {
+            return this;
+        }
+        long[] folded = new long[wordCount];
+        for (int i = 0; i < words.length; i++) {
+            folded[i & (wordCount - 1)] |= words[i];
+        }
+        return new BloomFilter(folded, hashCount);
+    }
+
+    /**
+     * Estimates the false-positive rate of this filter once the given number of distinct keys was added.
+     *
+     * @param keys the number of distinct keys
+     * @return the expected probability of a false positive
+     */
+    public double expectedFalsePositiveRate(long keys) {
+        return falsePositiveRate(keys, bitCount);
+    }
+
+    private double falsePositiveRate(long keys, long bits) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * keys / bits), hashCount);
+    }
+
+    private static long optimalWordCount(long keys, double falsePositiveRate) {
+        double optimalBits = -keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        return (long) Math.ceil(optimalBits / 64);
+    }
+
+    /**
+     * Returns the number of bits in the filter.
+     *
+     * @return the bit count
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the number of bits set per key.
+     *
+     * @return the hash count
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Serializes the filter: a version byte, the hash count, the word count and the bit array.
+     *
+     * @return the serialized filter
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES * 2 + words.length * Long.BYTES);
+        buffer.put(FORMAT_VERSION).putInt(hashCount).putInt(words.length);
+        for (long word : words) {
+            buffer.putLong(word);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a filter written by {@link #toByteArray()}.
+     *
+     * @param bytes the serialized filter
+     * @return the filter
+     * @throws IllegalArgumentException if the bytes are not a serialized filter
+     */
+    public static BloomFilter fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < 1 + Integer.BYTES * 2 || buffer.get() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a serialized Bloom filter.");
+        }
+        int hashCount = buffer.getInt();
+        int wordCount = buffer.getInt();
+        if (hashCount < 1 || wordCount < 1 || buffer.remaining() != (long) wordCount * Long.BYTES) {
+            throw new IllegalArgumentException("Corrupt Bloom filter header.");
+        }
+        long[] words = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = buffer.getLong();
+        }
+        return new BloomFilter(words, hashCount);
+    }
+
+    /**
+     * Spreads the bits of a key over a 64-bit hash (the MurmurHash3 finalizer).
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,307 @@
+package org.bptree.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Sorts more {@code long} values than fit in memory.
+ * <p>
+ * Values are collected in a primitive buffer sized by the memory budget. Whenever it fills up, it is sorted
+ * and spilled to a temporary run file. {@link #sortedIterator()} then merges the runs with a k-way heap merge,
+ * reading each run through a fixed-size buffer; if there are more runs than the budget allows buffers for,
+ * they are first merged in passes into longer runs. The merged values are produced as a stream, so they can
+ * be fed straight into a bulk load such as
+ * {@link org.bptree.OffHeapLongBPlusTree#bottom_up_method(PrimitiveIterator.OfLong)} without ever holding
+ * the whole input. If everything fits into one buffer, nothing is written to disk.
+ * <p>
+ * Closing the sorter deletes its run files.
+ */
+public class ExternalSorter implements Closeable {
+    private static final int READ_BUFFER_SIZE = 1 << 16;  // Bytes buffered per run while merging
+    private static final int MIN_BUFFER_VALUES = 1024;  // Smallest in-memory run
+    private static final int MAX_FAN_IN = 1024;  // Upper bound of runs merged at once
+
+    private final File tempDirectory;  // Directory for run files, or null for the system default
+    private final int fanIn;  // Number of runs merged at once
+    private final List<File> runs = new ArrayList<>();  // Spilled run files, each sorted
+    private long[] buffer;  // Values not yet spilled
+    private int count;  // Number of values in the buffer
+    private boolean sorted;  // Whether values can no longer be added
+    private RunMerger merger;  // Final merge handed out by sortedIterator, if any
+
+    /**
+     * Constructs an ExternalSorter.
+     *
+     * @param memoryBudget  the number of bytes the sorter may use for buffers
+     * @param tempDirectory the directory for run files, or null for the system temporary directory
+     */
+    public ExternalSorter(long memoryBudget, File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        this.buffer = new long[(int) Math.max(MIN_BUFFER_VALUES, Math.min(Integer.MAX_VALUE - 8, memoryBudget / Long.BYTES))];
+        this.fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / READ_BUFFER_SIZE));
+    }
+
+    /**
+     * Adds a value, spilling a sorted run to disk when the buffer is full.
+     *
+     * @param value the value to add
+     * @throws IOException if a run cannot be written
+     * @throws IllegalStateException if the sorted output has already been requested
+     */
+    public void add(long value) throws IOException {
+        if (sorted) {
+            throw new IllegalStateException("Values cannot be added after sorting.");
+        }
+        if (count == buffer.length) {
+            spill();
+        }
+        buffer[count++] = value;
+    }
+
+    /**
+     * Adds all values of an iterator.
+     *
+     * @param values the values to add
+     * @throws IOException if a run cannot be written
+     */
+    public void addAll(PrimitiveIterator.OfLong values) throws IOException {
+        while (values.hasNext()) {
+            add(values.nextLong());
+        }
+    }
+
+    /**
+     * Returns the number of runs spilled to disk so far.
+     *
+     * @return the run count
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Returns all added values in ascending order. This can be called once; afterwards no values can be added.
+     * Read errors while iterating are thrown as {@link UncheckedIOException}.
+     *
+     * @return an iterator over the sorted values
+     * @throws IOException if runs cannot be written or merged
+     */
+    public PrimitiveIterator.OfLong sortedIterator() throws IOException {
+        if (sorted) {
+            throw new IllegalStateException("Sorted output has already been requested.");
+        }
+        sorted = true;
+
+        if (runs.isEmpty()) {
+            long[] values = buffer;
+            int size = count;
+            buffer = null;
+            Arrays.sort(values, 0, size);
+            return Arrays.stream(values, 0, size).iterator();
+        }
+
+        spill();
+        buffer = null;  // Hand the memory budget over to the read buffers
+        while (runs.size() > fanIn) {
+            List<File> merged = new ArrayList<>();
+            try {
+                mergePass(merged);
+            } catch (IOException e) {
+                runs.addAll(merged);  // Make sure close() deletes partial output too
+                throw e;
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+        merger = new RunMerger(runs);
+        return merger;
+    }
+
+    /**
+     * Merges groups of {@code fanIn} runs into longer runs, deleting the inputs of each group once it is merged.
+     *
+     * @param merged receives the merged run files
+     * @throws IOException if a run cannot be read or written
+     */
+    private void mergePass(List<File> merged) throws IOException {
+        for (int from = 0; from < runs.size(); from += fanIn) {
+            List<File> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+            File output = newRunFile();
+            merged.add(output);
+            try (RunMerger groupMerger = new RunMerger(group);
+                 DataOutputStream out = openRun(output)) {
+                while (groupMerger.hasNext()) {
+                    out.writeLong(groupMerger.nextLong());
+                }
+            }
+            for (File run : group) {
+                delete(run);
+            }
+        }
+    }
+
+    /**
+     * Deletes all run files.
+     */
+    @Override
+    public void close() {
+        if (merger != null) {
+            merger.close();
+        }
+        for (File run : runs) {
+            delete(run);
+        }
+        runs.clear();
+        buffer = null;
+    }
+
+    private void spill() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, count);
+        File run = newRunFile();
+        runs.add(run);
+        try (DataOutputStream out = openRun(run)) {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(buffer[i]);
+            }
+        }
+        count = 0;
+    }
+
+    private File newRunFile() throws IOException {
+        return File.createTempFile("bptree-run-", ".bin", tempDirectory);
+    }
+
+    private static DataOutputStream openRun(File run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), READ_BUFFER_SIZE));
+    }
+
+    private static void delete(File run) {
+        if (run.exists() && !run.delete()) {
+            System.err.println("Could not delete run file: " + run);
+        }
+    }
+
+    /**
+     * Merges sorted run files with a binary min-heap of run indexes ordered by their current values.
+     */
+    private static final class RunMerger implements PrimitiveIterator.OfLong, Closeable {
+        private final DataInputStream[] inputs;  // Open run readers
+        private final long[] heads;  // Current value of each run
+        private final int[] heap;  // Indexes of non-exhausted runs, ordered by head
+        private int heapSize;  // Number of non-exhausted runs
+
+        RunMerger(List<File> runs) throws IOException {
+            inputs = new DataInputStream[runs.size()];
+            heads = new long[runs.size()];
+            heap = new int[runs.size()];
+            try {
+                for (int i = 0; i < inputs.length; i++) {
+                    inputs[i] = new DataInputStream(new BufferedInputStream(new FileInputStream(runs.get(i)), READ_BUFFER_SIZE));
+                    if (advance(i)) {
+                        heap[heapSize++] = i;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return heapSize > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (heapSize == 0) {
+                throw new NoSuchElementException();
+            }
+            int run = heap[0];
+            long value = heads[run];
+            try {
+                if (!advance(run)) {
+                    heap[0] = heap[--heapSize];
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (heapSize > 0) {
+                siftDown(0);
+            }
+            if (heapSize == 0) {
+                close();
+            }
+            return value;
+        }
+
+        /**
+         * Reads the next value of a run into its head.
+         *
+         * @return false if the run is exhausted
+         */
+        private boolean advance(int run) throws IOException {
+            try {
+                heads[run] = inputs[run].readLong();
+                return true;
+            } catch (EOFException e) {
+                inputs[run].close();
+                inputs[run] = null;
+                return false;
+            }
+        }
+
+        private void siftDown(int index) {
+            int run = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heads[heap[child + 1]] < heads[heap[child]]) {
+                    child++;
+                }
+                if (heads[heap[child]] >= heads[run]) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = run;
+        }
+
+        @Override
+        public void close() {
+            for (int i = 0; i < inputs.length; i++) {
+                if (inputs[i] != null) {
+                    try {
+                        inputs[i].close();
+                    } catch (IOException e) {
+                        System.err.println("Could not close run file: " + e.getMessage());
+                    }
+                    inputs[i] = null;
+                }
+            }
+        }
+    }
+}
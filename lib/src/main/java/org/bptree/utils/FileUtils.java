@@ -3,15 +3,29 @@ package org.bptree.utils;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A utility class for file-related operations.
- * Provides reusable methods to read text and CSV files.
+ * Provides reusable methods to read text and CSV files, and to parse numeric CSV columns
+ * straight from memory-mapped bytes into primitive arrays.
  */
 public class FileUtils {
 
+    private static final int MIN_CHUNK_SIZE = 1 << 20;  // Smallest part of a file parsed by one task
+    private static final int MAX_CHUNK_SIZE = 1 << 28;  // Largest region mapped at once
+
     /**
      * Reads all lines from a text file and returns them as a list of strings.
      *
@@ -49,5 +63,280 @@ public class FileUtils {
         return data;
     }
 
+    /**
+     * Reads one column of a numeric CSV file into a {@code long[]}, in file order.
+     * <p>
+     * The file is memory-mapped and split into chunks at line boundaries, which are parsed in parallel.
+     * Digits are accumulated directly from the mapped bytes, so no line strings, field arrays or boxed values
+     * are created. Spaces, tabs and a trailing carriage return around a field are ignored, as are empty lines.
+     *
+     * @param filePath  the path to the CSV file
+     * @param delimiter the field delimiter, for example {@code ','}
+     * @param column    the zero-based index of the column to read
+     * @param hasHeader whether the first line is a header to skip
+     * @return the values of the column
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws NumberFormatException if a line has no such column or its field is not a valid long
+     */
+    public static long[] readLongColumn(String filePath, char delimiter, int column, boolean hasHeader) throws IOException {
+        List<long[]> parts = parseChunks(filePath, delimiter, column, hasHeader, false);
+        long[] result = new long[parts.stream().mapToInt(part -> (int) part[0]).sum()];
+        int offset = 0;
+        for (long[] part : parts) {
+            int count = (int) part[0];
+            System.arraycopy(part, 1, result, offset, count);
+            offset += count;
+        }
+        return result;
+    }
+
+    /**
+     * Reads one column of a numeric CSV file into an {@code int[]}, in file order.
+     * Works like {@link #readLongColumn(String, char, int, boolean)}.
+     *
+     * @param filePath  the path to the CSV file
+     * @param delimiter the field delimiter, for example {@code ','}
+     * @param column    the zero-based index of the column to read
+     * @param hasHeader whether the first line is a header to skip
+     * @return the values of the column
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws NumberFormatException if a line has no such column or its field is not a valid int
+     */
+    public static int[] readIntColumn(String filePath, char delimiter, int column, boolean hasHeader) throws IOException {
+        List<long[]> parts = parseChunks(filePath, delimiter, column, hasHeader, true);
+        int[] result = new int[parts.stream().mapToInt(part -> (int) part[0]).sum()];
+        int offset = 0;
+        for (long[] part : parts) {
+            int count = (int) part[0];
+            for (int i = 1; i <= count; i++) {
+                result[offset++] = (int) part[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses every line of a numeric CSV file and passes its fields to a callback, in file order.
+     * The file is memory-mapped chunk by chunk and the same {@code long[]} is reused for every row,
+     * so the callback must copy any values it keeps.
+     *
+     * @param filePath  the path to the CSV file
+     * @param delimiter the field delimiter, for example {@code ','}
+     * @param hasHeader whether the first line is a header to skip
+     * @param consumer  the callback receiving each row
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws NumberFormatException if a field is not a valid long
+     */
+    public static void forEachRow(String filePath, char delimiter, boolean hasHeader, RowConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, MAX_CHUNK_SIZE);
+            long[] row = new long[16];
+            for (int c = 0; c + 1 < bounds.length; c++) {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+                int position = hasHeader && c == 0 ? skipLine(bytes, 0) : 0;
+                while (position < bytes.limit()) {
+                    int end = lineEnd(bytes, position);
+                    int fieldCount = 0;
+                    if (!isBlank(bytes, position, end)) {
+                        for (int start = position; ; ) {
+                            int fieldEnd = fieldEnd(bytes, start, end, delimiter);
+                            if (fieldCount == row.length) {
+                                row = Arrays.copyOf(row, row.length * 2);
+                            }
+                            row[fieldCount++] = parseLong(bytes, start, fieldEnd);
+                            if (fieldEnd == end) {
+                                break;
+                            }
+                            start = fieldEnd + 1;
+                        }
+                        consumer.accept(row, fieldCount);
+                    }
+                    position = end + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the fields of one parsed CSV row.
+     */
+    public interface RowConsumer {
+        /**
+         * Accepts one row.
+         *
+         * @param fields     the parsed fields; only the first {@code fieldCount} entries are valid
+         * @param fieldCount the number of fields in the row
+         */
+        void accept(long[] fields, int fieldCount);
+    }
+
+    /**
+     * Parses one column of each chunk of a file in parallel.
+     *
+     * @return per chunk, an array holding the value count followed by the values
+     */
+    private static List<long[]> parseChunks(String filePath, char delimiter, int column, boolean hasHeader,
+                                            boolean intRange) throws IOException {
+        if (column < 0) {
+            throw new IllegalArgumentException("Column index must not be negative.");
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            int tasks = Runtime.getRuntime().availableProcessors() * 4;
+            long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, channel.size() / tasks));
+            long[] bounds = chunkBounds(channel, chunkSize);
+            return IntStream.range(0, bounds.length - 1).parallel()
+                    .mapToObj(c -> {
+                        try {
+                            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+                            return parseColumn(bytes, delimiter, column, hasHeader && c == 0, intRange);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses one column of every line in a mapped chunk.
+     *
+     * @return an array holding the value count followed by the values
+     */
+    private static long[] parseColumn(ByteBuffer bytes, char delimiter, int column, boolean skipFirstLine, boolean intRange) {
+        long[] values = new long[1 + Math.max(16, Math.min(bytes.limit() / 8, 1 << 16))];
+        int count = 0;
+        int position = skipFirstLine ? skipLine(bytes, 0) : 0;
+        LongConsumer range = intRange ? FileUtils::checkIntRange : value -> { };
+        while (position < bytes.limit()) {
+            int end = lineEnd(bytes, position);
+            if (!isBlank(bytes, position, end)) {
+                int start = position;
+                for (int field = 0; field < column; field++) {
+                    start = fieldEnd(bytes, start, end, delimiter) + 1;
+                    if (start > end) {
+                        throw new NumberFormatException("Line has no column " + column + ".");
+                    }
+                }
+                long value = parseLong(bytes, start, fieldEnd(bytes, start, end, delimiter));
+                range.accept(value);
+                if (count + 1 == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[++count] = value;
+            }
+            position = end + 1;
+        }
+        values[0] = count;
+        return values;
+    }
+
+    private static void checkIntRange(long value) {
+        if (value != (int) value) {
+            throw new NumberFormatException("Value out of int range: " + value);
+        }
+    }
+
+    /**
+     * Splits a file into regions of about {@code chunkSize} bytes that start at line beginnings.
+     *
+     * @return the region offsets, starting with 0 and ending with the file size
+     */
+    private static long[] chunkBounds(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long next = chunkSize;
+        while (next < size) {
+            // Move the boundary just past the next line break
+            long boundary = size;
+            for (long position = next; position < size && boundary == size; position += probe.limit()) {
+                probe.clear();
+                if (channel.read(probe, position) <= 0) {
+                    break;
+                }
+                probe.flip();
+                for (int i = 0; i < probe.limit(); i++) {
+                    if (probe.get(i) == '\n') {
+                        boundary = position + i + 1;
+                        break;
+                    }
+                }
+            }
+            if (boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            next = boundary + chunkSize;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static int lineEnd(ByteBuffer bytes, int position) {
+        while (position < bytes.limit() && bytes.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipLine(ByteBuffer bytes, int position) {
+        return lineEnd(bytes, position) + 1;
+    }
+
+    private static int fieldEnd(ByteBuffer bytes, int position, int lineEnd, char delimiter) {
+        while (position < lineEnd && bytes.get(position) != delimiter) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isBlank(ByteBuffer bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isSpace(bytes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
 
+    /**
+     * Parses a decimal long from a byte range, ignoring surrounding whitespace.
+     * Digits are accumulated as a negative number, like {@link Long#parseLong(String)}, so the minimum value parses too.
+     */
+    private static long parseLong(ByteBuffer bytes, int from, int to) {
+        while (from < to && isSpace(bytes.get(from))) {
+            from++;
+        }
+        while (to > from && isSpace(bytes.get(to - 1))) {
+            to--;
+        }
+        boolean negative = false;
+        if (from < to && (bytes.get(from) == '-' || bytes.get(from) == '+')) {
+            negative = bytes.get(from) == '-';
+            from++;
+        }
+        if (from == to) {
+            throw new NumberFormatException("Empty numeric field.");
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid character in numeric field: " + (char) bytes.get(i));
+            }
+            if (result < (limit + digit) / 10) {
+                throw new NumberFormatException("Numeric field out of long range.");
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
 }
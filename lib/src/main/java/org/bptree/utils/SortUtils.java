@@ -1,30 +1,64 @@
 package org.bptree.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 /**
- * Utility class providing optimized multi-threaded merge sort.
+ * Utility class providing optimized multi-threaded sorting.
+ * Object lists are merge sorted with a single scratch buffer, and primitive arrays are radix sorted.
  */
 public class SortUtils {
 
     // ForkJoinPool to manage threads efficiently
     private static final ForkJoinPool FORK_JOIN_POOL = new ForkJoinPool();
 
+    private static final int RADIX_BITS = 8;  // Bits sorted per radix pass
+    private static final int RADIX_BUCKETS = 1 << RADIX_BITS;  // Buckets per radix pass
+    private static final int MIN_RADIX_LENGTH = 1 << 16;  // Shorter arrays are sorted with Arrays.sort
+    private static final int MIN_CHUNK_LENGTH = 1 << 16;  // Smallest part of an array handled by one task
+
     /**
      * Sorts a list of elements using an optimized multi-threaded merge sort.
+     * <p>
+     * The elements are copied into one array whose runs are sorted in parallel and then merged pairwise
+     * between that array and a single scratch array. Each pairwise merge is split into independent parts
+     * by co-ranking, so the final merges run in parallel too. The sort is stable, and the given list is
+     * left unchanged, so unmodifiable lists can be sorted as well.
      *
      * @param <T>  the type of elements in the list, must implement Comparable
      * @param data the list of elements to sort
-     * @return the sorted list
+     * @return a new list holding the elements in ascending order
      */
     public static <T extends Comparable<? super T>> List<T> mergeSort(List<T> data) {
-        int threshold = calculateThreshold(data.size(), Runtime.getRuntime().availableProcessors());
+        int length = data.size();
+        if (length < 2) {
+            return new ArrayList<>(data);
+        }
+        int threshold = calculateThreshold(length, Runtime.getRuntime().availableProcessors());
+
+        Object[] source = data.toArray();
+        int runs = (length + threshold - 1) / threshold;
+        parallelFor(runs, run -> Arrays.sort(source, run * threshold, Math.min(length, (run + 1) * threshold)));
+
+        Object[] target = new Object[length];
+        Object[] sorted = source;
+        // Widths are long, since doubling a width past 2^30 would overflow an int
+        for (long width = threshold; width < length; width *= 2) {
+            mergePass(sorted, target, (int) width);
+            Object[] swap = sorted;
+            sorted = target;
+            target = swap;
+        }
 
-        // Invoke the ForkJoinPool to perform merge sort
-        return FORK_JOIN_POOL.invoke(new MergeSortTask<>(data, threshold));
+        List<T> result = new ArrayList<>(length);
+        for (Object element : sorted) {
+            result.add(element(element));
+        }
+        return result;
     }
 
     /**
@@ -40,69 +74,282 @@ public class SortUtils {
     }
 
     /**
-     * A ForkJoinTask that performs optimized multi-threaded merge sort.
+     * Merges every pair of adjacent sorted runs of the given width from source into target.
+     * Long merges are cut into parts of about {@link #MIN_CHUNK_LENGTH} output elements that run in parallel.
      *
-     * @param <T> the type of elements to sort
+     * @param source the array holding sorted runs
+     * @param target the array receiving the merged runs
+     * @param width  the length of each sorted run
      */
-    private static class MergeSortTask<T extends Comparable<? super T>> extends RecursiveTask<List<T>> {
-        private final List<T> data;
-        private final int threshold;
+    private static void mergePass(Object[] source, Object[] target, int width) {
+        int length = source.length;
+        List<int[]> parts = new ArrayList<>();  // {leftFrom, rightFrom, rightTo, outputFrom, outputTo}
+        for (long start = 0; start < length; start += 2L * width) {
+            int from = (int) start;
+            int middle = (int) Math.min(start + width, length);
+            int to = (int) Math.min(start + 2L * width, length);
+            int pieces = Math.max(1, (to - from) / MIN_CHUNK_LENGTH);
+            for (int p = 0; p < pieces; p++) {
+                parts.add(new int[]{from, middle, to,
+                        from + (int) ((long) p * (to - from) / pieces),
+                        from + (int) ((long) (p + 1) * (to - from) / pieces)});
+            }
+        }
 
-        MergeSortTask(List<T> data, int threshold) {
-            this.data = data;
-            this.threshold = threshold;
+        parallelFor(parts.size(), index -> {
+            int[] part = parts.get(index);
+            int from = part[0];
+            int middle = part[1];
+            int to = part[2];
+            int outputFrom = part[3];
+            int outputTo = part[4];
+
+            int leftFrom = from + coRank(source, from, middle, middle, to, outputFrom - from);
+            int leftTo = from + coRank(source, from, middle, middle, to, outputTo - from);
+            int rightFrom = middle + (outputFrom - from) - (leftFrom - from);
+            int rightTo = middle + (outputTo - from) - (leftTo - from);
+            merge(source, leftFrom, leftTo, rightFrom, rightTo, target, outputFrom);
+        });
+    }
+
+    /**
+     * Finds how many of the first {@code rank} elements of the stable merge of two sorted ranges
+     * come from the left range. Equal elements are taken from the left range first.
+     *
+     * @param data       the array holding both ranges
+     * @param leftFrom   the start of the left range, inclusive
+     * @param leftTo     the end of the left range, exclusive
+     * @param rightFrom  the start of the right range, inclusive
+     * @param rightTo    the end of the right range, exclusive
+     * @param rank       the number of merged elements
+     * @return the number of those elements taken from the left range
+     */
+    private static int coRank(Object[] data, int leftFrom, int leftTo, int rightFrom, int rightTo, int rank) {
+        int low = Math.max(0, rank - (rightTo - rightFrom));
+        int high = Math.min(rank, leftTo - leftFrom);
+        while (low < high) {
+            int fromLeft = (low + high) >>> 1;
+            int fromRight = rank - fromLeft;
+            if (compare(data[leftFrom + fromLeft], data[rightFrom + fromRight - 1]) <= 0) {
+                low = fromLeft + 1;
+            } else {
+                high = fromLeft;
+            }
         }
+        return low;
+    }
 
-        @Override
-        protected List<T> compute() {
-            if (data.size() <= threshold) {
-                data.sort(Comparable::compareTo);  // Sort sequentially
-                return data;
+    /**
+     * Merges two sorted ranges into the target array, taking equal elements from the left range first.
+     *
+     * @param source     the array holding both ranges
+     * @param leftFrom   the start of the left range, inclusive
+     * @param leftTo     the end of the left range, exclusive
+     * @param rightFrom  the start of the right range, inclusive
+     * @param rightTo    the end of the right range, exclusive
+     * @param target     the array receiving the merged elements
+     * @param targetFrom the first index to write in the target array
+     */
+    private static void merge(Object[] source, int leftFrom, int leftTo, int rightFrom, int rightTo,
+                              Object[] target, int targetFrom) {
+        int i = leftFrom, j = rightFrom, k = targetFrom;
+
+        while (i < leftTo && j < rightTo) {
+            if (compare(source[i], source[j]) <= 0) {
+                target[k++] = source[i++];
+            } else {
+                target[k++] = source[j++];
             }
+        }
+
+        while (i < leftTo) {
+            target[k++] = source[i++];
+        }
 
-            int mid = data.size() / 2;
-            List<T> left = data.subList(0, mid);
-            List<T> right = data.subList(mid, data.size());
+        while (j < rightTo) {
+            target[k++] = source[j++];
+        }
+    }
 
-            MergeSortTask<T> leftTask = new MergeSortTask<>(new ArrayList<>(left), threshold);
-            MergeSortTask<T> rightTask = new MergeSortTask<>(new ArrayList<>(right), threshold);
+    /**
+     * Sorts an array of ints in ascending order.
+     * <p>
+     * Large arrays are sorted with a parallel LSD radix sort over 8-bit digits: each pass counts the digits
+     * of independent chunks in parallel, turns the counts into per-chunk bucket offsets and scatters the
+     * chunks in parallel into one scratch array, alternating between the two. Passes in which every element
+     * has the same digit are skipped. Small arrays are sorted with {@link Arrays#sort(int[])}.
+     *
+     * @param data the array to sort
+     */
+    public static void radixSort(int[] data) {
+        int length = data.length;
+        if (length < MIN_RADIX_LENGTH) {
+            Arrays.sort(data);
+            return;
+        }
+
+        int chunks = chunkCount(length);
+        int[] source = data;
+        int[] target = new int[length];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            int digitShift = shift;
+            int[] from = source;
+            int[][] offsets = new int[chunks][RADIX_BUCKETS];
 
-            leftTask.fork();  // Execute left task asynchronously
-            List<T> sortedRight = rightTask.compute();  // Compute right task in the current thread
-            List<T> sortedLeft = leftTask.join();  // Wait for the left task to complete
+            // Flipping the sign bit orders negative values before positive ones
+            parallelFor(chunks, chunk -> {
+                int[] counts = offsets[chunk];
+                for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++) {
+                    counts[((from[i] ^ Integer.MIN_VALUE) >>> digitShift) & (RADIX_BUCKETS - 1)]++;
+                }
+            });
+            if (!toOffsets(offsets, length)) {
+                continue;
+            }
 
-            return merge(sortedLeft, sortedRight);
+            int[] to = target;
+            parallelFor(chunks, chunk -> {
+                int[] next = offsets[chunk];
+                for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++) {
+                    to[next[((from[i] ^ Integer.MIN_VALUE) >>> digitShift) & (RADIX_BUCKETS - 1)]++] = from[i];
+                }
+            });
+            target = source;
+            source = to;
+        }
+
+        if (source != data) {
+            System.arraycopy(source, 0, data, 0, length);
         }
     }
 
     /**
-     * Merges two sorted lists into one sorted list.
+     * Sorts an array of longs in ascending order.
+     * Works like {@link #radixSort(int[])}, with eight 8-bit passes instead of four.
      *
-     * @param <T>   the type of elements to merge
-     * @param left  the first sorted list
-     * @param right the second sorted list
-     * @return the merged sorted list
+     * @param data the array to sort
      */
-    private static <T extends Comparable<? super T>> List<T> merge(List<T> left, List<T> right) {
-        List<T> result = new ArrayList<>(left.size() + right.size());
-        int i = 0, j = 0;
+    public static void radixSort(long[] data) {
+        int length = data.length;
+        if (length < MIN_RADIX_LENGTH) {
+            Arrays.sort(data);
+            return;
+        }
 
-        while (i < left.size() && j < right.size()) {
-            if (left.get(i).compareTo(right.get(j)) <= 0) {
-                result.add(left.get(i++));
-            } else {
-                result.add(right.get(j++));
+        int chunks = chunkCount(length);
+        long[] source = data;
+        long[] target = new long[length];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            int digitShift = shift;
+            long[] from = source;
+            int[][] offsets = new int[chunks][RADIX_BUCKETS];
+
+            // Flipping the sign bit orders negative values before positive ones
+            parallelFor(chunks, chunk -> {
+                int[] counts = offsets[chunk];
+                for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++) {
+                    counts[(int) ((from[i] ^ Long.MIN_VALUE) >>> digitShift) & (RADIX_BUCKETS - 1)]++;
+                }
+            });
+            if (!toOffsets(offsets, length)) {
+                continue;
             }
+
+            long[] to = target;
+            parallelFor(chunks, chunk -> {
+                int[] next = offsets[chunk];
+                for (int i = chunkStart(chunk, chunks, length), end = chunkStart(chunk + 1, chunks, length); i < end; i++) {
+                    to[next[(int) ((from[i] ^ Long.MIN_VALUE) >>> digitShift) & (RADIX_BUCKETS - 1)]++] = from[i];
+                }
+            });
+            target = source;
+            source = to;
         }
 
-        while (i < left.size()) {
-            result.add(left.get(i++));
+        if (source != data) {
+            System.arraycopy(source, 0, data, 0, length);
         }
+    }
 
-        while (j < right.size()) {
-            result.add(right.get(j++));
+    /**
+     * Turns per-chunk digit counts into the index where each chunk writes its first element of each digit.
+     * Buckets are laid out by digit, and within a digit by chunk, which keeps the sort stable.
+     *
+     * @param counts the digit counts of each chunk, replaced by the offsets
+     * @param length the total number of elements
+     * @return false if all elements share one digit, so the pass can be skipped
+     */
+    private static boolean toOffsets(int[][] counts, int length) {
+        int offset = 0;
+        for (int digit = 0; digit < RADIX_BUCKETS; digit++) {
+            int digitTotal = 0;
+            for (int[] chunkCounts : counts) {
+                int count = chunkCounts[digit];
+                chunkCounts[digit] = offset + digitTotal;
+                digitTotal += count;
+            }
+            if (digitTotal == length) {
+                return false;
+            }
+            offset += digitTotal;
         }
+        return true;
+    }
 
-        return result;
+    private static int chunkCount(int length) {
+        return Math.max(1, Math.min(FORK_JOIN_POOL.getParallelism() * 4, length / MIN_CHUNK_LENGTH));
+    }
+
+    private static int chunkStart(int chunk, int chunks, int length) {
+        return (int) ((long) chunk * length / chunks);
+    }
+
+    /**
+     * Runs a body for every index in {@code [0, count)} on the fork-join pool, splitting the range in halves.
+     *
+     * @param count the number of indexes
+     * @param body  the work for one index
+     */
+    private static void parallelFor(int count, IntConsumer body) {
+        if (count == 1) {
+            body.accept(0);
+        } else if (count > 1) {
+            FORK_JOIN_POOL.invoke(new RangeAction(0, count, body));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object left, Object right) {
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T element(Object element) {
+        return (T) element;
+    }
+
+    /**
+     * A ForkJoinTask that runs a body for each index of a range, forking one half and running the other.
+     */
+    private static class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        RangeAction(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, mid, body), new RangeAction(mid, to, body));
+        }
     }
 }
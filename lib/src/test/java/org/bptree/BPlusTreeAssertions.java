@@ -0,0 +1,63 @@
+package org.bptree;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Structural checks shared by the tests of {@link BPlusTree} and of the classes that build or update one.
+ */
+final class BPlusTreeAssertions {
+
+    private BPlusTreeAssertions() {
+    }
+
+    /**
+     * Verifies that all leaves are at the same depth, that every node but the root is at least half full and none
+     * overflows, that internal nodes have one key less than children, and that every key lies within the bounds
+     * given by the separators above it.
+     *
+     * @param root  the root node of the tree, or null for an empty tree
+     * @param order the order of the B+ Tree
+     * @param <K>   the type of the keys
+     * @return the height of the tree, 0 for an empty tree
+     */
+    static <K extends Comparable<? super K>> int assertBalanced(Node<K> root, int order) {
+        return root == null ? 0 : assertBalanced(root, root, order, null, null);
+    }
+
+    /**
+     * Verifies a subtree.
+     *
+     * @param low  the inclusive lower bound for keys in this subtree, or null
+     * @param high the exclusive upper bound for keys in this subtree, or null
+     * @return the depth of the leaves below this node
+     */
+    private static <K extends Comparable<? super K>> int assertBalanced(Node<K> node, Node<K> root, int order, K low, K high) {
+        for (K key : node.getKeys()) {
+            assertTrue(low == null || key.compareTo(low) >= 0, "Key " + key + " should not be below " + low + ".");
+            assertTrue(high == null || key.compareTo(high) < 0, "Key " + key + " should be below " + high + ".");
+        }
+        if (node.isLeaf()) {
+            assertTrue(node.getKeys().size() <= order - 1, "Leaf node should have at most " + (order - 1) + " keys.");
+            assertTrue(node == root || node.getKeys().size() >= order / 2, "Leaf node should be at least half full.");
+            return 1;
+        }
+
+        List<Node<K>> children = node.getChildren();
+        assertEquals(children.size() - 1, node.getKeys().size(), "Internal node should have one key less than children.");
+        assertTrue(children.size() <= order, "Internal node should have at most " + order + " children.");
+        assertTrue(node == root ? children.size() >= 2 : children.size() >= (order + 1) / 2,
+                "Internal node should be at least half full.");
+
+        int depth = -1;
+        for (int i = 0; i < children.size(); i++) {
+            K childLow = i == 0 ? low : node.getKeys().get(i - 1);
+            K childHigh = i == children.size() - 1 ? high : node.getKeys().get(i);
+            int childDepth = assertBalanced(children.get(i), root, order, childLow, childHigh);
+            assertTrue(depth == -1 || depth == childDepth, "All leaves should be at the same depth.");
+            depth = childDepth;
+        }
+        return depth + 1;
+    }
+}
@@ -0,0 +1,160 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.bptree.BPlusTreeAssertions.assertBalanced;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BPlusTreeBuilderTest {
+
+    /**
+     * Verifies that list and iterator inputs build balanced trees with the same keys, in parallel and inline.
+     */
+    @Test
+    public void testBuildFromListAndIterator() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int order = 3; order <= 64; order += 61) {
+                for (int keyCount : new int[]{1, 2, order, 10 * order + 1, 200_000}) {
+                    List<Integer> keys = new ArrayList<>();
+                    for (int i = 0; i < keyCount; i++) {
+                        keys.add(i * 2);
+                    }
+
+                    BPlusTree<Integer> fromList = new BPlusTreeBuilder<Integer>(order).executor(executor).build(keys);
+                    BPlusTree<Integer> fromIterator = new BPlusTreeBuilder<Integer>(order).build(keys.iterator());
+
+                    for (BPlusTree<Integer> tree : Arrays.asList(fromList, fromIterator)) {
+                        assertEquals(keyCount, tree.size(), "The size should match the number of keys.");
+                        assertBalanced(tree.getRoot(), order);
+                        assertEquals(keys, collectLeafKeys(tree.getRoot()), "The leaf chain should hold every key in order.");
+                        assertTrue(tree.search(keys.get(keyCount / 2)), "A stored key should be found.");
+                        assertFalse(tree.search(1), "A missing key should not be found.");
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that the fill factor leaves free slots in the leaves but never less than half of them,
+     * including low fill factors and key counts that do not divide evenly into leaves.
+     */
+    @Test
+    public void testFillFactor() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            keys.add(i);
+        }
+
+        BPlusTree<Integer> tree = new BPlusTreeBuilder<Integer>(11).fillFactor(0.7).build(keys);
+        for (Node<Integer> leaf = firstLeaf(tree.getRoot()); leaf != null; leaf = leaf.getNext()) {
+            assertTrue(leaf.getKeys().size() <= 7, "Leaves should be filled to at most 70% of 10 keys.");
+            assertTrue(leaf.getKeys().size() >= 5, "Leaves should be at least half full.");
+        }
+
+        int sizeBefore = countNodes(tree.getRoot());
+        tree.insert(10_000);
+        tree.insert(-1);
+        assertEquals(sizeBefore, countNodes(tree.getRoot()), "Inserts into leaves with free slots should not split.");
+
+        // Low fill factors round the leaf count up, which must not leave any leaf below half full
+        for (double fillFactor : new double[]{0.5, 0.6}) {
+            for (int order : new int[]{3, 4, 5, 11}) {
+                for (int keyCount : new int[]{1, 2, 3, 5, 7, 13, 101, 10_001}) {
+                    List<Integer> sortedKeys = keys.subList(0, Math.min(keyCount, keys.size()));
+                    if (keyCount > keys.size()) {
+                        sortedKeys = new ArrayList<>(keys);
+                        sortedKeys.add(10_000);
+                    }
+                    BPlusTree<Integer> fromList = new BPlusTreeBuilder<Integer>(order).fillFactor(fillFactor).build(sortedKeys);
+                    BPlusTree<Integer> fromIterator = new BPlusTreeBuilder<Integer>(order).fillFactor(fillFactor)
+                            .build(sortedKeys.iterator());
+                    for (BPlusTree<Integer> built : Arrays.asList(fromList, fromIterator)) {
+                        assertEquals(keyCount, built.size(), "The size should match the number of keys.");
+                        assertBalanced(built.getRoot(), order);
+                        assertEquals(sortedKeys, collectLeafKeys(built.getRoot()), "The leaf chain should hold every key in order.");
+                    }
+                }
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTreeBuilder<Integer>(4).fillFactor(0));
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTreeBuilder<Integer>(4).fillFactor(1.5));
+    }
+
+    /**
+     * Verifies that unsorted and empty inputs are rejected, and that validation can be turned off.
+     */
+    @Test
+    public void testValidation() throws Exception {
+        List<Integer> unsorted = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            unsorted.add(i);
+        }
+        unsorted.set(40_000, -1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new BPlusTreeBuilder<Integer>(8).executor(executor).build(unsorted));
+        } finally {
+            executor.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTreeBuilder<Integer>(8).build(unsorted.iterator()));
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTreeBuilder<Integer>(8).build(new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BPlusTreeBuilder<Integer>(8).build(new ArrayList<Integer>().iterator()));
+
+        BPlusTree<Integer> tree = new BPlusTreeBuilder<Integer>(8).validateSorted(false).build(unsorted);
+        assertEquals(unsorted.size(), tree.size(), "Unvalidated input should be loaded as given.");
+    }
+
+    /**
+     * Verifies that bottom_up_method loads through the builder, including its order validation.
+     */
+    @Test
+    public void testBottomUpMethodUsesBuilder() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            keys.add(i);
+        }
+        BPlusTree<Integer> tree = new BPlusTree<>(5);
+        tree.bottom_up_method(keys);
+
+        assertBalanced(tree.getRoot(), 5);
+        assertEquals(keys, collectLeafKeys(tree.getRoot()), "The leaf chain should hold every key in order.");
+        assertThrows(IllegalArgumentException.class, () -> tree.bottom_up_method(Arrays.asList(2, 1)));
+    }
+
+    private static Node<Integer> firstLeaf(Node<Integer> node) {
+        while (!node.isLeaf()) {
+            node = node.getChildren().get(0);
+        }
+        return node;
+    }
+
+    private static List<Integer> collectLeafKeys(Node<Integer> root) {
+        List<Integer> keys = new ArrayList<>();
+        for (Node<Integer> leaf = firstLeaf(root); leaf != null; leaf = leaf.getNext()) {
+            keys.addAll(leaf.getKeys());
+        }
+        return keys;
+    }
+
+    private static int countNodes(Node<Integer> node) {
+        int count = 1;
+        for (Node<Integer> child : node.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BPlusTreeMapTest {
+
+    /**
+     * Tests that lookups return the value stored next to each bulk-loaded key.
+     */
+    @Test
+    public void testBottomUpAndGet() {
+        List<Long> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            keys.add(i * 3);
+            values.add("row-" + i);
+        }
+        BPlusTreeMap<Long, String> map = new BPlusTreeMap<>(6);
+        map.bottom_up_method(keys, values);
+
+        assertEquals(500, map.size(), "The map should contain 500 entries.");
+        for (long i = 0; i < 500; i++) {
+            assertEquals("row-" + i, map.get(i * 3), "Key " + (i * 3) + " should map to its row.");
+            assertNull(map.get(i * 3 + 1), "Absent keys should map to null.");
+        }
+        assertTrue(map.containsKey(0L), "Key 0 should be present.");
+        assertFalse(map.containsKey(-3L), "Key -3 should not be present.");
+    }
+
+    /**
+     * Tests random puts and replacements against a reference map, including the entry iteration order.
+     */
+    @Test
+    public void testPutAgainstReference() {
+        BPlusTreeMap<Integer, Integer> map = new BPlusTreeMap<>(4);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(1000);
+            assertEquals(expected.put(key, i), map.put(key, i), "Put of " + key + " should return the previous value.");
+        }
+
+        assertEquals(expected.size(), map.size(), "The size should match the reference map.");
+        Iterator<Map.Entry<Integer, Integer>> iterator = map.entryIterator();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertTrue(iterator.hasNext(), "The iterator should not end early.");
+            assertEquals(entry, iterator.next(), "Entries should come in key order.");
+        }
+        assertFalse(iterator.hasNext(), "The iterator should end with the last entry.");
+    }
+
+    /**
+     * Tests that range scans yield the entries between both inclusive bounds.
+     */
+    @Test
+    public void testRange() {
+        BPlusTreeMap<Integer, String> map = new BPlusTreeMap<>(3);
+        for (int i = 0; i < 100; i += 5) {
+            map.put(i, Integer.toString(i));
+        }
+
+        List<String> values = new ArrayList<>();
+        for (Iterator<Map.Entry<Integer, String>> it = map.range(10, 31); it.hasNext(); ) {
+            Map.Entry<Integer, String> entry = it.next();
+            assertEquals(entry.getKey().toString(), entry.getValue(), "Each entry should carry its own value.");
+            values.add(entry.getValue());
+        }
+        assertEquals(Arrays.asList("10", "15", "20", "25", "30"), values, "Range [10, 31] should match.");
+        assertFalse(map.range(96, 200).hasNext(), "A range above the maximum should be empty.");
+    }
+}
@@ -0,0 +1,92 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BPlusTreeRangeTest {
+
+    private BPlusTree<Integer> buildTree(int order, int count, int step) throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(i * step);
+        }
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(order);
+        bPlusTree.bottom_up_method(keys);
+        return bPlusTree;
+    }
+
+    private List<Integer> drain(Iterator<Integer> iterator) {
+        List<Integer> keys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next());
+        }
+        return keys;
+    }
+
+    /**
+     * Tests inclusive range bounds that fall on, between and outside stored keys.
+     */
+    @Test
+    public void testRange() throws Exception {
+        BPlusTree<Integer> bPlusTree = buildTree(4, 100, 2);
+
+        for (int lo = -3; lo < 205; lo++) {
+            for (int hi = lo; hi < lo + 12; hi++) {
+                List<Integer> expected = new ArrayList<>();
+                for (int key = Math.max(0, lo); key <= Math.min(hi, 198); key++) {
+                    if (key % 2 == 0) {
+                        expected.add(key);
+                    }
+                }
+                assertEquals(expected, drain(bPlusTree.range(lo, hi)), "Range [" + lo + ", " + hi + "] should match.");
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> bPlusTree.range(5, 4));
+    }
+
+    /**
+     * Tests that tail iteration starts at the first key not below the bound and runs to the end.
+     */
+    @Test
+    public void testTailFrom() throws Exception {
+        BPlusTree<Integer> bPlusTree = buildTree(5, 50, 1);
+
+        assertEquals(50, drain(bPlusTree.tailFrom(-10)).size(), "A bound below the minimum should return every key.");
+        assertEquals(10, drain(bPlusTree.tailFrom(40)).size(), "Keys 40 to 49 should be returned.");
+        assertTrue(drain(bPlusTree.tailFrom(50)).isEmpty(), "A bound above the maximum should return nothing.");
+
+        Iterator<Integer> empty = bPlusTree.tailFrom(100);
+        assertThrows(NoSuchElementException.class, empty::next);
+    }
+
+    /**
+     * Tests the full iterator and the stream views, including after single-key updates.
+     */
+    @Test
+    public void testIteratorAndStream() throws Exception {
+        BPlusTree<Integer> bPlusTree = buildTree(4, 30, 10);
+        bPlusTree.insert(15);
+        bPlusTree.delete(20);
+
+        List<Integer> all = new ArrayList<>();
+        for (Integer key : bPlusTree) {
+            all.add(key);
+        }
+        assertEquals(bPlusTree.size(), all.size(), "Iteration should visit every key.");
+        assertEquals(all, bPlusTree.stream().collect(Collectors.toList()), "The stream should match the iterator.");
+        assertEquals(Arrays.asList(10, 15, 30), bPlusTree.rangeStream(5, 30).collect(Collectors.toList()),
+                "The range stream should reflect the updates.");
+
+        BPlusTree<Integer> emptyTree = new BPlusTree<>(4);
+        assertFalse(emptyTree.iterator().hasNext(), "An empty tree should have nothing to iterate.");
+        assertEquals(0, emptyTree.rangeStream(1, 2).count(), "An empty tree should have an empty range.");
+    }
+}
@@ -3,7 +3,15 @@ package org.bptree;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.bptree.BPlusTreeAssertions.assertBalanced;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class BPlusTreeTest {
@@ -53,6 +61,215 @@ public class BPlusTreeTest {
         verifyInternalNodeStructure(root, order);
     }
 
+    /**
+     * Tests single-key inserts into an empty tree, which must split leaves and internal nodes
+     * and grow the root while keeping the leaf chain sorted.
+     */
+    @Test
+    public void testInsertSplitsAndGrowsRoot() {
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(4);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            keys.add(i);
+        }
+        Collections.shuffle(keys, new Random(42));
+
+        for (Integer key : keys) {
+            assertTrue(bPlusTree.insert(key), "Key " + key + " should be inserted.");
+        }
+        assertFalse(bPlusTree.insert(100), "A key that is already present should not be inserted twice.");
+
+        assertEquals(200, bPlusTree.size(), "The tree should contain 200 keys.");
+        assertTrue(bPlusTree.getHeight() > 2, "200 keys with order 4 should need more than 2 levels.");
+        assertBalanced(bPlusTree.getRoot(), 4);
+        assertEquals(new ArrayList<>(new TreeSet<>(keys)), collectLeafKeys(bPlusTree.getRoot()),
+                "The leaf chain should list all keys in ascending order.");
+    }
+
+    /**
+     * Tests deletes that borrow from and merge with siblings until the tree shrinks back to an empty root.
+     */
+    @Test
+    public void testDeleteBorrowsMergesAndShrinksRoot() {
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(4);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            keys.add(i);
+            bPlusTree.insert(i);
+        }
+
+        Collections.shuffle(keys, new Random(7));
+        TreeSet<Integer> expected = new TreeSet<>(keys);
+        for (Integer key : keys) {
+            assertTrue(bPlusTree.delete(key), "Key " + key + " should be deleted.");
+            assertFalse(bPlusTree.delete(key), "Key " + key + " should not be deleted twice.");
+            expected.remove(key);
+            if (!expected.isEmpty()) {
+                assertBalanced(bPlusTree.getRoot(), 4);
+                assertEquals(new ArrayList<>(expected), collectLeafKeys(bPlusTree.getRoot()),
+                        "The leaf chain should stay sorted and complete after deleting " + key + ".");
+            }
+        }
+
+        assertNull(bPlusTree.getRoot(), "The root should be removed once the last key is deleted.");
+        assertEquals(0, bPlusTree.size(), "The tree should be empty.");
+    }
+
+    /**
+     * Tests that a bulk-loaded tree accepts single-key updates afterwards.
+     */
+    @Test
+    public void testUpdatesAfterBottomUp() throws Exception {
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(5);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i += 2) {
+            keys.add(i);
+        }
+        bPlusTree.bottom_up_method(keys);
+
+        TreeSet<Integer> expected = new TreeSet<>(keys);
+        for (int i = 0; i < 1000; i += 3) {
+            assertEquals(expected.remove(i), bPlusTree.delete(i), "Delete of " + i + " should match the reference set.");
+        }
+        for (int i = 1; i < 1000; i += 4) {
+            assertEquals(expected.add(i), bPlusTree.insert(i), "Insert of " + i + " should match the reference set.");
+        }
+
+        assertEquals(expected.size(), bPlusTree.size(), "The size should match the reference set.");
+        assertEquals(new ArrayList<>(expected), collectLeafKeys(bPlusTree.getRoot()),
+                "The leaf chain should match the reference set.");
+    }
+
+    /**
+     * Tests a random mix of inserts and deletes against a reference set.
+     */
+    @Test
+    public void testRandomInsertDelete() {
+        for (int order = 3; order <= 6; order++) {
+            BPlusTree<Integer> bPlusTree = new BPlusTree<>(order);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(order);
+
+            for (int i = 0; i < 5000; i++) {
+                int key = random.nextInt(500);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), bPlusTree.delete(key), "Delete of " + key + " should match the reference set.");
+                } else {
+                    assertEquals(expected.add(key), bPlusTree.insert(key), "Insert of " + key + " should match the reference set.");
+                }
+            }
+
+            assertEquals(expected.size(), bPlusTree.size(), "The size should match the reference set.");
+            assertBalanced(bPlusTree.getRoot(), order);
+            assertEquals(new ArrayList<>(expected), collectLeafKeys(bPlusTree.getRoot()),
+                    "The leaf chain should match the reference set for order " + order + ".");
+        }
+    }
+
+    /**
+     * Tests the O(log n) lookup on keys equal to separators, between keys and outside the key range.
+     */
+    @Test
+    public void testSearch() throws Exception {
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(4);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            keys.add(i * 2);
+        }
+        bPlusTree.bottom_up_method(keys);
+
+        for (int i = -2; i < 1002; i++) {
+            assertEquals(i >= 0 && i < 1000 && i % 2 == 0, bPlusTree.search(i), "Search result for " + i + " should be correct.");
+        }
+        assertTrue(bPlusTree.parallelSearch(998), "The single-key parallel search should find the last key.");
+        assertFalse(new BPlusTree<Integer>(4).search(1), "An empty tree should not contain any key.");
+    }
+
+    /**
+     * Tests that a batch of independent lookups on a caller-supplied pool returns results in probe order.
+     */
+    @Test
+    public void testParallelSearchOnSharedExecutor() throws Exception {
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(16);
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            keys.add(i * 3);
+        }
+        bPlusTree.bottom_up_method(keys);
+
+        List<Integer> probes = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            probes.add(random.nextInt(60_000));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            boolean[] found = bPlusTree.parallelSearch(probes, executor);
+            for (int i = 0; i < probes.size(); i++) {
+                assertEquals(probes.get(i) % 3 == 0, found[i], "Result " + i + " should belong to probe " + probes.get(i) + ".");
+            }
+            assertFalse(executor.isShutdown(), "The caller's executor should stay usable.");
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, bPlusTree.parallelSearch(probes.subList(0, 1)).length, "A small batch should be answered inline.");
+    }
+
+    /**
+     * Tests that batched lookups report results in probe order, including duplicate and out-of-range probes.
+     */
+    @Test
+    public void testLookupBatch() throws Exception {
+        for (int order = 3; order <= 8; order++) {
+            BPlusTree<Integer> bPlusTree = new BPlusTree<>(order);
+            List<Integer> keys = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                keys.add(i * 5);
+            }
+            bPlusTree.bottom_up_method(keys);
+
+            Random random = new Random(order);
+            List<Integer> probes = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                probes.add(random.nextInt(10_100) - 50);
+            }
+            probes.add(probes.get(0));
+
+            BitSet found = bPlusTree.lookupBatch(probes);
+            for (int i = 0; i < probes.size(); i++) {
+                assertEquals(bPlusTree.search(probes.get(i)), found.get(i), "Probe " + probes.get(i) + " at " + i + " should match search.");
+            }
+        }
+    }
+
+    /**
+     * Tests containsAll on present, partially present and empty probe sets.
+     */
+    @Test
+    public void testContainsAll() throws Exception {
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(4);
+        bPlusTree.bottom_up_method(Arrays.asList(1, 2, 3, 5, 8, 13, 21, 34));
+
+        assertTrue(bPlusTree.containsAll(Arrays.asList(34, 1, 13, 2)), "All probes are present.");
+        assertFalse(bPlusTree.containsAll(Arrays.asList(34, 4, 13)), "Key 4 is not present.");
+        assertTrue(bPlusTree.containsAll(Collections.<Integer>emptyList()), "An empty probe set is trivially contained.");
+    }
+
+    /**
+     * Collects all keys by walking the leaf chain from the leftmost leaf.
+     *
+     * @param root the root node of the tree
+     * @return the keys in leaf chain order
+     */
+    private List<Integer> collectLeafKeys(Node<Integer> root) {
+        List<Integer> keys = new ArrayList<>();
+        for (Node<Integer> leaf = findLeftMostLeaf(root); leaf != null; leaf = leaf.getNext()) {
+            keys.addAll(leaf.getKeys());
+        }
+        return keys;
+    }
+
     /**
      * Finds the leaf node that should contain the given key by traversing the tree from the root.
      *
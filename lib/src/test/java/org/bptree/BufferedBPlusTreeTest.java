@@ -0,0 +1,120 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.bptree.BPlusTreeAssertions.assertBalanced;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferedBPlusTreeTest {
+
+    /**
+     * Verifies random inserts and deletes against a reference set, with lookups between flushes.
+     */
+    @Test
+    public void testRandomOperationsMatchReference() {
+        Random random = new Random(3);
+        for (int capacity : new int[]{1, 8, 256}) {
+            BufferedBPlusTree<Integer> tree = new BufferedBPlusTree<>(5, capacity);
+            TreeSet<Integer> reference = new TreeSet<>();
+
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(5000);
+                if (random.nextInt(3) == 0) {
+                    tree.delete(key);
+                    reference.remove(key);
+                } else {
+                    tree.insert(key);
+                    reference.add(key);
+                }
+                int probe = random.nextInt(5000);
+                assertEquals(reference.contains(probe), tree.search(probe),
+                        "Key " + probe + " should match the reference with buffer capacity " + capacity + ".");
+            }
+
+            assertEquals(reference.size(), tree.size(), "The size should match after flushing.");
+            assertEquals(0, tree.getPendingCount(), "Nothing should be pending after a flush.");
+            assertEquals(new ArrayList<>(reference), toList(tree.iterator()), "Iteration should match the reference.");
+            assertEquals(new ArrayList<>(reference.subSet(100, true, 200, true)), toList(tree.range(100, 200)),
+                    "Ranges should match the reference.");
+        }
+    }
+
+    /**
+     * Verifies that messages stay buffered until a buffer fills, and that later messages override earlier ones.
+     */
+    @Test
+    public void testBuffering() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i * 10);
+        }
+        BufferedBPlusTree<Integer> tree = new BufferedBPlusTree<>(4, 100);
+        tree.bottom_up_method(keys);
+
+        tree.insert(5);
+        tree.delete(10);
+        tree.insert(10);
+        tree.delete(20);
+        assertEquals(3, tree.getPendingCount(), "Only the latest message per key should be kept.");
+        assertTrue(tree.search(5), "A buffered insert should be visible.");
+        assertTrue(tree.search(10), "A later insert should override a buffered delete.");
+        assertFalse(tree.search(20), "A buffered delete should hide the key.");
+        assertFalse(tree.getTree().search(20), "Flushing should apply the delete to the tree.");
+        assertTrue(tree.getTree().search(5), "Flushing should apply the insert to the tree.");
+
+        for (int i = 0; i < 50; i++) {
+            tree.insert(i * 10 + 1);
+        }
+        assertTrue(tree.getPendingCount() > 0, "Messages below the capacity should stay buffered.");
+        assertEquals(Arrays.asList(0, 1, 5, 10, 11), toList(tree.range(0, 11)), "Ranges should see buffered messages.");
+        assertThrows(IllegalArgumentException.class, () -> new BufferedBPlusTree<Integer>(4, 0));
+    }
+
+    /**
+     * Verifies that large batches, which split leaves many ways and empty whole subtrees, leave a valid tree:
+     * nodes within bounds, leaves at one depth, separators bounding their subtrees and a complete leaf chain.
+     */
+    @Test
+    public void testLargeBatchesKeepTreeValid() {
+        Random random = new Random(11);
+        for (int order : new int[]{3, 4, 5, 64}) {
+            BufferedBPlusTree<Integer> tree = new BufferedBPlusTree<>(order, 3000);
+            TreeSet<Integer> reference = new TreeSet<>();
+
+            for (int round = 0; round < 40; round++) {
+                // Alternate insert-heavy rounds with rounds that delete long runs of keys
+                boolean deleting = round % 3 == 2;
+                int start = random.nextInt(20_000);
+                for (int i = 0; i < 2000; i++) {
+                    int key = deleting ? start + i : random.nextInt(30_000);
+                    if (deleting) {
+                        tree.delete(key);
+                        reference.remove(key);
+                    } else {
+                        tree.insert(key);
+                        reference.add(key);
+                    }
+                }
+                BPlusTree<Integer> flushed = tree.getTree();
+                assertEquals(reference.size(), flushed.size(), "The size should match with order " + order + ".");
+                assertEquals(new ArrayList<>(reference), toList(flushed.iterator()),
+                        "Iteration should match the reference with order " + order + ".");
+                assertEquals(flushed.getHeight(), assertBalanced(flushed.getRoot(), order),
+                        "The tree should be balanced with order " + order + ".");
+            }
+        }
+    }
+
+    private static List<Integer> toList(Iterator<Integer> iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+}
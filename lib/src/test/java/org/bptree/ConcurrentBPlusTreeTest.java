@@ -0,0 +1,102 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentBPlusTreeTest {
+
+    /**
+     * Tests single-threaded inserts and deletes against a reference set.
+     */
+    @Test
+    public void testInsertDeleteAgainstReference() {
+        for (int order = 3; order <= 7; order++) {
+            ConcurrentBPlusTree<Integer> tree = new ConcurrentBPlusTree<>(order);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(order);
+
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(2000);
+                if (random.nextInt(4) == 0) {
+                    assertEquals(expected.remove(key), tree.delete(key), "Delete of " + key + " should match the reference set.");
+                } else {
+                    assertEquals(expected.add(key), tree.insert(key), "Insert of " + key + " should match the reference set.");
+                }
+            }
+
+            assertEquals(expected.size(), tree.size(), "The size should match the reference set.");
+            for (int key = -1; key <= 2000; key++) {
+                assertEquals(expected.contains(key), tree.search(key), "Search for " + key + " should match the reference set.");
+            }
+        }
+    }
+
+    /**
+     * Tests that readers running alongside writers on all cores never miss a key that was inserted
+     * before they started, and that all concurrent inserts are present afterwards.
+     */
+    @Test
+    public void testConcurrentReadersAndWriters() throws Exception {
+        ConcurrentBPlusTree<Integer> tree = new ConcurrentBPlusTree<>(8);
+        for (int i = 0; i < 10_000; i++) {
+            tree.insert(i * 2);
+        }
+
+        int writers = 4;
+        int keysPerWriter = 25_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writes.add(executor.submit(() -> {
+                    // Odd keys, interleaved between writers so that they share leaves
+                    for (int i = 0; i < keysPerWriter; i++) {
+                        assertTrue(tree.insert(2 * (i * writers + writer) + 1), "Every odd key should be new.");
+                    }
+                }));
+            }
+
+            List<Future<Integer>> reads = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                reads.add(executor.submit(() -> {
+                    int misses = 0;
+                    Random random = new Random();
+                    while (writing.get()) {
+                        int key = random.nextInt(10_000) * 2;
+                        if (!tree.search(key)) {
+                            misses++;
+                        }
+                    }
+                    return misses;
+                }));
+            }
+
+            for (Future<?> write : writes) {
+                write.get();
+            }
+            writing.set(false);
+            for (Future<Integer> read : reads) {
+                assertEquals(0, (int) read.get(), "Readers should never miss keys inserted before they started.");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(10_000L + writers * keysPerWriter, tree.size(), "All inserts should be counted.");
+        for (int i = 0; i < writers * keysPerWriter; i++) {
+            assertTrue(tree.search(2 * i + 1), "Concurrently inserted key " + (2 * i + 1) + " should be found.");
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.bptree.BPlusTreeAssertions.assertBalanced;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopyOnWriteBPlusTreeTest {
+
+    /**
+     * Tests inserts and deletes against a reference set, checking the balance of every version.
+     */
+    @Test
+    public void testInsertDeleteAgainstReference() {
+        for (int order = 3; order <= 7; order++) {
+            CopyOnWriteBPlusTree<Integer> tree = new CopyOnWriteBPlusTree<>(order);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(order);
+
+            for (int i = 0; i < 5000; i++) {
+                int key = random.nextInt(500);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), tree.delete(key), "Delete of " + key + " should match the reference set.");
+                } else {
+                    assertEquals(expected.add(key), tree.insert(key), "Insert of " + key + " should match the reference set.");
+                }
+                if (i % 100 == 0) {
+                    assertBalanced(tree.snapshot().getRoot(), order);
+                }
+            }
+
+            assertEquals(expected.size(), tree.size(), "The size should match the reference set.");
+            assertEquals(new ArrayList<>(expected), collect(tree.snapshot().iterator()), "Iteration should match the reference set.");
+            for (int key = -1; key <= 500; key++) {
+                assertEquals(expected.contains(key), tree.search(key), "Search for " + key + " should match the reference set.");
+            }
+        }
+    }
+
+    /**
+     * Tests that a snapshot keeps its keys while the tree is updated.
+     */
+    @Test
+    public void testSnapshotIsStable() {
+        CopyOnWriteBPlusTree<Integer> tree = new CopyOnWriteBPlusTree<>(4);
+        for (int i = 0; i < 100; i += 2) {
+            tree.insert(i);
+        }
+        CopyOnWriteBPlusTree.Snapshot<Integer> snapshot = tree.snapshot();
+        List<Integer> before = collect(snapshot.iterator());
+
+        for (int i = 1; i < 100; i += 2) {
+            tree.insert(i);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            tree.delete(i);
+        }
+
+        assertEquals(50, snapshot.size(), "The snapshot size should not change.");
+        assertEquals(before, collect(snapshot.iterator()), "The snapshot keys should not change.");
+        assertTrue(snapshot.search(10), "A key deleted later should still be found in the snapshot.");
+        assertFalse(snapshot.search(11), "A key inserted later should not be found in the snapshot.");
+        assertEquals(75, tree.size(), "The tree should see the updates.");
+        assertFalse(tree.search(10), "The tree should not find a deleted key.");
+    }
+
+    /**
+     * Tests that an update shares every node off its path with the previous version.
+     */
+    @Test
+    public void testUpdateSharesUnchangedNodes() {
+        CopyOnWriteBPlusTree<Integer> tree = new CopyOnWriteBPlusTree<>(4);
+        for (int i = 0; i < 200; i++) {
+            tree.insert(i * 10);
+        }
+        Node<Integer> oldRoot = tree.snapshot().getRoot();
+
+        tree.insert(5);
+
+        Node<Integer> newRoot = tree.snapshot().getRoot();
+        assertNotSame(oldRoot, newRoot, "The root should be copied.");
+        List<Node<Integer>> oldChildren = oldRoot.getChildren();
+        List<Node<Integer>> newChildren = newRoot.getChildren();
+        assertNotSame(oldChildren.get(0), newChildren.get(0), "The child on the update path should be copied.");
+        for (int i = 1; i < oldChildren.size(); i++) {
+            assertSame(oldChildren.get(i), newChildren.get(i), "Children off the update path should be shared.");
+        }
+    }
+
+    /**
+     * Tests range iteration over a snapshot.
+     */
+    @Test
+    public void testRange() {
+        CopyOnWriteBPlusTree<Integer> tree = new CopyOnWriteBPlusTree<>(3);
+        for (int i = 0; i < 100; i += 3) {
+            tree.insert(i);
+        }
+        CopyOnWriteBPlusTree.Snapshot<Integer> snapshot = tree.snapshot();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 12; i <= 50; i += 3) {
+            expected.add(i);
+        }
+        assertEquals(expected, collect(snapshot.range(10, 50)), "The range should return the keys within the bounds.");
+        assertFalse(snapshot.range(100, 200).hasNext(), "A range past the last key should be empty.");
+        assertFalse(new CopyOnWriteBPlusTree<Integer>(3).snapshot().iterator().hasNext(), "An empty tree should have no keys.");
+        assertThrows(IllegalArgumentException.class, () -> snapshot.range(5, 4));
+    }
+
+    /**
+     * Tests that scans of a snapshot see a consistent version while a writer keeps updating the tree.
+     */
+    @Test
+    public void testScansDuringWrites() throws Exception {
+        CopyOnWriteBPlusTree<Integer> tree = new CopyOnWriteBPlusTree<>(5);
+        for (int i = 0; i < 2000; i++) {
+            tree.insert(i);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        CopyOnWriteBPlusTree.Snapshot<Integer> snapshot = tree.snapshot();
+                        int count = 0;
+                        Integer previous = null;
+                        for (Integer key : snapshot) {
+                            assertTrue(previous == null || previous < key, "Keys should be strictly ascending.");
+                            previous = key;
+                            count++;
+                        }
+                        assertEquals(snapshot.size(), count, "A scan should see exactly the keys of its snapshot.");
+                    }
+                }));
+            }
+            Random random = new Random(42);
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(4000);
+                if (random.nextBoolean()) {
+                    tree.insert(key);
+                } else {
+                    tree.delete(key);
+                }
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Integer> collect(Iterator<Integer> iterator) {
+        List<Integer> keys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,300 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurableBPlusTreeTest {
+
+    /**
+     * Verifies that updates survive reopening, both from the log alone and from a checkpoint plus the log.
+     */
+    @Test
+    public void testRecoveryAfterReopen() throws Exception {
+        File directory = Files.createTempDirectory("durable-tree").toFile();
+        Random random = new Random(5);
+        TreeSet<Long> reference = new TreeSet<>();
+
+        try (DurableBPlusTree tree = new DurableBPlusTree(directory, 4, 0)) {
+            for (int i = 0; i < 2000; i++) {
+                long key = random.nextInt(1000);
+                if (random.nextInt(4) == 0) {
+                    assertEquals(reference.remove(key), tree.delete(key), "Delete should report whether the key was present.");
+                } else {
+                    assertEquals(reference.add(key), tree.insert(key), "Insert should report whether the key was new.");
+                }
+            }
+        }
+        try (DurableBPlusTree tree = new DurableBPlusTree(directory, 4, 0)) {
+            assertContents(reference, tree);
+            tree.checkpoint();
+            assertEquals(0, tree.getLogBytes(), "A checkpoint should empty the log.");
+            for (long key = 1000; key < 1100; key++) {
+                tree.insert(key);
+                reference.add(key);
+            }
+            assertTrue(tree.delete(1000L), "A key inserted after the checkpoint should be deletable.");
+            reference.remove(1000L);
+        }
+        try (DurableBPlusTree tree = new DurableBPlusTree(directory, 7, 0)) {
+            assertContents(reference, tree);
+            assertEquals(101L * DurableBPlusTree.RECORD_SIZE, tree.getLogBytes(),
+                    "Only records after the checkpoint should remain in the log.");
+        }
+        deleteAll(directory);
+    }
+
+    /**
+     * Verifies that a torn or corrupt log tail is dropped and that new records follow the last valid one.
+     */
+    @Test
+    public void testTornLogTail() throws Exception {
+        File directory = Files.createTempDirectory("durable-tree").toFile();
+        try (DurableBPlusTree tree = new DurableBPlusTree(directory, 4, 0)) {
+            for (long key = 0; key < 10; key++) {
+                tree.insert(key);
+            }
+        }
+        File logFile = new File(directory, DurableBPlusTree.LOG_FILE);
+        try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+            // Corrupt the key of the last record and add half a record after it
+            file.seek(9L * DurableBPlusTree.RECORD_SIZE + Long.BYTES + 1);
+            file.writeLong(42);
+            file.seek(file.length());
+            file.write(new byte[DurableBPlusTree.RECORD_SIZE / 2]);
+        }
+
+        try (DurableBPlusTree tree = new DurableBPlusTree(directory, 4, 0)) {
+            assertEquals(9, tree.size(), "Records after the first corrupt one should be dropped.");
+            assertFalse(tree.search(9), "The corrupt record should not be applied.");
+            assertFalse(tree.search(42), "The corrupt key should not be applied.");
+            assertEquals(9, tree.getLastLsn(), "The LSN should continue after the last valid record.");
+            assertEquals(9L * DurableBPlusTree.RECORD_SIZE, logFile.length(), "The torn tail should be truncated.");
+            assertTrue(tree.insert(100), "The tree should accept updates after recovery.");
+        }
+        try (DurableBPlusTree tree = new DurableBPlusTree(directory, 4, 0)) {
+            assertEquals(10, tree.size(), "Records written after recovery should be replayed.");
+            assertTrue(tree.search(100), "The record written after recovery should be applied.");
+        }
+        deleteAll(directory);
+    }
+
+    /**
+     * Verifies automatic checkpoints, concurrent writers sharing syncs, and the closed state.
+     */
+    @Test
+    public void testAutomaticCheckpointAndConcurrentWriters() throws Exception {
+        File directory = Files.createTempDirectory("durable-tree").toFile();
+        long threshold = 50L * DurableBPlusTree.RECORD_SIZE;
+        DurableBPlusTree tree = new DurableBPlusTree(directory, 5, threshold);
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final long base = t * 1000L;
+            Thread thread = new Thread(() -> {
+                try {
+                    for (long key = base; key < base + 250; key++) {
+                        tree.insert(key);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.isEmpty(), "No writer should fail: " + failures);
+        assertEquals(1000, tree.size(), "Every insert should be applied.");
+        assertEquals(1000, tree.getLastLsn(), "Every insert should get its own LSN.");
+        assertTrue(tree.getLogBytes() < threshold, "Checkpoints should keep the log below the threshold.");
+        assertTrue(tree.getCheckpointCount() > 0 && tree.getCheckpointCount() <= 1000 / 50,
+                "Writers crossing the threshold together should share one checkpoint: " + tree.getCheckpointCount());
+        assertTrue(new File(directory, DurableBPlusTree.SNAPSHOT_FILE).exists(), "A checkpoint should write a snapshot.");
+        tree.close();
+        tree.close();
+        assertThrows(IllegalStateException.class, () -> tree.insert(1));
+
+        try (DurableBPlusTree reopened = new DurableBPlusTree(directory, 5, threshold)) {
+            assertEquals(1000, reopened.size(), "Every insert should survive reopening.");
+            for (int t = 0; t < 4; t++) {
+                assertTrue(reopened.search(t * 1000L + 249), "The last key of each writer should be present.");
+            }
+            assertEquals(1000, reopened.getLastLsn(), "The LSN should survive reopening.");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new DurableBPlusTree(directory, 5, -1));
+        deleteAll(directory);
+    }
+
+    /**
+     * Verifies that a failed log write is never acknowledged, fails every later update, and loses nothing that
+     * was acknowledged before it.
+     */
+    @Test
+    public void testFailedWriteIsSticky() throws Exception {
+        File directory = Files.createTempDirectory("durable-tree").toFile();
+        FailingChannel[] channel = new FailingChannel[1];
+        DurableBPlusTree tree = new DurableBPlusTree(directory, 4, 0, log -> channel[0] = new FailingChannel(log));
+        for (long key = 0; key < 5; key++) {
+            tree.insert(key);
+        }
+
+        channel[0].failWrites = true;
+        assertThrows(IOException.class, () -> tree.insert(5), "A failed write should not be acknowledged.");
+        channel[0].failWrites = false;
+        assertThrows(IOException.class, () -> tree.insert(6), "Updates after a failed write should fail.");
+        assertThrows(IOException.class, () -> tree.delete(0), "Updates after a failed write should fail.");
+        assertThrows(IOException.class, tree::checkpoint, "Checkpoints after a failed write should fail.");
+        assertThrows(IOException.class, tree::close, "Closing after a failed write should report the failure.");
+        assertFalse(new File(directory, DurableBPlusTree.SNAPSHOT_FILE).exists(), "No snapshot should be written.");
+
+        try (DurableBPlusTree reopened = new DurableBPlusTree(directory, 4, 0)) {
+            assertEquals(5, reopened.size(), "Only acknowledged updates should be recovered.");
+            assertFalse(reopened.search(5), "The half-written record should be dropped.");
+            assertEquals(5, reopened.getLastLsn(), "The LSN should continue after the last synced record.");
+            assertTrue(reopened.insert(5), "The reopened tree should accept updates.");
+        }
+        deleteAll(directory);
+    }
+
+    private static void assertContents(TreeSet<Long> reference, DurableBPlusTree tree) {
+        assertEquals(reference.size(), tree.size(), "The recovered tree should hold every key.");
+        for (long key = -1; key <= 1100; key++) {
+            assertEquals(reference.contains(key), tree.search(key), "Key " + key + " should match the reference.");
+        }
+    }
+
+    private static void deleteAll(File directory) throws IOException {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(directory.toPath());
+    }
+
+    /**
+     * Delegates to a real channel, but can write half of a buffer and then fail, like a disk running full.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        private volatile boolean failWrites;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrites) {
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                delegate.write(half);
+                throw new IOException("Simulated write failure.");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
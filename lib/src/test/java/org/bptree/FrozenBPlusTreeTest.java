@@ -0,0 +1,102 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrozenBPlusTreeTest {
+
+    /**
+     * Verifies that a frozen tree finds exactly the keys of the source tree for many orders and sizes.
+     */
+    @Test
+    public void testFreezeAndSearch() throws Exception {
+        for (int order : new int[]{3, 4, 7, 64}) {
+            for (int keyCount : new int[]{1, 2, order - 1, order, order * order + 1, 5000}) {
+                List<Integer> keys = new ArrayList<>();
+                for (int i = 0; i < keyCount; i++) {
+                    keys.add(i * 2);
+                }
+                BPlusTree<Integer> tree = new BPlusTree<>(order);
+                tree.bottom_up_method(keys);
+                FrozenBPlusTree<Integer> frozen = tree.freeze();
+
+                assertEquals(keyCount, frozen.size(), "The frozen tree should hold every key.");
+                assertEquals(order, frozen.getOrder(), "The frozen tree should keep the order.");
+                for (int key = -1; key <= keyCount * 2; key++) {
+                    assertEquals(key >= 0 && key < keyCount * 2 && key % 2 == 0, frozen.search(key),
+                            "Key " + key + " should be found only if it was loaded (order " + order + ", " + keyCount + " keys).");
+                }
+                List<Integer> iterated = new ArrayList<>();
+                frozen.forEach(iterated::add);
+                assertEquals(keys, iterated, "Iteration should return every key in order.");
+            }
+        }
+    }
+
+    /**
+     * Verifies range views, including bounds between keys and outside the key set.
+     */
+    @Test
+    public void testRange() throws Exception {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(i * 3);
+        }
+        BPlusTree<Integer> tree = new BPlusTree<>(5);
+        tree.bottom_up_method(keys);
+        FrozenBPlusTree<Integer> frozen = tree.freeze();
+
+        assertEquals(Arrays.asList(12, 15, 18), frozen.range(11, 19), "The range should hold the keys between the bounds.");
+        assertEquals(Arrays.asList(12, 15, 18), frozen.range(12, 18), "Both bounds should be inclusive.");
+        assertEquals(keys, frozen.range(-100, 10_000), "A range covering all keys should return all of them.");
+        assertEquals(Collections.emptyList(), frozen.range(4000, 5000), "A range past the maximum should be empty.");
+        assertEquals(Collections.emptyList(), frozen.range(13, 14), "A range between two keys should be empty.");
+        assertThrows(IllegalArgumentException.class, () -> frozen.range(5, 1));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.range(0, 10).clear());
+    }
+
+    /**
+     * Verifies that a frozen copy is independent of later changes and survives serialization.
+     */
+    @Test
+    public void testIndependenceAndSerialization() throws Exception {
+        List<String> keys = Arrays.asList("apple", "banana", "cherry", "date", "elderberry", "fig", "grape");
+        BPlusTree<String> tree = new BPlusTree<>(3);
+        tree.bottom_up_method(keys);
+        FrozenBPlusTree<String> frozen = tree.freeze();
+        tree.insert("kiwi");
+        tree.delete("apple");
+
+        assertFalse(frozen.search("kiwi"), "Keys inserted after freezing should not appear.");
+        assertTrue(frozen.search("apple"), "Keys deleted after freezing should remain.");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(frozen);
+        }
+        FrozenBPlusTree<String> copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            FrozenBPlusTree<String> read = (FrozenBPlusTree<String>) in.readObject();
+            copy = read;
+        }
+        assertEquals(frozen.getHeight(), copy.getHeight(), "The height should survive serialization.");
+        for (String key : keys) {
+            assertTrue(copy.search(key), "Key " + key + " should be found after deserialization.");
+        }
+
+        FrozenBPlusTree<String> empty = new BPlusTree<String>(4).freeze();
+        assertEquals(0, empty.size(), "An empty tree should freeze to an empty tree.");
+        assertFalse(empty.search("a"), "An empty frozen tree should not find any key.");
+    }
+}
@@ -0,0 +1,216 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntBPlusTreeCodecTest {
+
+    /**
+     * Verifies that a tree survives a round trip with its shape, keys and leaf chain intact.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        int[] keys = new int[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Integer.MIN_VALUE + i * 40_000;
+        }
+        keys[keys.length - 1] = Integer.MAX_VALUE;
+
+        for (int order = 3; order <= 100; order += 97) {
+            IntBPlusTree tree = new IntBPlusTree(order);
+            tree.bottom_up_method(keys);
+
+            IntBPlusTree copy = IntBPlusTreeCodec.read(new ByteArrayInputStream(encode(tree)));
+
+            assertEquals(tree.getOrder(), copy.getOrder(), "The order should be restored.");
+            assertEquals(tree.size(), copy.size(), "The size should be restored.");
+            assertEquals(tree.getHeight(), copy.getHeight(), "The height should be restored.");
+            int index = 0;
+            for (IntNode leaf = copy.firstLeaf(); leaf != null; leaf = leaf.getNext()) {
+                for (int key : leaf.getKeys()) {
+                    assertEquals(keys[index++], key, "The leaf chain should return the keys in order.");
+                }
+            }
+            assertEquals(keys.length, index, "The leaf chain should cover every key.");
+            for (int i = 0; i < keys.length; i += 97) {
+                assertTrue(copy.search(keys[i]), "Key " + keys[i] + " should be found.");
+            }
+            assertTrue(copy.search(Integer.MAX_VALUE), "The maximum key should be found.");
+            assertFalse(copy.search(Integer.MIN_VALUE + 1), "Keys between stored keys should not be found.");
+        }
+    }
+
+    /**
+     * Verifies that the format is several times smaller than Java serialization.
+     */
+    @Test
+    public void testSmallerThanJavaSerialization() throws Exception {
+        int[] keys = new int[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 7;
+        }
+        IntBPlusTree tree = new IntBPlusTree(100);
+        tree.bottom_up_method(keys);
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(tree);
+        }
+
+        int encoded = encode(tree).length;
+        assertTrue(encoded * 3 < serialized.size(),
+                "Encoded size " + encoded + " should be well below the serialized size " + serialized.size() + ".");
+    }
+
+    /**
+     * Verifies empty trees and rejection of foreign streams.
+     */
+    @Test
+    public void testEmptyTreeAndInvalidStream() throws Exception {
+        IntBPlusTree copy = IntBPlusTreeCodec.read(new ByteArrayInputStream(encode(new IntBPlusTree(4))));
+        assertNull(copy.getRoot(), "An empty tree should have no root.");
+        assertEquals(0, copy.getHeight(), "An empty tree should have no levels.");
+        assertFalse(copy.search(1), "An empty tree should not find any key.");
+
+        assertThrows(IOException.class, () -> IntBPlusTreeCodec.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5})));
+    }
+
+    /**
+     * Verifies that streaming sorted keys through a writer gives exactly the tree a bulk load builds.
+     */
+    @Test
+    public void testStreamWriterMatchesBulkLoad() throws Exception {
+        for (int order : new int[]{3, 4, 5, 100}) {
+            for (int keyCount : new int[]{1, 2, order - 1, order, order * (order - 1), order * (order - 1) + 1,
+                    order * order * (order - 1) + order - 1, 5000, 12_345}) {
+                int[] keys = new int[keyCount];
+                for (int i = 0; i < keyCount; i++) {
+                    keys[i] = i / 3 * 5 - 1000;  // Includes equal keys
+                }
+                IntBPlusTree expected = new IntBPlusTree(order);
+                expected.bottom_up_method(keys);
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                IntBPlusTreeCodec.StreamWriter writer = IntBPlusTreeCodec.streamWriter(order, bytes);
+                for (int key : keys) {
+                    writer.add(key);
+                }
+                writer.finish();
+                IntBPlusTree streamed = IntBPlusTreeCodec.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+                assertEquals(keyCount, writer.size(), "The writer should count every key.");
+                assertEquals(expected.getHeight(), writer.getHeight(), "The writer should report the height.");
+                assertEquals(expected.getHeight(), streamed.getHeight(),
+                        "The height should match the bulk load (order " + order + ", " + keyCount + " keys).");
+                assertTrue(Arrays.equals(encode(expected), encode(streamed)),
+                        "Every node should match the bulk load (order " + order + ", " + keyCount + " keys).");
+                assertTrue(streamed.search(keys[keyCount - 1]), "The last key should be found.");
+            }
+        }
+    }
+
+    /**
+     * Verifies the writer's handling of empty input, unsorted keys and use after finishing.
+     */
+    @Test
+    public void testStreamWriterEdgeCases() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IntBPlusTreeCodec.StreamWriter writer = IntBPlusTreeCodec.streamWriter(4, bytes);
+        writer.finish();
+        writer.finish();
+        IntBPlusTree empty = IntBPlusTreeCodec.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertNull(empty.getRoot(), "A writer without keys should produce an empty tree.");
+        assertThrows(IllegalStateException.class, () -> writer.add(1));
+
+        IntBPlusTreeCodec.StreamWriter unsorted = IntBPlusTreeCodec.streamWriter(4, new ByteArrayOutputStream());
+        unsorted.add(5);
+        assertThrows(IllegalArgumentException.class, () -> unsorted.add(4));
+        assertThrows(IllegalArgumentException.class, () -> IntBPlusTreeCodec.streamWriter(2, new ByteArrayOutputStream()));
+
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 4);
+        assertThrows(IOException.class, () -> IntBPlusTreeCodec.read(new ByteArrayInputStream(truncated)));
+    }
+
+    /**
+     * Verifies that corrupt node blocks are rejected with an IOException instead of failing with a runtime
+     * exception, allocating huge arrays or decoding stale bytes left in the read buffer by an earlier block.
+     */
+    @Test
+    public void testCorruptBlocks() throws Exception {
+        byte[][] corrupt = {
+                singleLeaf(-1),  // Negative length
+                singleLeaf(Integer.MAX_VALUE),  // Length far beyond any node of the order
+                singleLeaf(2, 100, 0),  // More keys than bytes
+                singleLeaf(6, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F, 0),  // Key count beyond an int
+                singleLeaf(2, 2, 0x80),  // Varint running past the end of the block
+                singleLeaf(3, 1, 2, 0),  // Trailing bytes
+                singleLeaf(10, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01),  // Negative key count
+                header(2, 0, 0, 0),  // Order below the minimum
+                singleLeaf(5, 4, 2, 2, 2, 2),  // More keys than a node of order 4 holds
+                singleLeaf(12, 2, 20, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01),  // Decreasing keys
+                singleLeaf(7, 2, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0x0F),  // Keys climbing past the int range
+                singleLeaf(11, 2, 0, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x7F),  // Delta overflowing a long
+        };
+        for (int i = 0; i < corrupt.length; i++) {
+            byte[] bytes = corrupt[i];
+            IOException e = assertThrows(IOException.class, () -> IntBPlusTreeCodec.read(new ByteArrayInputStream(bytes)),
+                    "Corrupt stream " + i + " should be rejected.");
+            assertTrue(e.getMessage().startsWith("Corrupt B+ Tree"), "Corrupt stream " + i + " should be reported as corrupt.");
+        }
+
+        // A short block after a long one must not pick up the long block's bytes from the reused buffer
+        ByteArrayOutputStream stale = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(stale);
+        data.write(header(4, 4, 2, 3));
+        data.writeInt(3);
+        data.write(new byte[]{2, 2, 2});  // Keys 1 and 3
+        data.writeInt(2);
+        data.write(new byte[]{2, 10});  // Two keys claimed, but the second is missing from the block
+        IOException e = assertThrows(IOException.class, () -> IntBPlusTreeCodec.read(new ByteArrayInputStream(stale.toByteArray())),
+                "A block whose keys run past its end should be rejected.");
+        assertTrue(e.getMessage().startsWith("Corrupt B+ Tree"), "A block whose keys run past its end should be reported as corrupt.");
+    }
+
+    /**
+     * Writes a version 1 stream of one leaf whose block has the given length field and bytes.
+     */
+    private static byte[] singleLeaf(int length, int... block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.write(header(4, 1, 1, 1));
+        data.writeInt(length);
+        for (int b : block) {
+            data.writeByte(b);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the version 1 header up to the node count of the leaf level.
+     */
+    private static byte[] header(int order, int size, int height, int leafCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(0x42505431);
+        data.writeByte(1);
+        data.writeInt(order);
+        data.writeInt(size);
+        data.writeInt(height);
+        data.writeInt(leafCount);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encode(IntBPlusTree tree) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IntBPlusTreeCodec.write(tree, bytes);
+        return bytes.toByteArray();
+    }
+}
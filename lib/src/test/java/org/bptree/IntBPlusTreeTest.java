@@ -0,0 +1,111 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntBPlusTreeTest {
+
+    /**
+     * Verifies that every bulk-loaded key can be found and that absent keys are rejected.
+     */
+    @Test
+    public void testBottomUpAndSearch() {
+        IntBPlusTree tree = new IntBPlusTree(4);
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 2;
+        }
+        tree.bottom_up_method(keys);
+
+        assertEquals(1000, tree.size(), "The tree should report all bulk-loaded keys.");
+        for (int key : keys) {
+            assertTrue(tree.search(key), "Key " + key + " should be found.");
+            assertFalse(tree.search(key + 1), "Key " + (key + 1) + " should not be found.");
+        }
+        assertFalse(tree.search(-1), "Keys below the minimum should not be found.");
+    }
+
+    /**
+     * Verifies the node layout: internal nodes have one more child than keys and the leaves are chained in order.
+     */
+    @Test
+    public void testStructureAndLeafChain() {
+        IntBPlusTree tree = new IntBPlusTree(4);
+        int[] keys = new int[49];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 1;
+        }
+        tree.bottom_up_method(keys);
+
+        assertEquals(4, tree.getHeight(), "49 keys in leaves of 3 with fanout 4 need 4 levels.");
+        verifyInternalNodes(tree.getRoot(), 4);
+
+        int expected = 1;
+        for (IntNode leaf = tree.firstLeaf(); leaf != null; leaf = leaf.getNext()) {
+            for (int key : leaf.getKeys()) {
+                assertEquals(expected++, key, "Keys in leaf nodes should be in sequential order.");
+            }
+        }
+        assertEquals(50, expected, "All keys should be reachable through the leaf chain.");
+    }
+
+    /**
+     * Verifies that a partially filled buffer can be loaded without trimming it.
+     */
+    @Test
+    public void testBottomUpWithRange() {
+        IntBPlusTree tree = new IntBPlusTree(3);
+        tree.bottom_up_method(new int[]{9, 1, 2, 3, 9}, 1, 4);
+
+        assertEquals(3, tree.size(), "Only the given range should be loaded.");
+        assertTrue(tree.search(2), "Keys inside the range should be found.");
+        assertFalse(tree.search(9), "Keys outside the range should not be loaded.");
+        assertThrows(IllegalArgumentException.class, () -> tree.bottom_up_method(new int[0]));
+    }
+
+    /**
+     * Verifies that Java serialization restores the transient leaf chain.
+     */
+    @Test
+    public void testSerializationRestoresLeafChain() throws Exception {
+        IntBPlusTree tree = new IntBPlusTree(5);
+        int[] keys = new int[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        tree.bottom_up_method(keys);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tree);
+        }
+        IntBPlusTree copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (IntBPlusTree) in.readObject();
+        }
+
+        int count = 0;
+        for (IntNode leaf = copy.firstLeaf(); leaf != null; leaf = leaf.getNext()) {
+            count += leaf.getKeyCount();
+        }
+        assertEquals(500, count, "The leaf chain should cover every key after deserialization.");
+        assertTrue(copy.search(499), "The copy should be searchable.");
+    }
+
+    private void verifyInternalNodes(IntNode node, int order) {
+        if (node.isLeaf()) {
+            return;
+        }
+        assertTrue(node.getChildren().length <= order, "Internal node should have at most " + order + " children.");
+        assertTrue(node.getChildren().length >= 2, "Internal node should have at least 2 children.");
+        for (IntNode child : node.getChildren()) {
+            verifyInternalNodes(child, order);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeySearchTest {
+
+    /**
+     * Verifies that the strategy follows the key distribution: a model for dense ids, interpolation for
+     * noisy uniform keys and binary search for skewed or small nodes.
+     */
+    @Test
+    public void testStrategySelection() {
+        Random random = new Random(7);
+        long[] dense = new long[256];
+        long[] noisy = new long[256];
+        long[] skewed = new long[256];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = 5000 + i * 10L;
+            noisy[i] = i * 1000L + random.nextInt(20_000);
+            skewed[i] = 1L << (i / 4);
+        }
+        Arrays.sort(noisy);
+
+        assertTrue(KeySearch.forKeys(dense) instanceof KeySearch.LinearModel, "Dense ids should use a linear model.");
+        assertTrue(KeySearch.forKeys(noisy) instanceof KeySearch.Interpolation, "Noisy uniform keys should use interpolation.");
+        assertTrue(KeySearch.forKeys(skewed) instanceof KeySearch.Binary, "Skewed keys should use binary search.");
+        assertTrue(KeySearch.forKeys(new int[]{1, 2, 3}) instanceof KeySearch.Binary, "Small nodes should use binary search.");
+        assertTrue(((KeySearch.LinearModel) KeySearch.forKeys(dense)).getWindow() <= KeySearch.MAX_MODEL_ERROR,
+                "The model window should be bounded.");
+    }
+
+    /**
+     * Verifies every strategy against a reference upper bound, for stored keys, gaps and keys outside the node.
+     */
+    @Test
+    public void testUpperBoundMatchesReference() {
+        Random random = new Random(11);
+        KeySearch[] strategies = {KeySearch.Binary.INSTANCE, KeySearch.Interpolation.INSTANCE, null};
+        for (int round = 0; round < 200; round++) {
+            int n = random.nextInt(300);
+            long[] keys = new long[n];
+            int[] intKeys = new int[n];
+            int spread = round % 3 == 0 ? 3 : round % 3 == 1 ? 1000 : Integer.MAX_VALUE / 400;
+            for (int i = 0; i < n; i++) {
+                intKeys[i] = random.nextInt(spread) * (round % 2 == 0 ? 1 : -1) + (round % 5 == 0 ? i * 50 : 0);
+            }
+            Arrays.sort(intKeys);
+            for (int i = 0; i < n; i++) {
+                keys[i] = intKeys[i];
+            }
+            strategies[2] = n == 0 ? KeySearch.Binary.INSTANCE : KeySearch.forKeys(keys);
+
+            for (int probe = 0; probe < 100; probe++) {
+                int key = n == 0 || probe % 4 == 0 ? random.nextInt() : intKeys[random.nextInt(n)] + random.nextInt(3) - 1;
+                int expected = reference(intKeys, key);
+                for (KeySearch strategy : strategies) {
+                    assertEquals(expected, strategy.upperBound(intKeys, key), strategy + " should match for int key " + key + ".");
+                    assertEquals(expected, strategy.upperBound(keys, key), strategy + " should match for long key " + key + ".");
+                }
+            }
+            if (n > 0) {
+                assertEquals(n, strategies[2].upperBound(keys, Long.MAX_VALUE), "The maximum key should rank after all keys.");
+                assertEquals(0, strategies[2].upperBound(keys, Long.MIN_VALUE), "The minimum key should rank before all keys.");
+                assertEquals(reference(intKeys, intKeys[0]), KeySearch.forKeys(intKeys).upperBound(intKeys, intKeys[0]),
+                        "The int model should match the reference.");
+            }
+        }
+    }
+
+    /**
+     * Verifies that trees built from near-uniform keys route through models and still find every key.
+     */
+    @Test
+    public void testTreesUseNodeStrategies() {
+        long[] keys = new long[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 4L + (i % 3);
+        }
+        LongBPlusTree tree = new LongBPlusTree(128);
+        tree.bottom_up_method(keys);
+
+        assertTrue(tree.firstLeaf().getSearch() instanceof KeySearch.LinearModel, "Near-uniform leaves should use a linear model.");
+        assertFalse(tree.getRoot().getChildren()[0].getSearch() instanceof KeySearch.Binary,
+                "Near-uniform separators should not need binary search.");
+        for (long key : keys) {
+            assertTrue(tree.search(key), "Key " + key + " should be found.");
+        }
+        assertFalse(tree.search(3), "Key 3 should not be found.");
+        assertFalse(tree.search(-1), "Keys below the minimum should not be found.");
+        assertFalse(tree.search(Long.MAX_VALUE), "Keys above the maximum should not be found.");
+    }
+
+    /**
+     * Verifies that keys above 2^53, such as epoch nanoseconds, are found even though neighboring keys
+     * convert to the same double, and that a spread overflowing a long falls back to binary search.
+     */
+    @Test
+    public void testLargeMagnitudeLongKeys() {
+        for (long step : new long[]{1, 3}) {
+            long[] keys = new long[10_000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = 1_700_000_000_000_000_000L + i * step;
+            }
+            LongBPlusTree tree = new LongBPlusTree(64);
+            tree.bottom_up_method(keys);
+
+            for (long key : keys) {
+                assertTrue(tree.search(key), "Key " + key + " should be found.");
+            }
+            if (step > 1) {
+                assertFalse(tree.search(keys[5000] + 1), "Keys between stored keys should not be found.");
+            }
+            KeySearch search = KeySearch.forKeys(Arrays.copyOf(keys, 256));
+            assertTrue(search instanceof KeySearch.LinearModel, "Dense large ids should use a linear model.");
+            assertEquals(100, search.upperBound(Arrays.copyOf(keys, 256), keys[99]), "The model should rank large keys.");
+        }
+
+        long[] extremes = new long[64];
+        for (int i = 0; i < extremes.length; i++) {
+            extremes[i] = Long.MIN_VALUE + i * (Long.MAX_VALUE / 32);
+        }
+        KeySearch search = KeySearch.forKeys(extremes);
+        assertTrue(search instanceof KeySearch.Binary, "A spread overflowing a long should use binary search.");
+        for (int i = 0; i < extremes.length; i++) {
+            assertEquals(i + 1, search.upperBound(extremes, extremes[i]), "Extreme key " + i + " should be ranked.");
+        }
+    }
+
+    private static int reference(int[] keys, int key) {
+        int count = 0;
+        while (count < keys.length && keys[count] <= key) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongBPlusTreeTest {
+
+    /**
+     * Verifies that keys beyond the int range are stored and found.
+     */
+    @Test
+    public void testBottomUpAndSearch() {
+        LongBPlusTree tree = new LongBPlusTree(100);
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Integer.MAX_VALUE + 3L * i;
+        }
+        tree.bottom_up_method(keys);
+
+        assertEquals(3, tree.getHeight(), "10,000 keys with order 100 should need 3 levels.");
+        for (long key : keys) {
+            assertTrue(tree.search(key), "Key " + key + " should be found.");
+        }
+        assertFalse(tree.search(Integer.MAX_VALUE + 1L), "Keys between stored keys should not be found.");
+        assertFalse(tree.search(Long.MAX_VALUE), "Keys above the maximum should not be found.");
+    }
+
+    /**
+     * Verifies that a single leaf tree works as a root.
+     */
+    @Test
+    public void testSingleLeaf() {
+        LongBPlusTree tree = new LongBPlusTree(4);
+        tree.bottom_up_method(new long[]{1L, 2L});
+
+        assertEquals(1, tree.getHeight(), "A tree that fits into one leaf should have height 1.");
+        assertTrue(tree.getRoot().isLeaf(), "The root should be a leaf.");
+        assertTrue(tree.search(2L), "Key 2 should be found.");
+    }
+}
@@ -0,0 +1,79 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapLongBPlusTreeTest {
+
+    /**
+     * Verifies bulk loading, search and iteration for several orders, spanning more than one arena chunk.
+     */
+    @Test
+    public void testBottomUpSearchAndIterate() {
+        long[] keys = new long[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Integer.MAX_VALUE + 3L * i;
+        }
+
+        for (int order = 3; order <= 100; order += 97) {
+            OffHeapLongBPlusTree tree = new OffHeapLongBPlusTree(order);
+            tree.bottom_up_method(keys);
+
+            assertEquals(keys.length, tree.size(), "The size should match the number of keys.");
+            for (long key : keys) {
+                assertTrue(tree.search(key), "Key " + key + " should be found.");
+            }
+            assertFalse(tree.search(Integer.MAX_VALUE + 1L), "Keys between stored keys should not be found.");
+            assertFalse(tree.search(Long.MIN_VALUE), "Keys below the minimum should not be found.");
+            assertFalse(tree.search(Long.MAX_VALUE), "Keys above the maximum should not be found.");
+
+            PrimitiveIterator.OfLong iterator = tree.iterator();
+            for (long key : keys) {
+                assertEquals(key, iterator.nextLong(), "Iteration should return the keys in order.");
+            }
+            assertFalse(iterator.hasNext(), "Iteration should end after the last key.");
+        }
+    }
+
+    /**
+     * Verifies that the height matches an on-heap tree of the same order.
+     */
+    @Test
+    public void testHeightMatchesOnHeapTree() {
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+        OffHeapLongBPlusTree tree = new OffHeapLongBPlusTree(100);
+        tree.bottom_up_method(keys);
+        LongBPlusTree onHeap = new LongBPlusTree(100);
+        onHeap.bottom_up_method(keys);
+
+        assertEquals(onHeap.getHeight(), tree.getHeight(), "Both trees should have the same height.");
+        assertTrue(tree.getArena().getReservedBytes() > 0, "Nodes should be stored in the arena.");
+    }
+
+    /**
+     * Verifies that releasing and reloading the tree reuses the arena.
+     */
+    @Test
+    public void testReleaseAndReload() {
+        OffHeapLongBPlusTree tree = new OffHeapLongBPlusTree(4);
+        tree.bottom_up_method(new long[]{1L, 2L, 3L, 4L, 5L});
+        tree.release();
+
+        assertEquals(0, tree.size(), "A released tree should be empty.");
+        assertEquals(0, tree.getHeight(), "A released tree should have no levels.");
+        assertFalse(tree.search(1L), "A released tree should not find any key.");
+        assertFalse(tree.iterator().hasNext(), "A released tree should have no keys to iterate.");
+
+        tree.bottom_up_method(new long[]{7L, 8L});
+        assertEquals(1, tree.getHeight(), "A tree that fits into one leaf should have height 1.");
+        assertTrue(tree.search(8L), "Key 8 should be found after reloading.");
+        assertFalse(tree.search(1L), "Keys of the released tree should not be found.");
+        assertThrows(IllegalArgumentException.class, () -> tree.bottom_up_method(new long[0]));
+    }
+}
@@ -0,0 +1,131 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedIntBPlusTreeTest {
+
+    /**
+     * Verifies that packed blocks round-trip keys of every bit width, including the full int range.
+     */
+    @Test
+    public void testBlockEncoding() {
+        Random random = new Random(42);
+        for (int bits = 0; bits <= 32; bits++) {
+            int[] keys = new int[37];
+            long base = bits >= 31 ? Integer.MIN_VALUE : random.nextInt(1000) - 500;
+            for (int i = 0; i < keys.length; i++) {
+                long delta = bits == 0 ? 0 : random.nextLong() & ((1L << bits) - 1);
+                keys[i] = (int) (base + delta);
+            }
+            keys[keys.length - 1] = (int) (base + (bits == 0 ? 0 : (1L << bits) - 1));
+            Arrays.sort(keys);
+
+            PackedIntBlock block = PackedIntBlock.encode(keys, 0, keys.length);
+            assertTrue(block.getBitWidth() <= bits, "The block should use at most " + bits + " bits per key.");
+            int[] decoded = new int[keys.length];
+            block.decode(decoded, 0);
+            assertArrayEquals(keys, decoded, "Decoding should restore the keys for " + bits + " bits.");
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(keys[i], block.get(i), "Random access should return key " + i + ".");
+                assertTrue(block.contains(keys[i]), "Key " + keys[i] + " should be found.");
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> PackedIntBlock.encode(new int[]{2, 1}, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> PackedIntBlock.encode(new int[0], 0, 0));
+    }
+
+    /**
+     * Verifies that every bulk-loaded key is found and that dense keys pack into far fewer bytes.
+     */
+    @Test
+    public void testBottomUpAndSearch() {
+        int[] keys = new int[20_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1_000_000 + i * 3;
+        }
+        PackedIntBPlusTree tree = new PackedIntBPlusTree(64);
+        tree.bottom_up_method(keys);
+
+        assertEquals(keys.length, tree.size(), "The tree should report all bulk-loaded keys.");
+        for (int key : keys) {
+            assertTrue(tree.search(key), "Key " + key + " should be found.");
+            assertFalse(tree.search(key + 1), "Key " + (key + 1) + " should not be found.");
+        }
+        assertFalse(tree.search(Integer.MIN_VALUE), "Keys below the minimum should not be found.");
+        assertFalse(tree.getRoot().getChildren()[0].getSearch() instanceof KeySearch.Binary,
+                "Evenly spaced separators should not need binary search.");
+        assertTrue(tree.getLeafByteCount() * 2 < (long) keys.length * Integer.BYTES,
+                "Dense keys should take less than half the bytes of an int array.");
+        assertThrows(IllegalArgumentException.class, () -> new PackedIntBPlusTree(4).bottom_up_method(new int[]{1, 2, 3, 4, 0}));
+    }
+
+    /**
+     * Verifies that scans decode every key in order and that ranges honor both bounds.
+     */
+    @Test
+    public void testIteratorAndRange() {
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 2;
+        }
+        PackedIntBPlusTree tree = new PackedIntBPlusTree(5);
+        tree.bottom_up_method(keys);
+
+        assertArrayEquals(keys, toArray(tree.iterator()), "Iteration should return every key in order.");
+        assertArrayEquals(new int[]{10, 12, 14}, toArray(tree.range(9, 15)), "The range should hold the keys between the bounds.");
+        assertArrayEquals(new int[]{0, 2}, toArray(tree.range(Integer.MIN_VALUE, 2)), "An open lower bound should start at the first key.");
+        assertEquals(0, toArray(tree.range(5000, 6000)).length, "A range past the maximum should be empty.");
+        assertEquals(0, toArray(tree.range(20, 10)).length, "An inverted range should be empty.");
+    }
+
+    /**
+     * Verifies that packing an IntBPlusTree keeps its shape and keys, and that the copy survives serialization.
+     */
+    @Test
+    public void testPackAndSerialization() throws Exception {
+        int[] keys = new int[3000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 7 - 10_000;
+        }
+        IntBPlusTree source = new IntBPlusTree(16);
+        source.bottom_up_method(keys);
+        PackedIntBPlusTree packed = PackedIntBPlusTree.pack(source);
+
+        assertEquals(source.getHeight(), packed.getHeight(), "Packing should keep the height.");
+        assertEquals(source.size(), packed.size(), "Packing should keep the size.");
+        assertArrayEquals(keys, toArray(packed.iterator()), "Packing should keep every key.");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(packed);
+        }
+        PackedIntBPlusTree copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (PackedIntBPlusTree) in.readObject();
+        }
+        assertArrayEquals(keys, toArray(copy.iterator()), "The leaf chain should be restored after deserialization.");
+        assertTrue(copy.search(keys[1234]), "A stored key should be found after deserialization.");
+    }
+
+    private static int[] toArray(PrimitiveIterator.OfInt iterator) {
+        int[] values = new int[16];
+        int count = 0;
+        while (iterator.hasNext()) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = iterator.nextInt();
+        }
+        return Arrays.copyOf(values, count);
+    }
+}
@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
@@ -77,4 +78,36 @@ public class PerformanceTest {
         assertTrue(bplusTree.getHeight() > 0, "The tree height should be greater than 0.");
         System.out.println("Tree height: " + bplusTree.getHeight());
     }
+
+    /**
+     * Compares inserting random keys one at a time with inserting them through a BufferedBPlusTree,
+     * which applies each full buffer to its subtree in one pass.
+     */
+    @Disabled
+    @Test
+    public void testBufferedInsertPerformance() {
+        int[] randomKeys = new Random(42).ints(1_000_000).toArray();
+        int order = 64;
+
+        // Step 1: Measure plain inserts
+        long plainStartTime = System.nanoTime();
+        BPlusTree<Integer> plainTree = new BPlusTree<>(order);
+        for (int key : randomKeys) {
+            plainTree.insert(key);
+        }
+        long plainDurationMillis = (System.nanoTime() - plainStartTime) / 1_000_000;
+        System.out.println("Plain inserts took: " + plainDurationMillis + " ms");
+
+        // Step 2: Measure buffered inserts, including the final flush
+        long bufferedStartTime = System.nanoTime();
+        BufferedBPlusTree<Integer> bufferedTree = new BufferedBPlusTree<>(order, 4096);
+        for (int key : randomKeys) {
+            bufferedTree.insert(key);
+        }
+        int bufferedSize = bufferedTree.size();
+        long bufferedDurationMillis = (System.nanoTime() - bufferedStartTime) / 1_000_000;
+        System.out.println("Buffered inserts took: " + bufferedDurationMillis + " ms");
+
+        assertEquals(plainTree.size(), bufferedSize, "Both trees should hold the same keys.");
+    }
 }
@@ -0,0 +1,177 @@
+package org.bptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringBPlusTreeTest {
+
+    /**
+     * Verifies that keys sharing a long prefix are found, that near misses are rejected and that leaves store the prefix once.
+     */
+    @Test
+    public void testBottomUpAndSearch() {
+        List<String> keys = urls(5000);
+        StringBPlusTree tree = new StringBPlusTree(16);
+        tree.bottom_up_method(keys);
+
+        assertEquals(keys.size(), tree.size(), "The tree should report all bulk-loaded keys.");
+        for (String key : keys) {
+            assertTrue(tree.search(key), "Key " + key + " should be found.");
+            assertFalse(tree.search(key + "0"), "Key " + key + "0 should not be found.");
+            assertFalse(tree.search(key.substring(0, key.length() - 1)), "A proper prefix of a key should not be found.");
+        }
+        assertFalse(tree.search(""), "The empty key should not be found.");
+        assertFalse(tree.search("https://example.com/"), "A key before the minimum should not be found.");
+        assertFalse(tree.search("zzz"), "A key after the maximum should not be found.");
+
+        int fullBytes = 0;
+        int storedBytes = 0;
+        for (StringNode leaf = tree.firstLeaf(); leaf != null; leaf = leaf.getNext()) {
+            assertTrue(leaf.getPrefixLength() >= "https://example.com/items/".length(), "Leaves should share the URL prefix.");
+            for (int i = 0; i < leaf.getKeyCount(); i++) {
+                fullBytes += leaf.getKeyBytes(i).length;
+            }
+            storedBytes += leaf.getKeyByteCount();
+        }
+        assertTrue(storedBytes * 3 < fullBytes, "Prefix compression should store far fewer bytes than the full keys.");
+    }
+
+    /**
+     * Verifies that separators are truncated and still route every key, and that the leaf chain is in order.
+     */
+    @Test
+    public void testTruncatedSeparatorsAndLeafChain() {
+        List<String> keys = urls(1000);
+        StringBPlusTree tree = new StringBPlusTree(4);
+        tree.bottom_up_method(keys);
+
+        verifySeparators(tree.getRoot());
+        assertEquals(keys, collectLeafKeys(tree), "The leaf chain should hold every key in order.");
+
+        StringNode root = tree.getRoot();
+        assertFalse(root.isLeaf(), "A thousand keys should not fit into one leaf.");
+        for (int i = 0; i < root.getKeyCount(); i++) {
+            assertTrue(root.getKeyBytes(i).length < keys.get(0).length(), "Root separators should be shorter than the keys.");
+        }
+
+        assertArrayEquals(bytes("abd"), StringBPlusTree.shortestSeparator(bytes("abc"), bytes("abdef")));
+        assertArrayEquals(bytes("abc\0"), StringBPlusTree.shortestSeparator(bytes("abc"), bytes("abc\0z")));
+    }
+
+    /**
+     * Verifies that multi-byte characters round-trip and are ordered by code point.
+     */
+    @Test
+    public void testUnicodeKeys() {
+        List<String> keys = Arrays.asList("a", "z", "\u00e9t\u00e9", "\u00e9t\u00e9s", "\u65e5\u672c", "\u65e5\u672c\u8a9e");
+        StringBPlusTree tree = new StringBPlusTree(3);
+        tree.bottom_up_method(keys);
+
+        assertEquals(keys, collectLeafKeys(tree), "Keys should be decoded unchanged.");
+        for (String key : keys) {
+            assertTrue(tree.search(key), "Key " + key + " should be found.");
+        }
+        assertFalse(tree.search("\u00e9"), "A missing multi-byte key should not be found.");
+    }
+
+    /**
+     * Verifies that unsorted, duplicate and empty inputs are rejected.
+     */
+    @Test
+    public void testValidation() {
+        StringBPlusTree tree = new StringBPlusTree(4);
+        assertThrows(IllegalArgumentException.class, () -> tree.bottom_up_method(Arrays.asList("b", "a")));
+        assertThrows(IllegalArgumentException.class, () -> tree.bottom_up_method(Arrays.asList("a", "a")));
+        assertThrows(IllegalArgumentException.class, () -> tree.bottom_up_method(new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> new StringBPlusTree(2));
+        assertFalse(tree.search("a"), "An empty tree should not find any key.");
+    }
+
+    /**
+     * Verifies that a deserialized tree finds the same keys and has its leaf chain restored.
+     */
+    @Test
+    public void testSerialization() throws Exception {
+        List<String> keys = urls(500);
+        StringBPlusTree tree = new StringBPlusTree(8);
+        tree.bottom_up_method(keys);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(tree);
+        }
+        StringBPlusTree copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (StringBPlusTree) in.readObject();
+        }
+
+        assertEquals(tree.getHeight(), copy.getHeight(), "The height should survive serialization.");
+        assertEquals(keys, collectLeafKeys(copy), "The leaf chain should be restored.");
+        assertTrue(copy.search(keys.get(123)), "A stored key should be found after deserialization.");
+    }
+
+    private static List<String> urls(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(String.format("https://example.com/items/%08d/details", i * 3));
+        }
+        return keys;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> collectLeafKeys(StringBPlusTree tree) {
+        List<String> keys = new ArrayList<>();
+        for (StringNode leaf = tree.firstLeaf(); leaf != null; leaf = leaf.getNext()) {
+            for (int i = 0; i < leaf.getKeyCount(); i++) {
+                keys.add(leaf.getKey(i));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Checks that every separator is greater than all keys to its left and at most the keys to its right.
+     */
+    private static void verifySeparators(StringNode node) {
+        if (node.isLeaf()) {
+            return;
+        }
+        StringNode[] children = node.getChildren();
+        assertEquals(children.length - 1, node.getKeyCount(), "Internal node should have one key less than children.");
+        for (int i = 0; i < node.getKeyCount(); i++) {
+            String separator = node.getKey(i);
+            assertTrue(lastKey(children[i]).compareTo(separator) < 0, "Separator should follow its left subtree.");
+            assertTrue(firstKey(children[i + 1]).compareTo(separator) >= 0, "Separator should not exceed its right subtree.");
+        }
+        for (StringNode child : children) {
+            verifySeparators(child);
+        }
+    }
+
+    private static String firstKey(StringNode node) {
+        while (!node.isLeaf()) {
+            node = node.getChildren()[0];
+        }
+        return node.getKey(0);
+    }
+
+    private static String lastKey(StringNode node) {
+        while (!node.isLeaf()) {
+            node = node.getChildren()[node.getChildren().length - 1];
+        }
+        return node.getKey(node.getKeyCount() - 1);
+    }
+}
@@ -0,0 +1,70 @@
+package org.bptree.hadoop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RangePartitionerTest {
+
+    /**
+     * Verifies that split points sampled from skewed inputs give every partition about the same number of values.
+     */
+    @Test
+    public void testBalancedPartitionsForSkewedInput() {
+        Random random = new Random(11);
+        int[] values = new int[200_000];
+        for (int i = 0; i < values.length; i++) {
+            // Most values crowd near zero, with a long tail up to the largest int
+            double skewed = Math.pow(random.nextDouble(), 8);
+            values[i] = (int) (skewed * Integer.MAX_VALUE);
+        }
+        int[] sample = new int[10_000];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = values[random.nextInt(values.length)];
+        }
+
+        RangePartitioner partitioner = RangePartitioner.fromSample(sample, 8);
+        assertEquals(8, partitioner.getPartitionCount(), "Distinct quantiles should give the requested partition count.");
+        int[] counts = new int[partitioner.getPartitionCount()];
+        for (int value : values) {
+            counts[Integer.parseInt(partitioner.partitionKey(value)) - 1]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - values.length / 8) < values.length / 80,
+                    "Each partition should receive about an eighth of the values, got " + count + ".");
+        }
+    }
+
+    /**
+     * Verifies range boundaries, heavy duplicates, empty samples and the string round trip.
+     */
+    @Test
+    public void testBoundariesAndRoundTrip() {
+        RangePartitioner partitioner = new RangePartitioner(new int[]{10, 20});
+        assertEquals("1", partitioner.partitionKey(Integer.MIN_VALUE), "Values below the first split point belong to range 1.");
+        assertEquals("1", partitioner.partitionKey(9), "Values below the first split point belong to range 1.");
+        assertEquals("2", partitioner.partitionKey(10), "A split point belongs to the range it starts.");
+        assertEquals("3", partitioner.partitionKey(Integer.MAX_VALUE), "Values past the last split point belong to the last range.");
+
+        RangePartitioner copy = RangePartitioner.parse(partitioner.toString());
+        assertArrayEquals(new int[]{10, 20}, copy.getSplitPoints(), "Split points should survive the string form.");
+
+        int[] duplicates = new int[1000];
+        for (int i = 900; i < duplicates.length; i++) {
+            duplicates[i] = i;
+        }
+        RangePartitioner skewed = RangePartitioner.fromSample(duplicates, 5);
+        assertEquals(2, skewed.getPartitionCount(), "A value filling several quantiles should not be split.");
+        assertEquals("1", skewed.partitionKey(0), "All copies of the dominant value should share a range.");
+
+        RangePartitioner single = RangePartitioner.fromSample(new int[0], 4);
+        assertEquals(1, single.getPartitionCount(), "An empty sample should give a single range.");
+        assertEquals("", single.toString(), "A single range has no split points.");
+        assertEquals(1, RangePartitioner.parse("").getPartitionCount(), "An empty string should give a single range.");
+
+        assertThrows(IllegalArgumentException.class, () -> new RangePartitioner(new int[]{5, 5}));
+        assertThrows(IllegalArgumentException.class, () -> RangePartitioner.fromSample(new int[]{1}, 0));
+    }
+}
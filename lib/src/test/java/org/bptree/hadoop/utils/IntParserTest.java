@@ -0,0 +1,41 @@
+package org.bptree.hadoop.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntParserTest {
+
+    /**
+     * Verifies that parsing bytes agrees with Integer.parseInt on trimmed strings, including the int limits.
+     */
+    @Test
+    public void testMatchesIntegerParseInt() {
+        String[] valid = {"0", "7", "-7", "+7", "  42\t", "\t-0013 ", "2147483647", "-2147483648", "+2147483647", "42\r"};
+        for (String line : valid) {
+            assertEquals(Integer.parseInt(line.trim()), parse(line), "\"" + line + "\" should parse like Integer.parseInt.");
+        }
+
+        String[] invalid = {"", "   ", "-", "+", "1-2", "12a", "2147483648", "-2147483649", "99999999999", "1 2", "--1"};
+        for (String line : invalid) {
+            assertThrows(NumberFormatException.class, () -> parse(line), "\"" + line + "\" should be rejected.");
+        }
+    }
+
+    /**
+     * Verifies that only the given range of a larger buffer is parsed.
+     */
+    @Test
+    public void testOffsetAndLength() {
+        byte[] bytes = "xx-123yy".getBytes(StandardCharsets.UTF_8);
+        assertEquals(-123, IntParser.parseInt(bytes, 2, 4), "Only the bytes in the range should be read.");
+        assertEquals(12, IntParser.parseInt(bytes, 3, 2), "Only the bytes in the range should be read.");
+    }
+
+    private static int parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return IntParser.parseInt(bytes, 0, bytes.length);
+    }
+}
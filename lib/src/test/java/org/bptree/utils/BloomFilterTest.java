@@ -0,0 +1,83 @@
+package org.bptree.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    /**
+     * Verifies that added keys are always reported and that the false-positive rate stays near the target.
+     */
+    @Test
+    public void testNoFalseNegativesAndFalsePositiveRate() {
+        int keyCount = 100_000;
+        BloomFilter filter = new BloomFilter(keyCount, 0.01);
+        for (int i = 0; i < keyCount; i++) {
+            filter.add(i * 2L);
+        }
+
+        for (int i = 0; i < keyCount; i++) {
+            assertTrue(filter.mightContain(i * 2L), "Added key " + (i * 2L) + " should be reported.");
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < keyCount; i++) {
+            if (filter.mightContain(i * 2L + 1)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < keyCount * 0.02, "The false-positive rate should be close to 1%, was " + falsePositives + " in " + keyCount + ".");
+        assertTrue(filter.getBitCount() < keyCount * 12L, "A 1% filter should need about 10 bits per key.");
+    }
+
+    /**
+     * Verifies that folding keeps every added key, shrinks the filter to the actual key count and keeps the
+     * false-positive rate near the target for key counts far above and below the estimate.
+     */
+    @Test
+    public void testFold() {
+        for (int keyCount : new int[]{1_000, 200_000}) {
+            BloomFilter filter = BloomFilter.foldable(400_000, 0.01);
+            for (int i = 0; i < keyCount; i++) {
+                filter.add(i * 2L);
+            }
+            BloomFilter folded = filter.fold(keyCount, 0.01);
+
+            assertTrue(folded.getBitCount() < keyCount * 24L, "The folded filter should fit the actual key count.");
+            assertTrue(folded.expectedFalsePositiveRate(keyCount) <= 0.01, "The folded filter should meet the rate.");
+            int falsePositives = 0;
+            for (int i = 0; i < keyCount; i++) {
+                assertTrue(folded.mightContain(i * 2L), "Added key " + (i * 2L) + " should survive folding.");
+                if (folded.mightContain(i * 2L + 1)) {
+                    falsePositives++;
+                }
+            }
+            assertTrue(falsePositives < keyCount * 0.02 + 5, "The false-positive rate should be close to 1%, was "
+                    + falsePositives + " in " + keyCount + ".");
+            BloomFilter copy = BloomFilter.fromByteArray(folded.toByteArray());
+            assertTrue(copy.mightContain(0), "A folded filter should survive serialization.");
+        }
+        assertThrows(IllegalStateException.class, () -> new BloomFilter(1000, 0.01).fold(10, 0.01));
+    }
+
+    /**
+     * Verifies that a serialized filter answers exactly like the original and that bad input is rejected.
+     */
+    @Test
+    public void testSerialization() {
+        BloomFilter filter = new BloomFilter(1000, 0.05);
+        for (int i = -500; i < 500; i++) {
+            filter.add(i * 7919L);
+        }
+        BloomFilter copy = BloomFilter.fromByteArray(filter.toByteArray());
+
+        assertEquals(filter.getHashCount(), copy.getHashCount(), "The hash count should survive serialization.");
+        assertEquals(filter.getBitCount(), copy.getBitCount(), "The bit count should survive serialization.");
+        for (long key = -10_000; key < 10_000; key++) {
+            assertEquals(filter.mightContain(key), copy.mightContain(key), "The copy should answer like the original for " + key + ".");
+        }
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.fromByteArray(new byte[]{9, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,85 @@
+package org.bptree.utils;
+
+import org.bptree.OffHeapLongBPlusTree;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalSorterTest {
+
+    /**
+     * Verifies that values spilled to many runs come back sorted through several merge passes,
+     * and that closing the sorter removes its run files.
+     */
+    @Test
+    public void testSortWithSpilledRuns() throws Exception {
+        File directory = Files.createTempDirectory("external-sort").toFile();
+        long[] values = new Random(7).longs(100_000).toArray();
+
+        try (ExternalSorter sorter = new ExternalSorter(64 * 1024, directory)) {
+            for (long value : values) {
+                sorter.add(value);
+            }
+            assertTrue(sorter.getRunCount() > 2, "A small memory budget should spill several runs.");
+
+            Arrays.sort(values);
+            PrimitiveIterator.OfLong sorted = sorter.sortedIterator();
+            for (long value : values) {
+                assertEquals(value, sorted.nextLong(), "Values should come back in ascending order.");
+            }
+            assertFalse(sorted.hasNext(), "No values should be left after the last one.");
+            assertThrows(IllegalStateException.class, () -> sorter.add(1L));
+        }
+
+        String[] left = directory.list();
+        assertNotNull(left);
+        assertEquals(0, left.length, "Run files should be deleted on close.");
+        assertTrue(directory.delete());
+    }
+
+    /**
+     * Verifies that input fitting into memory is sorted without touching the disk.
+     */
+    @Test
+    public void testSortInMemory() throws Exception {
+        try (ExternalSorter sorter = new ExternalSorter(1 << 20, null)) {
+            sorter.addAll(Arrays.stream(new long[]{5, -2, 9, 1, 5}).iterator());
+            PrimitiveIterator.OfLong sorted = sorter.sortedIterator();
+
+            assertEquals(0, sorter.getRunCount(), "Nothing should be spilled.");
+            long[] result = new long[5];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = sorted.nextLong();
+            }
+            assertArrayEquals(new long[]{-2, 1, 5, 5, 9}, result, "The values should be sorted in ascending order.");
+        }
+    }
+
+    /**
+     * Verifies that the merged stream feeds a bulk load directly.
+     */
+    @Test
+    public void testSortIntoOffHeapTree() throws Exception {
+        long[] values = new Random(11).longs(50_000, 0, Long.MAX_VALUE).toArray();
+        OffHeapLongBPlusTree tree = new OffHeapLongBPlusTree(64);
+
+        try (ExternalSorter sorter = new ExternalSorter(64 * 1024, null)) {
+            for (long value : values) {
+                sorter.add(value);
+            }
+            tree.bottom_up_method(sorter.sortedIterator());
+        }
+
+        assertEquals(values.length, tree.size(), "Every value should be loaded.");
+        for (int i = 0; i < values.length; i += 13) {
+            assertTrue(tree.search(values[i]), "Value " + values[i] + " should be found.");
+        }
+        assertFalse(tree.search(-1L), "Values that were never added should not be found.");
+    }
+}
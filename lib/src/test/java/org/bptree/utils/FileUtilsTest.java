@@ -7,7 +7,10 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -63,4 +66,90 @@ public class FileUtilsTest {
         assertArrayEquals(new String[]{"Alice", "30"}, data.get(1), "Second row should match sample data for 'Alice'.");
         assertArrayEquals(new String[]{"Bob", "25"}, data.get(2), "Third row should match sample data for 'Bob'.");
     }
+
+    /**
+     * Tests that numeric columns are parsed from a file large enough to be split into several chunks,
+     * with a header, blank lines, whitespace and Windows line endings.
+     *
+     * @throws IOException if an I/O error occurs while creating or reading the file.
+     */
+    @Test
+    public void testReadNumericColumns() throws IOException {
+        Path tempFile = Files.createTempFile("test", ".csv");
+        StringBuilder content = new StringBuilder("id,value\n");
+        int rows = 300_000;
+        for (int i = 0; i < rows; i++) {
+            content.append(i - 1000).append(", ").append((long) i * 100_000_000L).append(i % 2 == 0 ? "\r\n" : "\n");
+            if (i % 1000 == 0) {
+                content.append("\n");
+            }
+        }
+        Files.write(tempFile, content.toString().getBytes(StandardCharsets.US_ASCII));
+
+        int[] ids = FileUtils.readIntColumn(tempFile.toString(), ',', 0, true);
+        long[] values = FileUtils.readLongColumn(tempFile.toString(), ',', 1, true);
+
+        assertEquals(rows, ids.length, "Every data row should be read.");
+        assertEquals(rows, values.length, "Every data row should be read.");
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i - 1000, ids[i], "Ids should be read in file order.");
+            assertEquals((long) i * 100_000_000L, values[i], "Values should be read in file order.");
+        }
+        assertThrows(NumberFormatException.class, () -> FileUtils.readIntColumn(tempFile.toString(), ',', 1, true));
+        assertThrows(NumberFormatException.class, () -> FileUtils.readLongColumn(tempFile.toString(), ',', 0, false));
+        Files.delete(tempFile);
+    }
+
+    /**
+     * Tests that the memory-mapped column parser reads the first column of a headerless dataset exactly as
+     * splitting the lines with readCSV() and parsing the fields does, including a last line without a line break.
+     * Also covers an empty file and a file holding only a header.
+     *
+     * @throws IOException if an I/O error occurs while creating or reading the file.
+     */
+    @Test
+    public void testReadLongColumnMatchesReadCSV() throws IOException {
+        Path tempFile = Files.createTempFile("test", ".csv");
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(13);
+        for (int i = 0; i < 200_000; i++) {
+            if (i > 0) {
+                content.append('\n');
+            }
+            content.append(random.nextLong()).append(',').append(random.nextInt(100)).append(",x");
+        }
+        Files.write(tempFile, content.toString().getBytes(StandardCharsets.US_ASCII));
+
+        long[] column = FileUtils.readLongColumn(tempFile.toString(), ',', 0, false);
+        List<String[]> rows = FileUtils.readCSV(tempFile.toString(), ",");
+        assertEquals(rows.size(), column.length, "Every row should be read, including the last one.");
+        for (int i = 0; i < column.length; i++) {
+            assertEquals(Long.parseLong(rows.get(i)[0].trim()), column[i], "Row " + i + " should match readCSV().");
+        }
+
+        Files.write(tempFile, new byte[0]);
+        assertEquals(0, FileUtils.readLongColumn(tempFile.toString(), ',', 0, false).length, "An empty file should have no values.");
+        Files.write(tempFile, "id\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(0, FileUtils.readLongColumn(tempFile.toString(), ',', 0, true).length, "A header alone should give no values.");
+        Files.delete(tempFile);
+    }
+
+    /**
+     * Tests that the row callback receives every field of every row.
+     *
+     * @throws IOException if an I/O error occurs while creating or reading the file.
+     */
+    @Test
+    public void testForEachRow() throws IOException {
+        Path tempFile = Files.createTempFile("test", ".csv");
+        Files.write(tempFile, "1;-2;3\n\n9223372036854775807;-9223372036854775808\n".getBytes(StandardCharsets.US_ASCII));
+
+        List<long[]> rows = new ArrayList<>();
+        FileUtils.forEachRow(tempFile.toString(), ';', false, (fields, count) -> rows.add(Arrays.copyOf(fields, count)));
+
+        assertEquals(2, rows.size(), "Blank lines should be skipped.");
+        assertArrayEquals(new long[]{1, -2, 3}, rows.get(0), "First row should contain all its fields.");
+        assertArrayEquals(new long[]{Long.MAX_VALUE, Long.MIN_VALUE}, rows.get(1), "The long range should be parsed exactly.");
+        Files.delete(tempFile);
+    }
 }
@@ -4,8 +4,11 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class SortUtilsTest {
@@ -18,4 +21,72 @@ public class SortUtilsTest {
         assertEquals(Arrays.asList(1, 2, 5, 5, 6, 9), sortedData, "The list should be sorted in ascending order.");
 
     }
+
+    @Test
+    public void testMergeSortLargeList() {
+        Random random = new Random(3);
+        List<Integer> data = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            data.add(random.nextInt(1000) - 500);
+        }
+        List<Integer> expected = new ArrayList<>(data);
+        Collections.sort(expected);
+
+        List<Integer> sortedData = SortUtils.mergeSort(data);
+        assertEquals(expected, sortedData, "A list spanning several runs should be sorted in ascending order.");
+    }
+
+    @Test
+    public void testMergeSortLeavesInputUnchanged() {
+        Random random = new Random(7);
+        for (int length : new int[]{0, 1, 6, 50_000}) {
+            List<Integer> input = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                input.add(random.nextInt());
+            }
+            List<Integer> data = Collections.unmodifiableList(new ArrayList<>(input));
+            List<Integer> expected = new ArrayList<>(input);
+            Collections.sort(expected);
+
+            List<Integer> sortedData = SortUtils.mergeSort(data);
+            assertEquals(expected, sortedData, "An unmodifiable list of length " + length + " should be sorted into a new list.");
+            assertEquals(input, data, "The input list of length " + length + " should be left unchanged.");
+        }
+    }
+
+    @Test
+    public void testRadixSortInts() {
+        Random random = new Random(5);
+        for (int length : new int[]{0, 1, 1000, 500_000}) {
+            int[] data = random.ints(length).toArray();
+            if (length > 1) {
+                data[0] = Integer.MIN_VALUE;
+                data[1] = Integer.MAX_VALUE;
+            }
+            int[] expected = data.clone();
+            Arrays.sort(expected);
+
+            SortUtils.radixSort(data);
+            assertArrayEquals(expected, data, "Ints of length " + length + " should be sorted in ascending order.");
+        }
+
+        int[] narrow = random.ints(200_000, 0, 100).toArray();
+        int[] expected = narrow.clone();
+        Arrays.sort(expected);
+        SortUtils.radixSort(narrow);
+        assertArrayEquals(expected, narrow, "Ints that share their upper digits should be sorted.");
+    }
+
+    @Test
+    public void testRadixSortLongs() {
+        Random random = new Random(9);
+        long[] data = random.longs(500_000).toArray();
+        data[0] = Long.MIN_VALUE;
+        data[1] = Long.MAX_VALUE;
+        long[] expected = data.clone();
+        Arrays.sort(expected);
+
+        SortUtils.radixSort(data);
+        assertArrayEquals(expected, data, "Longs should be sorted in ascending order.");
+    }
 }